@@ -0,0 +1,129 @@
+package com.garage.inventory.dao;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * BatchLoader collects the IDs a screen needs for one render pass and resolves them together
+ * Instead of one getXxxById query per table row, callers queue() every ID first, then dispatch()
+ * once, which runs a single WHERE id IN (...) query; get() then answers from memory
+ * Each ID is resolved at most once per loader, so create a new loader for every render pass
+ *
+ * @param <T> The entity type being loaded
+ */
+public class BatchLoader<T> {
+    // Largest IN list sent in one statement
+    static final int MAX_IN_LIST = 500;
+    // Smallest IN list size; shorter lists are padded so only a few distinct SQL texts get prepared
+    private static final int MIN_IN_LIST = 8;
+
+    private final Function<Collection<Integer>, Map<Integer, T>> batchFunction;
+    private final Set<Integer> pending = new LinkedHashSet<>();
+    private final Map<Integer, T> resolved = new HashMap<>();
+
+    /**
+     * @param batchFunction Loads all requested IDs at once, e.g. CustomerDAO::getCustomersByIds
+     */
+    public BatchLoader(Function<Collection<Integer>, Map<Integer, T>> batchFunction) {
+        this.batchFunction = batchFunction;
+    }
+
+    /**
+     * Registers an ID to be loaded by the next dispatch()
+     * IDs of 0 or less mean "none" in this schema and are ignored
+     *
+     * @param id The ID to load
+     */
+    public void queue(int id) {
+        if (id > 0 && !resolved.containsKey(id)) {
+            pending.add(id);
+        }
+    }
+
+    /**
+     * Loads every queued ID with one batch query
+     */
+    public void dispatch() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<Integer, T> loaded = batchFunction.apply(new ArrayList<>(pending));
+        for (Integer id : pending) {
+            // Remember misses too, so a missing row is not queried again
+            resolved.put(id, loaded.get(id));
+        }
+        pending.clear();
+    }
+
+    /**
+     * Gets a loaded entity
+     * An ID that was not queued is loaded on its own, so forgetting queue() is slow but not wrong
+     *
+     * @param id The ID to look up
+     * @return The entity, or null if the ID is 0 or does not exist
+     */
+    public T get(int id) {
+        if (id <= 0) {
+            return null;
+        }
+        if (!resolved.containsKey(id)) {
+            queue(id);
+            dispatch();
+        }
+        return resolved.get(id);
+    }
+
+    /**
+     * Splits IDs into IN-list sized chunks for DAO batch queries
+     * Each chunk is padded by repeating its last ID up to a power-of-two size, so the statement
+     * cache sees a handful of SQL shapes instead of one per distinct list length
+     *
+     * @param ids The IDs to split
+     * @return Chunks of at most MAX_IN_LIST IDs
+     */
+    static List<List<Integer>> chunks(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Integer> all = new ArrayList<>(ids);
+        List<List<Integer>> chunks = new ArrayList<>();
+        for (int start = 0; start < all.size(); start += MAX_IN_LIST) {
+            List<Integer> chunk = new ArrayList<>(all.subList(start, Math.min(all.size(), start + MAX_IN_LIST)));
+            int size = MIN_IN_LIST;
+            while (size < chunk.size()) {
+                size *= 2;
+            }
+            size = Math.min(size, MAX_IN_LIST);
+            Integer last = chunk.get(chunk.size() - 1);
+            while (chunk.size() < size) {
+                chunk.add(last);
+            }
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    /**
+     * Builds the "?, ?, ?" placeholder list for an IN clause
+     *
+     * @param count Number of placeholders
+     * @return Comma separated placeholders
+     */
+    static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 3);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append('?');
+        }
+        return sb.toString();
+    }
+}
@@ -1,23 +1,31 @@
 package com.garage.inventory.dao;
 
+import com.garage.inventory.dao.TableVersions.Table;
 import com.garage.inventory.database.DatabaseConnection;
 import com.garage.inventory.model.Customer;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * CustomerDAO handles all database operations for Customers
  * Manages customer information and relationships with sales
+ * Every write is applied to the shared CustomerIndex once committed, so searches are answered in memory
  */
 public class CustomerDAO {
+    private final CustomerIndex index = CustomerIndex.getInstance();
     
     /**
      * Adds a new customer to the database
      * This method inserts customer information for tracking clients
+     * On success the generated ID is set on the customer
      * 
      * @param customer The customer object containing all customer details
      * @return true if customer was added successfully, false otherwise
@@ -26,7 +34,7 @@ public class CustomerDAO {
         String sql = "INSERT INTO customers (name, contact_number, email, address, vehicle_info) VALUES (?, ?, ?, ?, ?)";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             stmt.setString(1, customer.getName());
             stmt.setString(2, customer.getContactNumber());
@@ -35,6 +43,18 @@ public class CustomerDAO {
             stmt.setString(5, customer.getVehicleInfo());
             
             int rowsAffected = stmt.executeUpdate();
+            if (rowsAffected > 0) {
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        customer.setId(keys.getInt(1));
+                        index.put(customer);
+                    } else {
+                        // Without the new ID the index cannot be kept complete
+                        index.invalidateAll();
+                    }
+                }
+                TableVersions.bump(Table.CUSTOMERS);
+            }
             return rowsAffected > 0;
         } catch (SQLException e) {
             System.err.println("Error adding customer: " + e.getMessage());
@@ -64,6 +84,10 @@ public class CustomerDAO {
             stmt.setInt(6, customer.getId());
             
             int rowsAffected = stmt.executeUpdate();
+            if (rowsAffected > 0) {
+                index.put(customer);
+                TableVersions.bump(Table.CUSTOMERS);
+            }
             return rowsAffected > 0;
         } catch (SQLException e) {
             System.err.println("Error updating customer: " + e.getMessage());
@@ -87,6 +111,11 @@ public class CustomerDAO {
             
             stmt.setInt(1, customerId);
             int rowsAffected = stmt.executeUpdate();
+            if (rowsAffected > 0) {
+                index.remove(customerId);
+                CustomerSpendCache.getInstance().remove(customerId);
+                TableVersions.bump(Table.CUSTOMERS, Table.SALES, Table.DEBTS);
+            }
             return rowsAffected > 0;
         } catch (SQLException e) {
             System.err.println("Error deleting customer: " + e.getMessage());
@@ -98,12 +127,14 @@ public class CustomerDAO {
     /**
      * Retrieves all customers from the database
      * This method gets all customers for display in the customers management screen
+     * The rows also (re)load the search index
      * 
      * @return List of all customers
      */
     public List<Customer> getAllCustomers() {
         List<Customer> customers = new ArrayList<>();
         String sql = "SELECT * FROM customers ORDER BY name";
+        long readVersion = index.getVersion();
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
@@ -119,6 +150,7 @@ public class CustomerDAO {
                 customer.setVehicleInfo(rs.getString("vehicle_info"));
                 customers.add(customer);
             }
+            index.loadAll(customers, readVersion);
         } catch (SQLException e) {
             System.err.println("Error retrieving customers: " + e.getMessage());
             e.printStackTrace();
@@ -161,14 +193,73 @@ public class CustomerDAO {
         return null;
     }
     
+    /**
+     * Retrieves several customers with one query per IN-list chunk
+     * Used by BatchLoader so a screen refresh does not query customers row by row
+     *
+     * @param customerIds The IDs of the customers to retrieve
+     * @return Map of customer ID to customer; IDs that do not exist are absent
+     */
+    public Map<Integer, Customer> getCustomersByIds(Collection<Integer> customerIds) {
+        Map<Integer, Customer> customers = new HashMap<>();
+        
+        for (List<Integer> chunk : BatchLoader.chunks(customerIds)) {
+            String sql = "SELECT * FROM customers WHERE id IN (" + BatchLoader.placeholders(chunk.size()) + ")";
+            
+            try (Connection conn = DatabaseConnection.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setInt(i + 1, chunk.get(i));
+                }
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Customer customer = new Customer();
+                        customer.setId(rs.getInt("id"));
+                        customer.setName(rs.getString("name"));
+                        customer.setContactNumber(rs.getString("contact_number"));
+                        customer.setEmail(rs.getString("email"));
+                        customer.setAddress(rs.getString("address"));
+                        customer.setVehicleInfo(rs.getString("vehicle_info"));
+                        customers.put(customer.getId(), customer);
+                    }
+                }
+            } catch (SQLException e) {
+                System.err.println("Error retrieving customers by IDs: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+        
+        return customers;
+    }
+    
     /**
      * Searches customers by name or contact number
      * This is useful for finding customers quickly
+     * Answered from the in-memory CustomerIndex: every word must start a word of the name, or the
+     * digits must appear in the contact number; names and numbers starting with the term come first
+     * The whole table is loaded into the index on first use
      * 
      * @param searchTerm The search term (name or contact number)
-     * @return List of matching customers
+     * @return List of matching customers, best first
      */
     public List<Customer> searchCustomers(String searchTerm) {
+        List<Customer> customers = index.search(searchTerm);
+        if (customers == null) {
+            getAllCustomers();
+            customers = index.search(searchTerm);
+        }
+        return customers != null ? customers : searchCustomersInDatabase(searchTerm);
+    }
+    
+    /**
+     * Searches customers with LIKE when the index could not be loaded
+     * 
+     * @param searchTerm The search term (name or contact number)
+     * @return List of matching customers
+     */
+    private List<Customer> searchCustomersInDatabase(String searchTerm) {
         List<Customer> customers = new ArrayList<>();
         String sql = "SELECT * FROM customers WHERE name LIKE ? OR contact_number LIKE ? ORDER BY name";
         
@@ -0,0 +1,231 @@
+package com.garage.inventory.dao;
+
+import com.garage.inventory.model.Customer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * CustomerIndex is the in-process search index over the customers table
+ * Names are split into lower case words kept in a TokenPrefixIndex, so every word starting with a
+ * prefix is one range lookup; contact numbers are reduced to their digits and every tail of
+ * at least MIN_PHONE_SUFFIX digits is indexed the same way, so "5512" finds "+1 (555) 512-0000"
+ * and "0000" finds it too
+ * CustomerDAO loads it with the whole table and updates it customer by customer after every
+ * committed insert, update and delete, so searching never has to go back to the database
+ */
+class CustomerIndex {
+    // Shortest tail of a contact number that is indexed
+    private static final int MIN_PHONE_SUFFIX = 3;
+
+    private static final CustomerIndex INSTANCE = new CustomerIndex();
+
+    private final Map<Integer, Customer> byId = new HashMap<>();
+    private final TokenPrefixIndex<Integer> byNameToken = new TokenPrefixIndex<>();
+    private final TokenPrefixIndex<Integer> byPhoneSuffix = new TokenPrefixIndex<>();
+    // True once the whole table has been loaded
+    private boolean complete = false;
+    // Bumped by every write, so a load that raced with a write is not used
+    private long version = 0;
+
+    private CustomerIndex() {
+    }
+
+    /**
+     * Gets the shared index
+     *
+     * @return The process wide customer index
+     */
+    static CustomerIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Finds the customers whose name words start with every word of the query, or whose contact
+     * number contains the query's digits when the query is a phone number
+     * Ranking: name or contact number starting with the query, then names with a word starting
+     * with each query word, then contact numbers containing the digits further in; ties by name
+     *
+     * @param query Text typed by the user
+     * @return Copies of the matching customers, best first,
+     *         or null if the whole table has not been loaded yet
+     */
+    synchronized List<Customer> search(String query) {
+        if (!complete) {
+            return null;
+        }
+        List<String> words = TokenPrefixIndex.tokenize(query);
+        String digits = isPhoneQuery(query) ? digitsOf(query) : "";
+        String lowerQuery = query.trim().toLowerCase();
+
+        Set<Integer> candidates = new LinkedHashSet<>();
+        byNameToken.findAll(words, Integer.MAX_VALUE, candidates);
+        if (!digits.isEmpty()) {
+            for (Set<Integer> ids : byPhoneSuffix.withPrefix(digits)) {
+                candidates.addAll(ids);
+            }
+        }
+
+        Map<Integer, Integer> ranks = new HashMap<>();
+        for (Integer id : candidates) {
+            ranks.put(id, rank(byId.get(id), lowerQuery, digits, words));
+        }
+        List<Integer> ranked = new ArrayList<>(candidates);
+        ranked.sort(Comparator
+                .comparingInt((Integer id) -> ranks.get(id))
+                .thenComparing(id -> byId.get(id).getName(), Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER))
+                .thenComparingInt(id -> id));
+
+        List<Customer> customers = new ArrayList<>(ranked.size());
+        for (Integer id : ranked) {
+            customers.add(copy(byId.get(id)));
+        }
+        return customers;
+    }
+
+    /**
+     * Gets the write version to pass to loadAll() before a database read
+     *
+     * @return The current write version
+     */
+    synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * Replaces the index contents with a full table load
+     * Ignored if a write happened since readVersion was taken, as the rows may already be stale
+     *
+     * @param customers Every row of the customers table
+     * @param readVersion getVersion() taken before the rows were read
+     */
+    synchronized void loadAll(Collection<Customer> customers, long readVersion) {
+        if (readVersion != version) {
+            return;
+        }
+        clear();
+        for (Customer customer : customers) {
+            store(copy(customer));
+        }
+        complete = true;
+    }
+
+    /**
+     * Adds or replaces one customer after it was inserted or updated
+     *
+     * @param customer The customer as it is now stored
+     */
+    synchronized void put(Customer customer) {
+        if (customer == null || customer.getId() <= 0) {
+            return;
+        }
+        version++;
+        unstore(customer.getId());
+        store(copy(customer));
+    }
+
+    /**
+     * Removes a customer after it was deleted
+     *
+     * @param customerId The deleted customer's ID
+     */
+    synchronized void remove(int customerId) {
+        version++;
+        unstore(customerId);
+    }
+
+    /**
+     * Drops the whole index so the next search loads the table again
+     */
+    synchronized void invalidateAll() {
+        version++;
+        clear();
+        complete = false;
+    }
+
+    private void clear() {
+        byId.clear();
+        byNameToken.clear();
+        byPhoneSuffix.clear();
+    }
+
+    private void store(Customer customer) {
+        int id = customer.getId();
+        byId.put(id, customer);
+
+        byNameToken.add(id, TokenPrefixIndex.tokenize(customer.getName()));
+
+        String digits = digitsOf(customer.getContactNumber());
+        List<String> suffixes = new ArrayList<>();
+        // The whole number is always indexed, however short it is
+        for (int start = 0; start < digits.length(); start++) {
+            if (start > 0 && digits.length() - start < MIN_PHONE_SUFFIX) {
+                break;
+            }
+            suffixes.add(digits.substring(start));
+        }
+        byPhoneSuffix.add(id, suffixes);
+    }
+
+    private void unstore(int customerId) {
+        byId.remove(customerId);
+        byNameToken.remove(customerId);
+        byPhoneSuffix.remove(customerId);
+    }
+
+    private int rank(Customer customer, String lowerQuery, String digits, List<String> words) {
+        String name = customer.getName() != null ? customer.getName().toLowerCase() : "";
+        if (name.startsWith(lowerQuery)) {
+            return 0;
+        }
+        if (!digits.isEmpty() && digitsOf(customer.getContactNumber()).startsWith(digits)) {
+            return 0;
+        }
+        if (!words.isEmpty() && byNameToken.matchesAll(customer.getId(), words)) {
+            return 1;
+        }
+        return 2;
+    }
+
+    /**
+     * @return true if the query has digits and nothing but phone number punctuation besides
+     */
+    private static boolean isPhoneQuery(String query) {
+        boolean hasDigit = false;
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (Character.isDigit(c)) {
+                hasDigit = true;
+            } else if (Character.isLetter(c)) {
+                return false;
+            }
+        }
+        return hasDigit;
+    }
+
+    private static String digitsOf(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder digits = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isDigit(c)) {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+
+    private static Customer copy(Customer customer) {
+        Customer copy = new Customer(customer.getName(), customer.getContactNumber(), customer.getEmail(),
+                customer.getAddress(), customer.getVehicleInfo());
+        copy.setId(customer.getId());
+        return copy;
+    }
+}
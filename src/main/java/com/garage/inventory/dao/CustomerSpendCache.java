@@ -0,0 +1,94 @@
+package com.garage.inventory.dao;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * CustomerSpendCache remembers the lifetime sales total of the customers looked at recently
+ * A total is computed with one SUM query the first time it is asked for; after that SaleDAO adds
+ * every committed sale to it and CustomerDAO drops it when the customer is deleted, so clicking
+ * a customer again costs no query at all
+ * At most MAX_CUSTOMERS totals are kept; the one used longest ago is dropped to make room
+ */
+class CustomerSpendCache {
+    private static final int MAX_CUSTOMERS = 1000;
+
+    private static final CustomerSpendCache INSTANCE = new CustomerSpendCache();
+
+    // Access ordered, so the eldest entry is the least recently used one
+    private final Map<Integer, BigDecimal> totals = new LinkedHashMap<Integer, BigDecimal>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, BigDecimal> eldest) {
+            return size() > MAX_CUSTOMERS;
+        }
+    };
+    // Bumped by every write, so a SUM that raced with a sale is not cached
+    private long version = 0;
+
+    private CustomerSpendCache() {
+    }
+
+    /**
+     * Gets the shared cache
+     *
+     * @return The process wide cache
+     */
+    static CustomerSpendCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Looks up a cached total
+     *
+     * @param customerId The customer ID
+     * @return The lifetime total, or null if it is not cached
+     */
+    synchronized BigDecimal get(int customerId) {
+        return totals.get(customerId);
+    }
+
+    /**
+     * Gets the write version to pass to putLoaded() after a database read
+     *
+     * @return The current write version
+     */
+    synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * Caches a total read from the database
+     * Ignored if a sale was recorded since readVersion was taken, as the total may already be stale
+     *
+     * @param customerId The customer ID
+     * @param total The lifetime total as read
+     * @param readVersion getVersion() taken before the total was read
+     */
+    synchronized void putLoaded(int customerId, BigDecimal total, long readVersion) {
+        if (readVersion == version) {
+            totals.put(customerId, total);
+        }
+    }
+
+    /**
+     * Adds a committed sale to the customer's total, if it is cached
+     *
+     * @param customerId The customer ID
+     * @param amount The sale's total amount
+     */
+    synchronized void add(int customerId, BigDecimal amount) {
+        version++;
+        totals.computeIfPresent(customerId, (id, total) -> total.add(amount));
+    }
+
+    /**
+     * Drops a customer's total after the customer was deleted
+     *
+     * @param customerId The deleted customer's ID
+     */
+    synchronized void remove(int customerId) {
+        version++;
+        totals.remove(customerId);
+    }
+}
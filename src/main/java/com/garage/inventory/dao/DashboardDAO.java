@@ -0,0 +1,114 @@
+package com.garage.inventory.dao;
+
+import com.garage.inventory.dao.TableVersions.Table;
+import com.garage.inventory.database.DatabaseConfig;
+import com.garage.inventory.database.DatabaseConnection;
+import com.garage.inventory.model.DashboardSnapshot;
+import com.garage.inventory.model.Item;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * DashboardDAO reads everything the dashboard shows
+ * Today's totals come from a single statement on the daily rollups, so they cost one row each
+ * however busy the day; the item count and low stock items come from ItemDAO, which answers them
+ * from the in-memory catalog instead of scanning the items table
+ *
+ * The last snapshot is shared by every caller for a short time, so several dashboards on one
+ * terminal cost one read; it is reused while it is younger than garage.dashboard.cache.ttl.ms
+ * (garage.properties or -D, default 2000) and no items, sales or purchases were changed through
+ * this process since it was read
+ */
+public class DashboardDAO {
+    private static final long DEFAULT_CACHE_TTL_MS = 2000;
+    private static final long CACHE_TTL_MS = loadCacheTtl();
+
+    private static final String TODAY_TOTALS_SQL = "SELECT " +
+            "(SELECT COALESCE(SUM(total_amount), 0) FROM sales_daily WHERE sale_date = CURDATE()) AS today_sales, " +
+            "(SELECT COALESCE(SUM(total_amount), 0) FROM purchases_daily WHERE purchase_date = CURDATE()) AS today_purchases";
+
+    private final ItemDAO itemDAO = new ItemDAO();
+
+    private static DashboardSnapshot cached;
+    // TableVersions counters and date the cached snapshot was read at
+    private static List<Object> cachedStamp;
+
+    /**
+     * Gets the dashboard values, from the shared cache when it is still fresh
+     *
+     * @return The snapshot; all zeros and no low stock items if it could not be read
+     */
+    public DashboardSnapshot getSnapshot() {
+        List<Object> stamp = stamp();
+        synchronized (DashboardDAO.class) {
+            if (cached != null && stamp.equals(cachedStamp) &&
+                    System.currentTimeMillis() - cached.getTakenAt() < CACHE_TTL_MS) {
+                return cached;
+            }
+        }
+
+        DashboardSnapshot snapshot = readSnapshot();
+        if (snapshot == null) {
+            return new DashboardSnapshot(0, new ArrayList<>(), BigDecimal.ZERO, BigDecimal.ZERO,
+                    System.currentTimeMillis());
+        }
+        synchronized (DashboardDAO.class) {
+            cached = snapshot;
+            cachedStamp = stamp;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Reads a fresh snapshot from the database
+     *
+     * @return The snapshot, or null if it could not be read
+     */
+    private DashboardSnapshot readSnapshot() {
+        int totalItems = itemDAO.getTotalItemCount();
+        List<Item> lowStockItems = itemDAO.getLowStockItems();
+
+        BigDecimal todaySales = BigDecimal.ZERO;
+        BigDecimal todayPurchases = BigDecimal.ZERO;
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(TODAY_TOTALS_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                todaySales = rs.getBigDecimal("today_sales");
+                todayPurchases = rs.getBigDecimal("today_purchases");
+            }
+        } catch (SQLException e) {
+            System.err.println("Error reading dashboard snapshot: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+
+        return new DashboardSnapshot(totalItems, lowStockItems, todaySales, todayPurchases,
+                System.currentTimeMillis());
+    }
+
+    private static List<Object> stamp() {
+        return Arrays.asList(LocalDate.now(), TableVersions.get(Table.ITEMS),
+                TableVersions.get(Table.SALES), TableVersions.get(Table.PURCHASES));
+    }
+
+    private static long loadCacheTtl() {
+        String value = DatabaseConfig.load().get("garage.dashboard.cache.ttl.ms", null);
+        if (value == null) {
+            return DEFAULT_CACHE_TTL_MS;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid garage.dashboard.cache.ttl.ms '" + value + "', using " + DEFAULT_CACHE_TTL_MS);
+            return DEFAULT_CACHE_TTL_MS;
+        }
+    }
+}
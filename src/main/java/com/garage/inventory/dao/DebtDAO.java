@@ -1,5 +1,6 @@
 package com.garage.inventory.dao;
 
+import com.garage.inventory.dao.TableVersions.Table;
 import com.garage.inventory.database.DatabaseConnection;
 import com.garage.inventory.model.DebtTransaction;
 import com.garage.inventory.model.DebtPayment;
@@ -41,6 +42,9 @@ public class DebtDAO {
             stmt.setString(11, debt.getStatus().name());
 
             int rowsAffected = stmt.executeUpdate();
+            if (rowsAffected > 0) {
+                TableVersions.bump(Table.DEBTS);
+            }
             return rowsAffected > 0;
         } catch (SQLException e) {
             System.err.println("Error adding debt transaction: " + e.getMessage());
@@ -86,6 +90,7 @@ public class DebtDAO {
             }
 
             conn.commit();
+            TableVersions.bump(Table.DEBTS);
             return true;
         } catch (SQLException e) {
             if (conn != null) {
@@ -271,7 +276,9 @@ public class DebtDAO {
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.executeUpdate();
+            if (stmt.executeUpdate() > 0) {
+                TableVersions.bump(Table.DEBTS);
+            }
         } catch (SQLException e) {
             System.err.println("Error updating overdue debts: " + e.getMessage());
             e.printStackTrace();
@@ -286,6 +293,9 @@ public class DebtDAO {
 
             stmt.setInt(1, debtId);
             int rowsAffected = stmt.executeUpdate();
+            if (rowsAffected > 0) {
+                TableVersions.bump(Table.DEBTS);
+            }
             return rowsAffected > 0;
         } catch (SQLException e) {
             System.err.println("Error deleting debt transaction: " + e.getMessage());
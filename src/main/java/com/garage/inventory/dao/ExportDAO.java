@@ -0,0 +1,116 @@
+package com.garage.inventory.dao;
+
+import com.garage.inventory.database.DatabaseConnection;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.stream.Stream;
+
+/**
+ * ExportDAO reads whole tables for export
+ * Rows come from a forward-only cursor through RowStream with every column as stored, so a table
+ * of any size is exported in constant memory
+ */
+public class ExportDAO {
+
+    /**
+     * The tables that can be exported
+     */
+    public enum ExportTable {
+        SALES("Sales", "sales"),
+        PURCHASES("Purchases", "purchases"),
+        ITEMS("Items", "items"),
+        DEBT_TRANSACTIONS("Debt Transactions", "debt_transactions");
+
+        private final String title;
+        private final String tableName;
+
+        ExportTable(String title, String tableName) {
+            this.title = title;
+            this.tableName = tableName;
+        }
+
+        /**
+         * @return The name shown to the user
+         */
+        public String getTitle() {
+            return title;
+        }
+
+        /**
+         * @return The database table name, also used as the default file name
+         */
+        public String getTableName() {
+            return tableName;
+        }
+    }
+
+    /**
+     * Gets the column names of a table
+     *
+     * @param table The table
+     * @return The column names in table order
+     * @throws SQLException if they could not be read
+     */
+    public String[] getColumns(ExportTable table) throws SQLException {
+        String sql = "SELECT * FROM " + table.tableName + " WHERE 1 = 0";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            ResultSetMetaData metaData = rs.getMetaData();
+            String[] columns = new String[metaData.getColumnCount()];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = metaData.getColumnLabel(i + 1);
+            }
+            return columns;
+        }
+    }
+
+    /**
+     * Counts the rows of a table
+     *
+     * @param table The table
+     * @return The number of rows, or -1 if it could not be counted
+     */
+    public long countRows(ExportTable table) {
+        String sql = "SELECT COUNT(*) AS row_count FROM " + table.tableName;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            if (rs.next()) {
+                return rs.getLong("row_count");
+            }
+        } catch (SQLException e) {
+            System.err.println("Error counting " + table.tableName + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return -1;
+    }
+
+    /**
+     * Streams every row of a table in ID order from a forward-only cursor
+     * The stream holds a database connection and must be closed
+     *
+     * @param table The table
+     * @return One array per row with one value per column, in the order of getColumns()
+     * @throws SQLException if the query could not be started
+     */
+    public Stream<Object[]> streamTable(ExportTable table) throws SQLException {
+        String sql = "SELECT * FROM " + table.tableName + " ORDER BY id";
+        return RowStream.open(sql, stmt -> {
+        }, rs -> {
+            Object[] row = new Object[rs.getMetaData().getColumnCount()];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = rs.getObject(i + 1);
+            }
+            return row;
+        });
+    }
+}
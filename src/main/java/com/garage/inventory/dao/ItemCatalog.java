@@ -0,0 +1,441 @@
+package com.garage.inventory.dao;
+
+import com.garage.inventory.model.Item;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ItemCatalog is the in-process cache of the items table, indexed by ID and by part number
+ * ItemDAO reads through it and every DAO that changes an item writes through it after the
+ * database change has been committed, so screen switches can be served without a query
+ * Cached items are never handed out directly; callers always receive copies they may modify
+ * The catalog also keeps the set of items at or below their minimum stock level, ordered by
+ * stock quantity, and moves an item into or out of it on every change in O(log n)
+ * A word prefix index over part numbers and names serves the typeahead item pickers
+ *
+ * Writes made through this process keep the catalog exact; writes made by other processes on a
+ * shared database are noticed by ItemDAO, which compares the totals kept here with the same totals
+ * computed by the database and drops the catalog when they differ (see matchesDatabase())
+ */
+public class ItemCatalog {
+    // Same order as "ORDER BY name" in ItemDAO.getAllItems()
+    private static final Comparator<Item> BY_NAME = Comparator
+            .comparing(Item::getName, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER))
+            .thenComparingInt(Item::getId);
+
+    // Same order as "ORDER BY stock_quantity" in the low stock query, ties broken by ID
+    private static final Comparator<Item> BY_STOCK = Comparator
+            .comparingInt(Item::getStockQuantity)
+            .thenComparingInt(Item::getId);
+
+    // Created after the comparators it depends on
+    private static final ItemCatalog INSTANCE = new ItemCatalog();
+
+    private final Map<Integer, Item> byId = new HashMap<>();
+    private final Map<String, Item> byPartNumber = new HashMap<>();
+    // Items with stock_quantity <= min_stock_level, lowest stock first
+    // An item must be taken out before its stock or minimum level changes and put back afterwards
+    private final TreeSet<Item> lowStock = new TreeSet<>(BY_STOCK);
+    private final ItemSearchIndex searchIndex = new ItemSearchIndex();
+    // True once the whole table has been loaded, so a miss in the maps means "no such item"
+    private boolean complete = false;
+    // Bumped by every write, so a read that raced with a write does not cache what it read
+    private long version = 0;
+    // When the whole table was last loaded and last compared with the database
+    private long loadedAt = 0;
+    private long checkedAt = 0;
+
+    // Totals of the cached rows, each column weighted by the row's ID so that changes to two rows
+    // do not cancel out; kept up to date on every change
+    private long idTotal = 0;
+    private long stockTotal = 0;
+    private long minStockTotal = 0;
+    private BigDecimal priceTotal = BigDecimal.ZERO;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private ItemCatalog() {
+    }
+
+    /**
+     * Gets the shared catalog
+     *
+     * @return The process wide item catalog
+     */
+    public static ItemCatalog getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Gets every item ordered by name
+     *
+     * @return Copies of all items, or null if the whole table has not been loaded yet
+     */
+    synchronized List<Item> getAll() {
+        if (!complete) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        List<Item> items = new ArrayList<>(byId.size());
+        for (Item item : byId.values()) {
+            items.add(copy(item));
+        }
+        items.sort(BY_NAME);
+        return items;
+    }
+
+    /**
+     * Looks up an item by ID
+     * A null result is only final when isComplete() is true; otherwise the item may just not be cached
+     *
+     * @param itemId The item ID
+     * @return A copy of the cached item, or null
+     */
+    synchronized Item get(int itemId) {
+        return countLookup(byId.get(itemId));
+    }
+
+    /**
+     * Looks up an item by part number
+     * A null result is only final when isComplete() is true; otherwise the item may just not be cached
+     *
+     * @param partNumber The part number
+     * @return A copy of the cached item, or null
+     */
+    synchronized Item getByPartNumber(String partNumber) {
+        return countLookup(byPartNumber.get(partNumber));
+    }
+
+    /**
+     * Gets the items at or below their minimum stock level
+     *
+     * @return Copies of the low stock items ordered by stock quantity,
+     *         or null if the whole table has not been loaded yet
+     */
+    synchronized List<Item> getLowStock() {
+        if (!complete) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        List<Item> items = new ArrayList<>(lowStock.size());
+        for (Item item : lowStock) {
+            items.add(copy(item));
+        }
+        return items;
+    }
+
+    /**
+     * Finds items by the start of any word of their part number or name
+     *
+     * @param query Words typed by the user
+     * @param limit Maximum number of items to return
+     * @return Copies of the best matches, best first,
+     *         or null if the whole table has not been loaded yet
+     */
+    synchronized List<Item> search(String query, int limit) {
+        if (!complete) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        List<Item> items = new ArrayList<>();
+        for (Integer id : searchIndex.search(query, limit, byId)) {
+            items.add(copy(byId.get(id)));
+        }
+        return items;
+    }
+
+    /**
+     * @return true if the whole items table is cached, so absent items do not exist
+     */
+    synchronized boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Gets the number of items when the whole table is cached
+     *
+     * @return Item count, or -1 if the whole table has not been loaded yet
+     */
+    synchronized int size() {
+        if (!complete) {
+            misses.incrementAndGet();
+            return -1;
+        }
+        hits.incrementAndGet();
+        return byId.size();
+    }
+
+    /**
+     * Starts a comparison with the database if the last one is older than the interval
+     * Only one caller per interval gets true, so concurrent readers do not all query
+     *
+     * @param now The current time in milliseconds
+     * @param intervalMillis Minimum time between comparisons
+     * @return true if the caller should compare the catalog with the database now
+     */
+    synchronized boolean startCheck(long now, long intervalMillis) {
+        if (byId.isEmpty() || now - checkedAt < intervalMillis) {
+            return false;
+        }
+        checkedAt = now;
+        return true;
+    }
+
+    /**
+     * @param now The current time in milliseconds
+     * @param maxAgeMillis Longest time a full load may be served
+     * @return true if the whole table was loaded longer ago than maxAgeMillis, or partly cached
+     */
+    synchronized boolean isOlderThan(long now, long maxAgeMillis) {
+        return !complete || now - loadedAt > maxAgeMillis;
+    }
+
+    /**
+     * Compares the cached rows with totals computed by the database over the items table
+     * A change made by another process changes the count or one of the ID weighted totals;
+     * edits to text columns are not seen here and are picked up by the periodic full reload
+     *
+     * @param count COUNT(*)
+     * @param ids SUM(id)
+     * @param stock SUM(id * stock_quantity)
+     * @param minStock SUM(id * min_stock_level)
+     * @param prices SUM(id * unit_price)
+     * @param readVersion getVersion() taken before the totals were read
+     * @return false if the catalog no longer matches the table, true if it matches or a write
+     *         from this process happened meanwhile (the totals cannot be compared then)
+     */
+    synchronized boolean matchesDatabase(long count, BigDecimal ids, BigDecimal stock, BigDecimal minStock,
+                                         BigDecimal prices, long readVersion) {
+        if (readVersion != version || !complete) {
+            return true;
+        }
+        return count == byId.size()
+                && ids.compareTo(BigDecimal.valueOf(idTotal)) == 0
+                && stock.compareTo(BigDecimal.valueOf(stockTotal)) == 0
+                && minStock.compareTo(BigDecimal.valueOf(minStockTotal)) == 0
+                && prices.compareTo(priceTotal) == 0;
+    }
+
+    /**
+     * Gets the write version to pass to loadAll() or putLoaded() after a database read
+     *
+     * @return The current write version
+     */
+    synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * Replaces the cache contents with a full table load
+     * Ignored if a write happened since readVersion was taken, as the rows may already be stale
+     *
+     * @param items Every row of the items table
+     * @param readVersion getVersion() taken before the rows were read
+     */
+    synchronized void loadAll(Collection<Item> items, long readVersion) {
+        if (readVersion != version) {
+            return;
+        }
+        clear();
+        for (Item item : items) {
+            store(copy(item));
+        }
+        complete = true;
+        loadedAt = System.currentTimeMillis();
+        checkedAt = loadedAt;
+    }
+
+    /**
+     * Caches one item read from the database
+     * Ignored if a write happened since readVersion was taken, as the row may already be stale
+     *
+     * @param item The item as read
+     * @param readVersion getVersion() taken before the row was read
+     */
+    synchronized void putLoaded(Item item, long readVersion) {
+        if (item != null && readVersion == version) {
+            replace(item);
+        }
+    }
+
+    /**
+     * Adds or replaces one item after it was inserted or updated
+     *
+     * @param item The item as it is now stored
+     */
+    synchronized void put(Item item) {
+        if (item == null || item.getId() <= 0) {
+            return;
+        }
+        version++;
+        replace(item);
+    }
+
+    /**
+     * Removes an item after it was deleted
+     *
+     * @param itemId The deleted item's ID
+     */
+    synchronized void remove(int itemId) {
+        version++;
+        Item removed = byId.remove(itemId);
+        if (removed != null) {
+            byPartNumber.remove(removed.getPartNumber());
+            lowStock.remove(removed);
+            searchIndex.remove(itemId);
+            addToTotals(removed, -1);
+        }
+    }
+
+    /**
+     * Applies a committed stock change to the cached item
+     *
+     * @param itemId The item ID
+     * @param quantityChange Positive for purchases, negative for sales
+     */
+    synchronized void adjustStock(int itemId, int quantityChange) {
+        version++;
+        Item item = byId.get(itemId);
+        if (item != null) {
+            lowStock.remove(item);
+            item.setStockQuantity(item.getStockQuantity() + quantityChange);
+            stockTotal += (long) itemId * quantityChange;
+            indexStock(item);
+        }
+    }
+
+    /**
+     * Clears the supplier of cached items after the supplier was deleted
+     * Mirrors the ON DELETE SET NULL foreign key on items.supplier_id
+     *
+     * @param supplierId The deleted supplier's ID
+     */
+    synchronized void clearSupplier(int supplierId) {
+        version++;
+        for (Item item : byId.values()) {
+            if (item.getSupplierId() == supplierId) {
+                item.setSupplierId(0);
+            }
+        }
+    }
+
+    /**
+     * Drops every cached item so the next read goes back to the database
+     * Use after changing the items table outside of the DAOs
+     */
+    public synchronized void invalidateAll() {
+        version++;
+        TableVersions.bump(TableVersions.Table.ITEMS);
+        evictions.addAndGet(byId.size());
+        clear();
+        complete = false;
+    }
+
+    /**
+     * @return Number of reads answered from the cache
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return Number of reads that had to query the database
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return Number of cached items dropped by invalidateAll()
+     */
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * @return Number of items currently cached
+     */
+    public synchronized int getCachedCount() {
+        return byId.size();
+    }
+
+    @Override
+    public String toString() {
+        return "ItemCatalog[cached=" + getCachedCount() + ", hits=" + getHitCount() +
+                ", misses=" + getMissCount() + ", evictions=" + getEvictionCount() + "]";
+    }
+
+    private Item countLookup(Item item) {
+        if (item != null || complete) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return item != null ? copy(item) : null;
+    }
+
+    private void replace(Item item) {
+        Item previous = byId.get(item.getId());
+        if (previous != null) {
+            byPartNumber.remove(previous.getPartNumber());
+            lowStock.remove(previous);
+            addToTotals(previous, -1);
+        }
+        store(copy(item));
+    }
+
+    private void store(Item item) {
+        byId.put(item.getId(), item);
+        byPartNumber.put(item.getPartNumber(), item);
+        searchIndex.add(item);
+        indexStock(item);
+        addToTotals(item, 1);
+    }
+
+    private void clear() {
+        byId.clear();
+        byPartNumber.clear();
+        lowStock.clear();
+        searchIndex.clear();
+        idTotal = 0;
+        stockTotal = 0;
+        minStockTotal = 0;
+        priceTotal = BigDecimal.ZERO;
+    }
+
+    private void addToTotals(Item item, int sign) {
+        long id = item.getId();
+        idTotal += sign * id;
+        stockTotal += sign * id * item.getStockQuantity();
+        minStockTotal += sign * id * item.getMinStockLevel();
+        if (item.getUnitPrice() != null) {
+            priceTotal = priceTotal.add(item.getUnitPrice().multiply(BigDecimal.valueOf(sign * id)));
+        }
+    }
+
+    private void indexStock(Item item) {
+        if (item.getStockQuantity() <= item.getMinStockLevel()) {
+            lowStock.add(item);
+        }
+    }
+
+    private static Item copy(Item item) {
+        Item copy = new Item(item.getPartNumber(), item.getName(), item.getDescription(), item.getCategory(),
+                item.getUnitPrice(), item.getStockQuantity(), item.getMinStockLevel(), item.getLocation(),
+                item.getSupplierId());
+        copy.setId(item.getId());
+        return copy;
+    }
+}
@@ -1,5 +1,7 @@
 package com.garage.inventory.dao;
 
+import com.garage.inventory.dao.TableVersions.Table;
+import com.garage.inventory.database.DatabaseConfig;
 import com.garage.inventory.database.DatabaseConnection;
 import com.garage.inventory.model.Item;
 import java.math.BigDecimal;
@@ -7,18 +9,37 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * ItemDAO handles all database operations for Items/Spare Parts
  * Manages CRUD operations for inventory items
+ * Reads are served from the shared ItemCatalog when possible and every write updates it
+ *
+ * On a MySQL server other terminals change the items table too, so before serving a read the
+ * catalog is compared with the table at most every garage.items.cache.check.ms (default 5000) and
+ * fully reloaded at least every garage.items.cache.max.age.ms (default 300000); the embedded
+ * database file is locked to this process, so it is never checked (set the check to 0 to disable)
  */
 public class ItemDAO {
+    private static final String CHECK_SQL = "SELECT COUNT(*) AS item_count, " +
+            "COALESCE(SUM(id), 0) AS ids, " +
+            "COALESCE(SUM(id * stock_quantity), 0) AS stock, " +
+            "COALESCE(SUM(id * min_stock_level), 0) AS min_stock, " +
+            "COALESCE(SUM(id * unit_price), 0) AS prices FROM items";
+    
+    private static final long CHECK_INTERVAL_MS = loadSetting("garage.items.cache.check.ms",
+            "embedded".equalsIgnoreCase(DatabaseConfig.load().get("garage.db.backend", "mysql")) ? 0 : 5000);
+    private static final long MAX_AGE_MS = loadSetting("garage.items.cache.max.age.ms", 300000);
+    
+    private final ItemCatalog catalog = ItemCatalog.getInstance();
     
     /**
      * Adds a new item to the inventory
      * This method inserts a new spare part into the database
+     * On success the generated ID is set on the item
      * 
      * @param item The item object containing all item details
      * @return true if item was added successfully, false otherwise
@@ -29,7 +50,7 @@ public class ItemDAO {
                      "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
         
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             stmt.setString(1, item.getPartNumber());
             stmt.setString(2, item.getName());
@@ -39,9 +60,21 @@ public class ItemDAO {
             stmt.setInt(6, item.getStockQuantity());
             stmt.setInt(7, item.getMinStockLevel());
             stmt.setString(8, item.getLocation());
-            stmt.setInt(9, item.getSupplierId());
+            stmt.setObject(9, item.getSupplierId() > 0 ? item.getSupplierId() : null);
             
             int rowsAffected = stmt.executeUpdate();
+            if (rowsAffected > 0) {
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        item.setId(keys.getInt(1));
+                        catalog.put(item);
+                    } else {
+                        // Without the new ID the cache cannot be kept complete
+                        catalog.invalidateAll();
+                    }
+                }
+                TableVersions.bump(Table.ITEMS);
+            }
             return rowsAffected > 0;
         } catch (SQLException e) {
             System.err.println("Error adding item: " + e.getMessage());
@@ -73,10 +106,14 @@ public class ItemDAO {
             stmt.setInt(6, item.getStockQuantity());
             stmt.setInt(7, item.getMinStockLevel());
             stmt.setString(8, item.getLocation());
-            stmt.setInt(9, item.getSupplierId());
+            stmt.setObject(9, item.getSupplierId() > 0 ? item.getSupplierId() : null);
             stmt.setInt(10, item.getId());
             
             int rowsAffected = stmt.executeUpdate();
+            if (rowsAffected > 0) {
+                catalog.put(item);
+                TableVersions.bump(Table.ITEMS);
+            }
             return rowsAffected > 0;
         } catch (SQLException e) {
             System.err.println("Error updating item: " + e.getMessage());
@@ -100,6 +137,12 @@ public class ItemDAO {
             
             stmt.setInt(1, itemId);
             int rowsAffected = stmt.executeUpdate();
+            if (rowsAffected > 0) {
+                catalog.remove(itemId);
+                // supplier_items rows are removed by ON DELETE CASCADE
+                SupplierLinkIndex.getInstance().removeItem(itemId);
+                TableVersions.bump(Table.ITEMS, Table.SUPPLIER_ITEMS);
+            }
             return rowsAffected > 0;
         } catch (SQLException e) {
             System.err.println("Error deleting item: " + e.getMessage());
@@ -115,27 +158,24 @@ public class ItemDAO {
      * @return List of all items in the inventory
      */
     public List<Item> getAllItems() {
+        revalidate();
+        List<Item> cached = catalog.getAll();
+        if (cached != null) {
+            return cached;
+        }
+        
         List<Item> items = new ArrayList<>();
         String sql = "SELECT * FROM items ORDER BY name";
+        long readVersion = catalog.getVersion();
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
-                Item item = new Item();
-                item.setId(rs.getInt("id"));
-                item.setPartNumber(rs.getString("part_number"));
-                item.setName(rs.getString("name"));
-                item.setDescription(rs.getString("description"));
-                item.setCategory(rs.getString("category"));
-                item.setUnitPrice(rs.getBigDecimal("unit_price"));
-                item.setStockQuantity(rs.getInt("stock_quantity"));
-                item.setMinStockLevel(rs.getInt("min_stock_level"));
-                item.setLocation(rs.getString("location"));
-                item.setSupplierId(rs.getInt("supplier_id"));
-                items.add(item);
+                items.add(mapResultSetToItem(rs));
             }
+            catalog.loadAll(items, readVersion);
         } catch (SQLException e) {
             System.err.println("Error retrieving items: " + e.getMessage());
             e.printStackTrace();
@@ -151,7 +191,14 @@ public class ItemDAO {
      * @return Item object if found, null otherwise
      */
     public Item getItemById(int itemId) {
+        revalidate();
+        Item cached = catalog.get(itemId);
+        if (cached != null || catalog.isComplete()) {
+            return cached;
+        }
+        
         String sql = "SELECT * FROM items WHERE id = ?";
+        long readVersion = catalog.getVersion();
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -160,17 +207,8 @@ public class ItemDAO {
             
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    Item item = new Item();
-                    item.setId(rs.getInt("id"));
-                    item.setPartNumber(rs.getString("part_number"));
-                    item.setName(rs.getString("name"));
-                    item.setDescription(rs.getString("description"));
-                    item.setCategory(rs.getString("category"));
-                    item.setUnitPrice(rs.getBigDecimal("unit_price"));
-                    item.setStockQuantity(rs.getInt("stock_quantity"));
-                    item.setMinStockLevel(rs.getInt("min_stock_level"));
-                    item.setLocation(rs.getString("location"));
-                    item.setSupplierId(rs.getInt("supplier_id"));
+                    Item item = mapResultSetToItem(rs);
+                    catalog.putLoaded(item, readVersion);
                     return item;
                 }
             }
@@ -182,6 +220,61 @@ public class ItemDAO {
         return null;
     }
     
+    /**
+     * Retrieves an item by its part number
+     * 
+     * @param partNumber The part number of the item to retrieve
+     * @return Item object if found, null otherwise
+     */
+    public Item getItemByPartNumber(String partNumber) {
+        revalidate();
+        Item cached = catalog.getByPartNumber(partNumber);
+        if (cached != null || catalog.isComplete()) {
+            return cached;
+        }
+        
+        String sql = "SELECT * FROM items WHERE part_number = ?";
+        long readVersion = catalog.getVersion();
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setString(1, partNumber);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    Item item = mapResultSetToItem(rs);
+                    catalog.putLoaded(item, readVersion);
+                    return item;
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving item by part number: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Searches items for a typeahead picker
+     * Matches the start of any word of the part number or name, served from the ItemCatalog
+     * search index; the whole table is loaded into the catalog on first use
+     * 
+     * @param query Words typed by the user
+     * @param limit Maximum number of items to return
+     * @return Best matching items, best first
+     */
+    public List<Item> searchItems(String query, int limit) {
+        revalidate();
+        List<Item> cached = catalog.search(query, limit);
+        if (cached == null) {
+            getAllItems();
+            cached = catalog.search(query, limit);
+        }
+        return cached != null ? cached : new ArrayList<>();
+    }
+    
     /**
      * Updates stock quantity when items are purchased or sold
      * This method is called automatically when purchases or sales are made
@@ -200,6 +293,10 @@ public class ItemDAO {
             stmt.setInt(2, itemId);
             
             int rowsAffected = stmt.executeUpdate();
+            if (rowsAffected > 0) {
+                catalog.adjustStock(itemId, quantityChange);
+                TableVersions.bump(Table.ITEMS);
+            }
             return rowsAffected > 0;
         } catch (SQLException e) {
             System.err.println("Error updating stock quantity: " + e.getMessage());
@@ -212,10 +309,23 @@ public class ItemDAO {
      * Retrieves items that are running low on stock
      * Items are considered low stock when quantity <= min_stock_level
      * This is used for low stock alerts on the dashboard
+     * Served from the ItemCatalog low stock set; the query below is only the fallback
+     * for when the catalog could not be loaded
      * 
      * @return List of items with low stock
      */
     public List<Item> getLowStockItems() {
+        revalidate();
+        List<Item> lowStock = catalog.getLowStock();
+        if (lowStock == null) {
+            // Load the whole catalog once; from then on the low stock set is kept up to date in memory
+            getAllItems();
+            lowStock = catalog.getLowStock();
+        }
+        if (lowStock != null) {
+            return lowStock;
+        }
+        
         List<Item> items = new ArrayList<>();
         String sql = "SELECT * FROM items WHERE stock_quantity <= min_stock_level ORDER BY stock_quantity";
         
@@ -252,6 +362,12 @@ public class ItemDAO {
      * @return Total number of items in inventory
      */
     public int getTotalItemCount() {
+        revalidate();
+        int cachedCount = catalog.size();
+        if (cachedCount >= 0) {
+            return cachedCount;
+        }
+        
         String sql = "SELECT COUNT(*) as total FROM items";
         
         try (Connection conn = DatabaseConnection.getConnection();
@@ -277,6 +393,11 @@ public class ItemDAO {
      * @return true if part number exists, false otherwise
      */
     public boolean partNumberExists(String partNumber) {
+        revalidate();
+        if (catalog.isComplete()) {
+            return catalog.getByPartNumber(partNumber) != null;
+        }
+        
         String sql = "SELECT COUNT(*) as count FROM items WHERE part_number = ?";
         
         try (Connection conn = DatabaseConnection.getConnection();
@@ -296,5 +417,66 @@ public class ItemDAO {
         
         return false;
     }
+    
+    /**
+     * Drops the catalog when the items table may have been changed by another process
+     * Runs at most once per CHECK_INTERVAL_MS with one aggregate query; the next read then
+     * loads the table again and the screens showing items reload, as the drop bumps ITEMS
+     */
+    private void revalidate() {
+        long now = System.currentTimeMillis();
+        if (CHECK_INTERVAL_MS <= 0 || !catalog.startCheck(now, CHECK_INTERVAL_MS)) {
+            return;
+        }
+        if (catalog.isOlderThan(now, MAX_AGE_MS)) {
+            catalog.invalidateAll();
+            return;
+        }
+        
+        long readVersion = catalog.getVersion();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(CHECK_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            if (rs.next() && !catalog.matchesDatabase(rs.getLong("item_count"), rs.getBigDecimal("ids"),
+                    rs.getBigDecimal("stock"), rs.getBigDecimal("min_stock"), rs.getBigDecimal("prices"),
+                    readVersion)) {
+                catalog.invalidateAll();
+            }
+        } catch (SQLException e) {
+            System.err.println("Error checking item cache: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
+    private static long loadSetting(String key, long defaultValue) {
+        String value = DatabaseConfig.load().get(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid " + key + " '" + value + "', using " + defaultValue);
+            return defaultValue;
+        }
+    }
+    
+    /**
+     * Maps the current result set row to an Item
+     */
+    static Item mapResultSetToItem(ResultSet rs) throws SQLException {
+        Item item = new Item();
+        item.setId(rs.getInt("id"));
+        item.setPartNumber(rs.getString("part_number"));
+        item.setName(rs.getString("name"));
+        item.setDescription(rs.getString("description"));
+        item.setCategory(rs.getString("category"));
+        item.setUnitPrice(rs.getBigDecimal("unit_price"));
+        item.setStockQuantity(rs.getInt("stock_quantity"));
+        item.setMinStockLevel(rs.getInt("min_stock_level"));
+        item.setLocation(rs.getString("location"));
+        item.setSupplierId(rs.getInt("supplier_id"));
+        return item;
+    }
 }
-
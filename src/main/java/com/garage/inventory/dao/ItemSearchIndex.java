@@ -0,0 +1,124 @@
+package com.garage.inventory.dao;
+
+import com.garage.inventory.model.Item;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ItemSearchIndex finds items by the start of any word of their part number or name
+ * Every item is split into lower case tokens: the words of its name, the pieces of its part number,
+ * and the part number with punctuation removed (so "brk00" finds "BRK-001")
+ * Tokens are kept in a TokenPrefixIndex, so all tokens starting with a prefix are one range lookup
+ * Items are added and removed one at a time as the ItemCatalog changes; nothing is rebuilt
+ *
+ * Not thread safe; ItemCatalog guards it with its own lock
+ */
+class ItemSearchIndex {
+    // Candidates examined per search before ranking; keeps short prefixes like "a" cheap
+    private static final int CANDIDATES_PER_RESULT = 20;
+
+    private final TokenPrefixIndex<Integer> tokens = new TokenPrefixIndex<>();
+
+    /**
+     * Indexes an item, replacing what was indexed for it before
+     *
+     * @param item The item as it is now stored
+     */
+    void add(Item item) {
+        List<String> itemTokens = new ArrayList<>();
+        String partNumber = normalize(item.getPartNumber());
+        if (!partNumber.isEmpty()) {
+            itemTokens.add(partNumber);
+        }
+        itemTokens.addAll(TokenPrefixIndex.tokenize(item.getPartNumber()));
+        itemTokens.addAll(TokenPrefixIndex.tokenize(item.getName()));
+        tokens.add(item.getId(), itemTokens);
+    }
+
+    /**
+     * Removes an item from the index
+     *
+     * @param itemId The item ID
+     */
+    void remove(int itemId) {
+        tokens.remove(itemId);
+    }
+
+    /**
+     * Removes every item
+     */
+    void clear() {
+        tokens.clear();
+    }
+
+    /**
+     * Finds the items matching every word of a query
+     * Ranking: exact part number, then part number starting with the query, then name starting
+     * with the query, then any other match; ties are ordered by name
+     *
+     * @param query Words typed by the user
+     * @param limit Maximum number of items to return
+     * @param items The indexed items by ID
+     * @return IDs of the best matches, best first
+     */
+    List<Integer> search(String query, int limit, Map<Integer, Item> items) {
+        List<String> words = TokenPrefixIndex.tokenize(query);
+        if (words.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        Set<Integer> candidates = new LinkedHashSet<>();
+        // An exact part number match is always a candidate, however many tokens share its prefix
+        Set<Integer> exact = tokens.get(normalize(query));
+        if (exact != null) {
+            candidates.addAll(exact);
+        }
+        tokens.findAll(words, limit * CANDIDATES_PER_RESULT, candidates);
+
+        String normalizedQuery = normalize(query);
+        String lowerQuery = query.trim().toLowerCase();
+        Map<Integer, Integer> ranks = new HashMap<>();
+        for (Integer id : candidates) {
+            ranks.put(id, rank(items.get(id), normalizedQuery, lowerQuery));
+        }
+        List<Integer> ranked = new ArrayList<>(candidates);
+        ranked.sort(Comparator
+                .comparingInt((Integer id) -> ranks.get(id))
+                .thenComparing(id -> items.get(id).getName(), Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER))
+                .thenComparingInt(id -> id));
+        return ranked.size() > limit ? new ArrayList<>(ranked.subList(0, limit)) : ranked;
+    }
+
+    private static int rank(Item item, String normalizedQuery, String lowerQuery) {
+        String partNumber = normalize(item.getPartNumber());
+        if (partNumber.equals(normalizedQuery)) {
+            return 0;
+        }
+        if (partNumber.startsWith(normalizedQuery)) {
+            return 1;
+        }
+        if (item.getName() != null && item.getName().toLowerCase().startsWith(lowerQuery)) {
+            return 2;
+        }
+        return 3;
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+}
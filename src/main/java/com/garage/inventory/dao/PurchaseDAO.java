@@ -1,15 +1,22 @@
 package com.garage.inventory.dao;
 
+import com.garage.inventory.dao.TableVersions.Table;
 import com.garage.inventory.database.DatabaseConnection;
 import com.garage.inventory.model.Purchase;
+import com.garage.inventory.model.PurchaseInvoice;
+import com.garage.inventory.model.PurchaseRow;
 import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Date;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
 
 /**
  * PurchaseDAO handles all database operations for Purchases
@@ -17,6 +24,12 @@ import java.util.List;
  */
 public class PurchaseDAO {
 
+    // Display projection shared by the listing queries; names are joined in instead of loaded per row
+    private static final String PURCHASE_ROW_SELECT = "SELECT p.id, p.item_id, i.name AS item_name, " +
+            "p.supplier_id, sup.name AS supplier_name, p.quantity, p.unit_price, p.total_amount, " +
+            "p.purchase_date, p.invoice_number " +
+            "FROM purchases p LEFT JOIN items i ON i.id = p.item_id LEFT JOIN suppliers sup ON sup.id = p.supplier_id";
+
     private ItemDAO itemDAO = new ItemDAO();
 
     /**
@@ -67,7 +80,15 @@ public class PurchaseDAO {
                 }
             }
 
+            // Add the purchase to the daily rollups in the same transaction
+            RollupDAO.Delta rollup = RollupDAO.purchasesDelta();
+            rollup.add(purchase.getPurchaseDate(), purchase.getItemId(), purchase.getQuantity(),
+                    purchase.getTotalAmount());
+            rollup.apply(conn);
+
             conn.commit(); // Commit transaction
+            ItemCatalog.getInstance().adjustStock(purchase.getItemId(), purchase.getQuantity());
+            TableVersions.bump(Table.PURCHASES, Table.ITEMS);
             return true;
         } catch (SQLException e) {
             System.err.println("Error adding purchase: " + e.getMessage());
@@ -90,6 +111,118 @@ public class PurchaseDAO {
         }
     }
 
+    /**
+     * Receives a whole supplier invoice in a single transaction
+     * Stock is increased with one batch UPDATE and all lines are inserted with one batch INSERT,
+     * so a large delivery costs two statement batches and one commit instead of one transaction per line
+     * Stock updates run first and in item ID order, so concurrent transactions lock items in the same
+     * order and the inserts never hold a shared lock on an item that later needs upgrading
+     *
+     * @param invoice The invoice header and its lines
+     * @return true if every line was recorded, false otherwise (nothing is recorded then)
+     */
+    public boolean addPurchaseInvoice(PurchaseInvoice invoice) {
+        if (invoice == null || invoice.getLines().isEmpty()) {
+            return false;
+        }
+
+        String purchaseSql = "INSERT INTO purchases (item_id, supplier_id, quantity, unit_price, " +
+                "total_amount, purchase_date, invoice_number, notes) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+        String updateStockSql = "UPDATE items SET stock_quantity = stock_quantity + ? WHERE id = ?";
+
+        // Total quantity per item, so a part listed on several lines is updated once
+        Map<Integer, Integer> quantityByItem = new TreeMap<>();
+        for (Purchase line : invoice.getLines()) {
+            if (line.getQuantity() <= 0) {
+                System.err.println("Invalid quantity " + line.getQuantity() + " for item: " + line.getItemId());
+                return false;
+            }
+            quantityByItem.merge(line.getItemId(), line.getQuantity(), Integer::sum);
+        }
+
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false); // Start transaction
+
+            // Increase stock for every item received first, in item ID order, so the item row locks are
+            // taken before the inserts' foreign key checks and in the same order by every transaction
+            try (PreparedStatement stmt = conn.prepareStatement(updateStockSql)) {
+                for (Map.Entry<Integer, Integer> entry : quantityByItem.entrySet()) {
+                    stmt.setInt(1, entry.getValue());
+                    stmt.setInt(2, entry.getKey());
+                    stmt.addBatch();
+                }
+
+                int[] rowsUpdated = stmt.executeBatch();
+                int index = 0;
+                for (Map.Entry<Integer, Integer> entry : quantityByItem.entrySet()) {
+                    if (index >= rowsUpdated.length || rowsUpdated[index] == 0 ||
+                            rowsUpdated[index] == Statement.EXECUTE_FAILED) {
+                        conn.rollback();
+                        System.err.println("Failed to update stock - item not found: " + entry.getKey());
+                        return false;
+                    }
+                    index++;
+                }
+            }
+
+            // Insert all purchase records; the header applies to every line
+            // Their daily rollup totals are collected on the way
+            RollupDAO.Delta rollup = RollupDAO.purchasesDelta();
+            try (PreparedStatement stmt = conn.prepareStatement(purchaseSql)) {
+                for (Purchase line : invoice.getLines()) {
+                    rollup.add(invoice.getPurchaseDate(), line.getItemId(), line.getQuantity(), line.getTotalAmount());
+                    stmt.setInt(1, line.getItemId());
+                    stmt.setObject(2, invoice.getSupplierId() > 0 ? invoice.getSupplierId() : null);
+                    stmt.setInt(3, line.getQuantity());
+                    stmt.setBigDecimal(4, line.getUnitPrice());
+                    stmt.setBigDecimal(5, line.getTotalAmount());
+                    stmt.setDate(6, invoice.getPurchaseDate());
+                    stmt.setString(7, invoice.getInvoiceNumber());
+                    stmt.setString(8, line.getNotes() != null ? line.getNotes() : invoice.getNotes());
+                    stmt.addBatch();
+                }
+
+                for (int rowsInserted : stmt.executeBatch()) {
+                    if (rowsInserted == Statement.EXECUTE_FAILED) {
+                        conn.rollback();
+                        System.err.println("Failed to insert purchase line");
+                        return false;
+                    }
+                }
+            }
+            rollup.apply(conn);
+
+            conn.commit(); // Commit transaction
+            for (Map.Entry<Integer, Integer> entry : quantityByItem.entrySet()) {
+                ItemCatalog.getInstance().adjustStock(entry.getKey(), entry.getValue());
+            }
+            TableVersions.bump(Table.PURCHASES, Table.ITEMS);
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error adding purchase invoice: " + e.getMessage());
+            e.printStackTrace();
+            try {
+                if (conn != null) conn.rollback();
+            } catch (SQLException rollbackEx) {
+                System.err.println("Error rolling back transaction: " + rollbackEx.getMessage());
+            }
+            return false;
+        } finally {
+            try {
+                if (conn != null) {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                }
+            } catch (SQLException e) {
+                System.err.println("Error closing connection: " + e.getMessage());
+            }
+        }
+    }
+
     /**
      * Retrieves all purchase transactions
      *
@@ -129,12 +262,12 @@ public class PurchaseDAO {
 
     /**
      * Gets total purchases for today
-     * This is used for dashboard statistics
+     * This is used for dashboard statistics; read from the daily rollup, so it is one row
      *
      * @return Total amount of purchases made today
      */
     public BigDecimal getTodayPurchasesTotal() {
-        String sql = "SELECT COALESCE(SUM(total_amount), 0) as total FROM purchases WHERE purchase_date = CURDATE()";
+        String sql = "SELECT COALESCE(SUM(total_amount), 0) as total FROM purchases_daily WHERE purchase_date = CURDATE()";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
@@ -171,20 +304,7 @@ public class PurchaseDAO {
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    Purchase purchase = new Purchase();
-                    purchase.setId(rs.getInt("id"));
-                    purchase.setItemId(rs.getInt("item_id"));
-
-                    int supplierId = rs.getInt("supplier_id");
-                    purchase.setSupplierId(rs.wasNull() ? 0 : supplierId);
-
-                    purchase.setQuantity(rs.getInt("quantity"));
-                    purchase.setUnitPrice(rs.getBigDecimal("unit_price"));
-                    purchase.setTotalAmount(rs.getBigDecimal("total_amount"));
-                    purchase.setPurchaseDate(rs.getDate("purchase_date"));
-                    purchase.setInvoiceNumber(rs.getString("invoice_number"));
-                    purchase.setNotes(rs.getString("notes"));
-                    purchases.add(purchase);
+                    purchases.add(mapResultSetToPurchase(rs));
                 }
             }
         } catch (SQLException e) {
@@ -194,4 +314,154 @@ public class PurchaseDAO {
 
         return purchases;
     }
-}
\ No newline at end of file
+
+    /**
+     * Retrieves all purchases as display rows with item and supplier names
+     * Runs one JOINed query instead of looking up the item and supplier of every purchase
+     *
+     * @return List of purchase rows, newest first
+     */
+    public List<PurchaseRow> getAllPurchaseRows() {
+        List<PurchaseRow> rows = new ArrayList<>();
+        String sql = PURCHASE_ROW_SELECT + " ORDER BY p.purchase_date DESC, p.id DESC";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                rows.add(mapResultSetToPurchaseRow(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving purchase rows: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return rows;
+    }
+
+    /**
+     * Retrieves purchases within a date range as display rows with item and supplier names
+     * Used for daily and monthly reports
+     *
+     * @param startDate Start date of the range
+     * @param endDate End date of the range
+     * @return List of purchase rows within the date range, newest first
+     */
+    public List<PurchaseRow> getPurchaseRowsByDateRange(Date startDate, Date endDate) {
+        List<PurchaseRow> rows = new ArrayList<>();
+        String sql = PURCHASE_ROW_SELECT + " WHERE p.purchase_date BETWEEN ? AND ? " +
+                "ORDER BY p.purchase_date DESC, p.id DESC";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setDate(1, startDate);
+            stmt.setDate(2, endDate);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(mapResultSetToPurchaseRow(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving purchase rows by date range: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return rows;
+    }
+
+    /**
+     * Streams the purchases within a date range as display rows from a forward-only cursor
+     * The stream holds a database connection and must be closed
+     *
+     * @param startDate Start date of the range
+     * @param endDate End date of the range
+     * @return The purchase rows within the date range, newest first
+     * @throws SQLException if the query could not be started
+     */
+    public Stream<PurchaseRow> streamPurchaseRowsByDateRange(Date startDate, Date endDate) throws SQLException {
+        String sql = PURCHASE_ROW_SELECT + " WHERE p.purchase_date BETWEEN ? AND ? " +
+                "ORDER BY p.purchase_date DESC, p.id DESC";
+        return RowStream.open(sql, stmt -> {
+            stmt.setDate(1, startDate);
+            stmt.setDate(2, endDate);
+        }, this::mapResultSetToPurchaseRow);
+    }
+
+    /**
+     * Retrieves one page of purchase rows, newest first, using keyset pagination on (purchase_date, id)
+     * The page starts right after the given key, so each page costs the same however deep it is
+     * and rows inserted meanwhile never shift rows between pages
+     *
+     * @param afterDate Purchase date of the last row of the previous page, or null for the first page
+     * @param afterId ID of the last row of the previous page
+     * @param limit Maximum number of rows to return
+     * @return Up to limit purchase rows; fewer means the end of the history was reached
+     */
+    public List<PurchaseRow> getPurchaseRowsPage(Date afterDate, int afterId, int limit) {
+        List<PurchaseRow> rows = new ArrayList<>();
+        String sql = PURCHASE_ROW_SELECT +
+                (afterDate != null ? " WHERE (p.purchase_date < ? OR (p.purchase_date = ? AND p.id < ?))" : "") +
+                " ORDER BY p.purchase_date DESC, p.id DESC LIMIT ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            if (afterDate != null) {
+                stmt.setDate(index++, afterDate);
+                stmt.setDate(index++, afterDate);
+                stmt.setInt(index++, afterId);
+            }
+            stmt.setInt(index, limit);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(mapResultSetToPurchaseRow(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving purchase rows page: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return rows;
+    }
+
+    private Purchase mapResultSetToPurchase(ResultSet rs) throws SQLException {
+        Purchase purchase = new Purchase();
+        purchase.setId(rs.getInt("id"));
+        purchase.setItemId(rs.getInt("item_id"));
+
+        int supplierId = rs.getInt("supplier_id");
+        purchase.setSupplierId(rs.wasNull() ? 0 : supplierId);
+
+        purchase.setQuantity(rs.getInt("quantity"));
+        purchase.setUnitPrice(rs.getBigDecimal("unit_price"));
+        purchase.setTotalAmount(rs.getBigDecimal("total_amount"));
+        purchase.setPurchaseDate(rs.getDate("purchase_date"));
+        purchase.setInvoiceNumber(rs.getString("invoice_number"));
+        purchase.setNotes(rs.getString("notes"));
+        return purchase;
+    }
+
+    private PurchaseRow mapResultSetToPurchaseRow(ResultSet rs) throws SQLException {
+        int supplierId = rs.getInt("supplier_id");
+        if (rs.wasNull()) {
+            supplierId = 0;
+        }
+        return new PurchaseRow(
+                rs.getInt("id"),
+                rs.getInt("item_id"),
+                rs.getString("item_name"),
+                supplierId,
+                rs.getString("supplier_name"),
+                rs.getInt("quantity"),
+                rs.getBigDecimal("unit_price"),
+                rs.getBigDecimal("total_amount"),
+                rs.getDate("purchase_date"),
+                rs.getString("invoice_number"));
+    }
+}
@@ -0,0 +1,146 @@
+package com.garage.inventory.dao;
+
+import com.garage.inventory.database.DatabaseConnection;
+import com.garage.inventory.model.SummaryReport;
+import com.garage.inventory.model.SummaryRow;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ReportDAO runs the summary reports
+ * Each report is one GROUP BY query, so the database does the aggregation and only the
+ * aggregated rows are transferred: a year of sales by item is one row per item, not one per sale
+ * Sales by item, by category and the daily trend read the daily rollups kept by RollupDAO, so
+ * they scan at most one row per item and day; top customers groups the sales in the range
+ */
+public class ReportDAO {
+
+    /**
+     * The summary reports, with the query that computes each and the headings of its columns
+     * Every query selects label, detail, line_count, quantity and total_amount for a date range
+     */
+    public enum Report {
+        SALES_BY_ITEM("Sales by Item", "Item Name", "Part Number", "Sales",
+                "SELECT COALESCE(i.name, 'Unknown item') AS label, i.part_number AS detail, " +
+                "SUM(r.sale_count) AS line_count, SUM(r.quantity) AS quantity, SUM(r.total_amount) AS total_amount " +
+                "FROM sales_item_daily r LEFT JOIN items i ON i.id = r.item_id " +
+                "WHERE r.sale_date BETWEEN ? AND ? " +
+                "GROUP BY r.item_id, i.name, i.part_number " +
+                "ORDER BY total_amount DESC, label"),
+        SALES_BY_CATEGORY("Sales by Category", "Category", null, "Sales",
+                "SELECT COALESCE(NULLIF(i.category, ''), 'Uncategorized') AS label, NULL AS detail, " +
+                "SUM(r.sale_count) AS line_count, SUM(r.quantity) AS quantity, SUM(r.total_amount) AS total_amount " +
+                "FROM sales_item_daily r LEFT JOIN items i ON i.id = r.item_id " +
+                "WHERE r.sale_date BETWEEN ? AND ? " +
+                "GROUP BY COALESCE(NULLIF(i.category, ''), 'Uncategorized') " +
+                "ORDER BY total_amount DESC, label"),
+        DAILY_SALES_TREND("Daily Sales Trend", "Date", null, "Sales",
+                "SELECT CAST(sale_date AS CHAR(10)) AS label, NULL AS detail, " +
+                "sale_count AS line_count, quantity, total_amount " +
+                "FROM sales_daily WHERE sale_date BETWEEN ? AND ? " +
+                "ORDER BY sale_date"),
+        TOP_CUSTOMERS("Top Customers", "Customer", "Contact Number", "Sales",
+                "SELECT c.name AS label, c.contact_number AS detail, " +
+                "COUNT(*) AS line_count, SUM(s.quantity) AS quantity, SUM(s.total_amount) AS total_amount " +
+                "FROM sales s JOIN customers c ON c.id = s.customer_id " +
+                "WHERE s.sale_date BETWEEN ? AND ? " +
+                "GROUP BY s.customer_id, c.name, c.contact_number " +
+                "ORDER BY total_amount DESC, label");
+
+        private final String title;
+        private final String labelHeading;
+        private final String detailHeading;
+        private final String countHeading;
+        private final String sql;
+
+        Report(String title, String labelHeading, String detailHeading, String countHeading, String sql) {
+            this.title = title;
+            this.labelHeading = labelHeading;
+            this.detailHeading = detailHeading;
+            this.countHeading = countHeading;
+            this.sql = sql;
+        }
+
+        /**
+         * @return The name shown to the user
+         */
+        public String getTitle() {
+            return title;
+        }
+
+        /**
+         * Gets the column headings in the order label, detail (if the report has one), count,
+         * quantity, total amount
+         *
+         * @return The headings
+         */
+        public String[] getColumns() {
+            if (detailHeading == null) {
+                return new String[]{labelHeading, countHeading, "Quantity", "Total Amount"};
+            }
+            return new String[]{labelHeading, detailHeading, countHeading, "Quantity", "Total Amount"};
+        }
+
+        /**
+         * @return true if the rows carry a detail value shown in its own column
+         */
+        public boolean hasDetail() {
+            return detailHeading != null;
+        }
+
+        /**
+         * Finds a report by its title
+         *
+         * @param title The name shown to the user
+         * @return The report, or null if no report has that title
+         */
+        public static Report fromTitle(String title) {
+            for (Report report : values()) {
+                if (report.title.equals(title)) {
+                    return report;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Runs a summary report over a date range
+     *
+     * @param report The report to run
+     * @param startDate First day of the range
+     * @param endDate Last day of the range
+     * @param limit Maximum number of rows, e.g. for the top 20 customers; 0 for all rows
+     * @return The aggregated rows and their totals; empty if the report could not be run
+     */
+    public SummaryReport runReport(Report report, Date startDate, Date endDate, int limit) {
+        List<SummaryRow> rows = new ArrayList<>();
+        String sql = limit > 0 ? report.sql + " LIMIT ?" : report.sql;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setDate(1, startDate);
+            stmt.setDate(2, endDate);
+            if (limit > 0) {
+                stmt.setInt(3, limit);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(new SummaryRow(rs.getString("label"), rs.getString("detail"),
+                            rs.getInt("line_count"), rs.getInt("quantity"), rs.getBigDecimal("total_amount")));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error running report " + report.title + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return new SummaryReport(rows);
+    }
+}
@@ -0,0 +1,410 @@
+package com.garage.inventory.dao;
+
+import com.garage.inventory.dao.TableVersions.Table;
+import com.garage.inventory.database.DatabaseConnection;
+import com.garage.inventory.model.PeriodTotal;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * RollupDAO maintains and reads the daily sales and purchase rollups
+ * sales_daily / purchases_daily hold one row per day and sales_item_daily / purchases_item_daily
+ * one row per item and day, each with the number of lines, the quantity and the total amount
+ * SaleDAO and PurchaseDAO add every insert to them in the same transaction, so the rollups always
+ * agree with the raw tables and a total over any period reads one row per day instead of every line
+ *
+ * Nothing updates or deletes sales or purchases, so the rollups only ever grow; rebuild() recomputes
+ * them from the raw tables, and backfillIfNeeded() does so once when they do not match, e.g. the
+ * first start after the rollup tables were added to a database that already had history
+ */
+public class RollupDAO {
+
+    /**
+     * The two rolled up tables and the names of their rollup tables and columns
+     */
+    private enum Source {
+        SALES("sales", "sale_date", "sale_count", "sales_daily", "sales_item_daily"),
+        PURCHASES("purchases", "purchase_date", "purchase_count", "purchases_daily", "purchases_item_daily");
+
+        final String table;
+        final String dateColumn;
+        final String countColumn;
+        final String dailyTable;
+        final String itemDailyTable;
+
+        Source(String table, String dateColumn, String countColumn, String dailyTable, String itemDailyTable) {
+            this.table = table;
+            this.dateColumn = dateColumn;
+            this.countColumn = countColumn;
+            this.dailyTable = dailyTable;
+            this.itemDailyTable = itemDailyTable;
+        }
+    }
+
+    /**
+     * Count, quantity and amount of some lines
+     */
+    private static class Totals {
+        int count;
+        int quantity;
+        BigDecimal amount = BigDecimal.ZERO;
+
+        void add(int lineQuantity, BigDecimal lineAmount) {
+            count++;
+            quantity += lineQuantity;
+            if (lineAmount != null) {
+                amount = amount.add(lineAmount);
+            }
+        }
+    }
+
+    /**
+     * The lines of one transaction summed per day and per item and day
+     * Collected while the lines are inserted and applied to the rollups before the commit
+     */
+    static class Delta {
+        private final Source source;
+        // Sorted, so concurrent transactions update rollup rows in the same order
+        private final Map<Date, Totals> byDay = new TreeMap<>();
+        private final Map<Date, Map<Integer, Totals>> byItemDay = new TreeMap<>();
+
+        private Delta(Source source) {
+            this.source = source;
+        }
+
+        /**
+         * Adds one inserted line
+         *
+         * @param date The sale or purchase date
+         * @param itemId The item ID
+         * @param quantity The line quantity
+         * @param amount The line total amount
+         */
+        void add(Date date, int itemId, int quantity, BigDecimal amount) {
+            byDay.computeIfAbsent(date, d -> new Totals()).add(quantity, amount);
+            byItemDay.computeIfAbsent(date, d -> new TreeMap<>())
+                    .computeIfAbsent(itemId, id -> new Totals()).add(quantity, amount);
+        }
+
+        /**
+         * Adds the collected totals to the rollup rows, creating the rows that do not exist yet
+         * Must run on the connection and inside the transaction that inserted the lines
+         *
+         * @param conn The transaction's connection
+         * @throws SQLException if a rollup row could not be written
+         */
+        void apply(Connection conn) throws SQLException {
+            if (byDay.isEmpty()) {
+                return;
+            }
+            String dailySql = "INSERT INTO " + source.dailyTable + " (" + source.dateColumn + ", " +
+                    source.countColumn + ", quantity, total_amount) VALUES (?, ?, ?, ?) " + upsertClause();
+            String itemDailySql = "INSERT INTO " + source.itemDailyTable + " (" + source.dateColumn +
+                    ", item_id, " + source.countColumn + ", quantity, total_amount) VALUES (?, ?, ?, ?, ?) " +
+                    upsertClause();
+
+            try (PreparedStatement stmt = conn.prepareStatement(dailySql)) {
+                for (Map.Entry<Date, Totals> entry : byDay.entrySet()) {
+                    stmt.setDate(1, entry.getKey());
+                    stmt.setInt(2, entry.getValue().count);
+                    stmt.setInt(3, entry.getValue().quantity);
+                    stmt.setBigDecimal(4, entry.getValue().amount);
+                    stmt.addBatch();
+                }
+                checkBatch(stmt.executeBatch());
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement(itemDailySql)) {
+                for (Map.Entry<Date, Map<Integer, Totals>> day : byItemDay.entrySet()) {
+                    for (Map.Entry<Integer, Totals> entry : day.getValue().entrySet()) {
+                        stmt.setDate(1, day.getKey());
+                        stmt.setInt(2, entry.getKey());
+                        stmt.setInt(3, entry.getValue().count);
+                        stmt.setInt(4, entry.getValue().quantity);
+                        stmt.setBigDecimal(5, entry.getValue().amount);
+                        stmt.addBatch();
+                    }
+                }
+                checkBatch(stmt.executeBatch());
+            }
+        }
+
+        private String upsertClause() {
+            return "ON DUPLICATE KEY UPDATE " +
+                    source.countColumn + " = " + source.countColumn + " + VALUES(" + source.countColumn + "), " +
+                    "quantity = quantity + VALUES(quantity), " +
+                    "total_amount = total_amount + VALUES(total_amount)";
+        }
+
+        private static void checkBatch(int[] rowsUpdated) throws SQLException {
+            for (int rows : rowsUpdated) {
+                if (rows == Statement.EXECUTE_FAILED) {
+                    throw new SQLException("Failed to update rollup row");
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts collecting the sale lines of one transaction
+     *
+     * @return An empty delta for the sales rollups
+     */
+    static Delta salesDelta() {
+        return new Delta(Source.SALES);
+    }
+
+    /**
+     * Starts collecting the purchase lines of one transaction
+     *
+     * @return An empty delta for the purchase rollups
+     */
+    static Delta purchasesDelta() {
+        return new Delta(Source.PURCHASES);
+    }
+
+    /**
+     * Gets the total amount sold in a date range
+     *
+     * @param startDate First day of the range
+     * @param endDate Last day of the range
+     * @return The total, zero if nothing was sold or it could not be read
+     */
+    public BigDecimal getSalesTotal(Date startDate, Date endDate) {
+        return getTotal(Source.SALES, startDate, endDate);
+    }
+
+    /**
+     * Gets the total amount purchased in a date range
+     *
+     * @param startDate First day of the range
+     * @param endDate Last day of the range
+     * @return The total, zero if nothing was purchased or it could not be read
+     */
+    public BigDecimal getPurchasesTotal(Date startDate, Date endDate) {
+        return getTotal(Source.PURCHASES, startDate, endDate);
+    }
+
+    /**
+     * Gets the sales of each day in a date range that had any
+     *
+     * @param startDate First day of the range
+     * @param endDate Last day of the range
+     * @return One total per day, oldest first
+     */
+    public List<PeriodTotal> getDailySales(Date startDate, Date endDate) {
+        return getDailyTotals(Source.SALES, startDate, endDate);
+    }
+
+    /**
+     * Gets the purchases of each day in a date range that had any
+     *
+     * @param startDate First day of the range
+     * @param endDate Last day of the range
+     * @return One total per day, oldest first
+     */
+    public List<PeriodTotal> getDailyPurchases(Date startDate, Date endDate) {
+        return getDailyTotals(Source.PURCHASES, startDate, endDate);
+    }
+
+    /**
+     * Gets the sales of each month in a date range that had any
+     * Months at the ends of the range only count the days inside it
+     *
+     * @param startDate First day of the range
+     * @param endDate Last day of the range
+     * @return One total per month dated the first of the month, oldest first
+     */
+    public List<PeriodTotal> getMonthlySales(Date startDate, Date endDate) {
+        return getMonthlyTotals(Source.SALES, startDate, endDate);
+    }
+
+    /**
+     * Gets the purchases of each month in a date range that had any
+     * Months at the ends of the range only count the days inside it
+     *
+     * @param startDate First day of the range
+     * @param endDate Last day of the range
+     * @return One total per month dated the first of the month, oldest first
+     */
+    public List<PeriodTotal> getMonthlyPurchases(Date startDate, Date endDate) {
+        return getMonthlyTotals(Source.PURCHASES, startDate, endDate);
+    }
+
+    private BigDecimal getTotal(Source source, Date startDate, Date endDate) {
+        String sql = "SELECT COALESCE(SUM(total_amount), 0) AS total FROM " + source.dailyTable +
+                " WHERE " + source.dateColumn + " BETWEEN ? AND ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setDate(1, startDate);
+            stmt.setDate(2, endDate);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getBigDecimal("total");
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting " + source.table + " total: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return BigDecimal.ZERO;
+    }
+
+    private List<PeriodTotal> getDailyTotals(Source source, Date startDate, Date endDate) {
+        List<PeriodTotal> totals = new ArrayList<>();
+        String sql = "SELECT " + source.dateColumn + " AS period_start, " + source.countColumn + " AS line_count, " +
+                "quantity, total_amount FROM " + source.dailyTable + " WHERE " + source.dateColumn +
+                " BETWEEN ? AND ? ORDER BY " + source.dateColumn;
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setDate(1, startDate);
+            stmt.setDate(2, endDate);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    totals.add(new PeriodTotal(rs.getDate("period_start"), rs.getInt("line_count"),
+                            rs.getInt("quantity"), rs.getBigDecimal("total_amount")));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving daily " + source.table + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return totals;
+    }
+
+    private List<PeriodTotal> getMonthlyTotals(Source source, Date startDate, Date endDate) {
+        List<PeriodTotal> totals = new ArrayList<>();
+        String sql = "SELECT YEAR(" + source.dateColumn + ") AS period_year, MONTH(" + source.dateColumn +
+                ") AS period_month, SUM(" + source.countColumn + ") AS line_count, SUM(quantity) AS quantity, " +
+                "SUM(total_amount) AS total_amount FROM " + source.dailyTable + " WHERE " + source.dateColumn +
+                " BETWEEN ? AND ? GROUP BY YEAR(" + source.dateColumn + "), MONTH(" + source.dateColumn + ") " +
+                "ORDER BY period_year, period_month";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setDate(1, startDate);
+            stmt.setDate(2, endDate);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Date monthStart = Date.valueOf(LocalDate.of(rs.getInt("period_year"), rs.getInt("period_month"), 1));
+                    totals.add(new PeriodTotal(monthStart, rs.getInt("line_count"),
+                            rs.getInt("quantity"), rs.getBigDecimal("total_amount")));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving monthly " + source.table + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return totals;
+    }
+
+    /**
+     * Rebuilds every rollup table from the sales and purchases tables
+     * Runs as one SERIALIZABLE transaction, so sales recorded meanwhile wait for it instead of
+     * being counted twice or not at all
+     *
+     * @return true if the rollups were rebuilt, false otherwise (they are left as they were then)
+     */
+    public boolean rebuild() {
+        Connection conn = null;
+        int isolation = Connection.TRANSACTION_NONE;
+        try {
+            conn = DatabaseConnection.getConnection();
+            isolation = conn.getTransactionIsolation();
+            conn.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+            conn.setAutoCommit(false); // Start transaction
+
+            try (Statement stmt = conn.createStatement()) {
+                for (Source source : Source.values()) {
+                    stmt.executeUpdate("DELETE FROM " + source.itemDailyTable);
+                    stmt.executeUpdate("DELETE FROM " + source.dailyTable);
+                    stmt.executeUpdate("INSERT INTO " + source.dailyTable + " (" + source.dateColumn + ", " +
+                            source.countColumn + ", quantity, total_amount) " +
+                            "SELECT " + source.dateColumn + ", COUNT(*), SUM(quantity), SUM(total_amount) " +
+                            "FROM " + source.table + " GROUP BY " + source.dateColumn);
+                    stmt.executeUpdate("INSERT INTO " + source.itemDailyTable + " (" + source.dateColumn +
+                            ", item_id, " + source.countColumn + ", quantity, total_amount) " +
+                            "SELECT " + source.dateColumn + ", item_id, COUNT(*), SUM(quantity), SUM(total_amount) " +
+                            "FROM " + source.table + " GROUP BY " + source.dateColumn + ", item_id");
+                }
+            }
+
+            conn.commit(); // Commit transaction
+            TableVersions.bump(Table.SALES, Table.PURCHASES);
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error rebuilding rollups: " + e.getMessage());
+            e.printStackTrace();
+            try {
+                if (conn != null) conn.rollback();
+            } catch (SQLException rollbackEx) {
+                System.err.println("Error rolling back transaction: " + rollbackEx.getMessage());
+            }
+            return false;
+        } finally {
+            try {
+                if (conn != null) {
+                    conn.setAutoCommit(true);
+                    if (isolation != Connection.TRANSACTION_NONE) {
+                        conn.setTransactionIsolation(isolation);
+                    }
+                    conn.close();
+                }
+            } catch (SQLException e) {
+                System.err.println("Error closing connection: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the rollups if the number of lines they count differs from the raw tables
+     * Meant to run once in the background at startup
+     *
+     * @return true if the rollups were rebuilt, false if they already matched or could not be checked
+     */
+    public boolean backfillIfNeeded() {
+        boolean matches = true;
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement()) {
+
+            for (Source source : Source.values()) {
+                String sql = "SELECT (SELECT COUNT(*) FROM " + source.table + ") AS source_rows, " +
+                        "(SELECT COALESCE(SUM(" + source.countColumn + "), 0) FROM " + source.dailyTable +
+                        ") AS rolled_up_rows";
+                try (ResultSet rs = stmt.executeQuery(sql)) {
+                    if (rs.next() && rs.getLong("source_rows") != rs.getLong("rolled_up_rows")) {
+                        matches = false;
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error checking rollups: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+
+        if (matches) {
+            return false;
+        }
+        System.out.println("Rollups do not match the sales and purchase history, rebuilding...");
+        return rebuild();
+    }
+}
@@ -0,0 +1,120 @@
+package com.garage.inventory.dao;
+
+import com.garage.inventory.database.DatabaseConnection;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * RowStream runs a query on a forward-only, read-only cursor and hands its rows out as a Stream
+ * Rows are mapped one at a time as the stream is consumed and the driver fetches a bounded number
+ * of them per round trip, so a query over years of history needs no more memory than a few rows
+ *
+ * The stream holds a pooled connection until it is closed, so it must always be closed, e.g. with
+ * try-with-resources; closing it before the last row cancels the rest of the query, as a streaming
+ * MySQL result would otherwise read every remaining row just to discard it
+ */
+class RowStream {
+    // Rows fetched per round trip where the engine fetches in batches
+    static final int FETCH_SIZE = 500;
+
+    /**
+     * Sets the parameters of the statement
+     */
+    interface Binder {
+        void bind(PreparedStatement stmt) throws SQLException;
+    }
+
+    /**
+     * Maps the current row of a result set
+     */
+    interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    private RowStream() {
+    }
+
+    /**
+     * Starts a query and returns a stream over its rows
+     * A failure while reading further rows is thrown from the stream as an IllegalStateException
+     * whose cause is the SQLException
+     *
+     * @param sql The query
+     * @param binder Sets the query parameters
+     * @param mapper Maps each row
+     * @return A sequential stream that must be closed
+     * @throws SQLException if the query could not be started (nothing is left open then)
+     */
+    static <T> Stream<T> open(String sql, Binder binder, RowMapper<T> mapper) throws SQLException {
+        Connection conn = DatabaseConnection.getConnection();
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            // The three argument form bypasses the statement cache, so the fetch size is never reused
+            stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(DatabaseConnection.getDialect().streamingFetchSize(FETCH_SIZE));
+            binder.bind(stmt);
+            rs = stmt.executeQuery();
+        } catch (SQLException e) {
+            close(rs, stmt, conn);
+            throw e;
+        }
+
+        ResultSet cursor = rs;
+        PreparedStatement statement = stmt;
+        boolean[] exhausted = {false};
+        Spliterator<T> rows = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    if (!cursor.next()) {
+                        exhausted[0] = true;
+                        return false;
+                    }
+                    action.accept(mapper.map(cursor));
+                    return true;
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Error reading query results: " + e.getMessage(), e);
+                }
+            }
+        };
+        return StreamSupport.stream(rows, false).onClose(() -> {
+            if (!exhausted[0]) {
+                cancel(statement);
+            }
+            close(cursor, statement, conn);
+        });
+    }
+
+    private static void cancel(PreparedStatement stmt) {
+        try {
+            stmt.cancel();
+        } catch (SQLException e) {
+            // The rows are still discarded when the result set is closed, only more slowly
+            System.err.println("Error cancelling query: " + e.getMessage());
+        }
+    }
+
+    private static void close(ResultSet rs, PreparedStatement stmt, Connection conn) {
+        try {
+            if (rs != null) rs.close();
+            if (stmt != null) stmt.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing query results: " + e.getMessage());
+        } finally {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing connection: " + e.getMessage());
+            }
+        }
+    }
+}
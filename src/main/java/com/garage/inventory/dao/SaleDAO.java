@@ -1,16 +1,23 @@
 package com.garage.inventory.dao;
 
+import com.garage.inventory.dao.TableVersions.Table;
 import com.garage.inventory.database.DatabaseConnection;
 import com.garage.inventory.model.Item;
 import com.garage.inventory.model.Sale;
+import com.garage.inventory.model.SaleRow;
 import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
 
 /**
  * SaleDAO handles all database operations for Sales
@@ -18,10 +25,17 @@ import java.util.List;
  */
 public class SaleDAO {
 
+    // Display projection shared by the listing queries; names are joined in instead of loaded per row
+    private static final String SALE_ROW_SELECT = "SELECT s.id, s.item_id, i.name AS item_name, " +
+            "s.customer_id, c.name AS customer_name, s.quantity, s.unit_price, s.total_amount, s.sale_date " +
+            "FROM sales s LEFT JOIN items i ON i.id = s.item_id LEFT JOIN customers c ON c.id = s.customer_id";
+
     /**
      * Adds a new sale transaction
      * This method records a sale and automatically decreases the item's stock quantity
      * Business logic: When items are sold, inventory stock must decrease
+     * The stock is decreased with a guarded UPDATE that only matches while enough stock is left,
+     * so two counters selling the last unit at the same time cannot both succeed
      *
      * @param sale The sale object containing sale details
      * @return true if sale was recorded successfully, false otherwise
@@ -30,33 +44,28 @@ public class SaleDAO {
         String saleSql = "INSERT INTO sales (item_id, customer_id, quantity, unit_price, total_amount, " +
                 "sale_date, notes) VALUES (?, ?, ?, ?, ?, ?, ?)";
 
-        String checkStockSql = "SELECT stock_quantity FROM items WHERE id = ?";
-        String updateStockSql = "UPDATE items SET stock_quantity = stock_quantity - ? WHERE id = ?";
+        String decrementStockSql = "UPDATE items SET stock_quantity = stock_quantity - ? " +
+                "WHERE id = ? AND stock_quantity >= ?";
 
         Connection conn = null;
         try {
             conn = DatabaseConnection.getConnection();
             conn.setAutoCommit(false); // Start transaction
 
-            // Check if enough stock is available
-            int currentStock = 0;
-            try (PreparedStatement stmt = conn.prepareStatement(checkStockSql)) {
-                stmt.setInt(1, sale.getItemId());
-                try (ResultSet rs = stmt.executeQuery()) {
-                    if (rs.next()) {
-                        currentStock = rs.getInt("stock_quantity");
-                    } else {
-                        conn.rollback();
-                        System.err.println("Item not found: " + sale.getItemId());
-                        return false; // Item doesn't exist
-                    }
-                }
-            }
+            // Decrease stock only if enough is available; the affected row count is the stock check
+            // Using the same connection to maintain transaction integrity
+            try (PreparedStatement stmt = conn.prepareStatement(decrementStockSql)) {
+                stmt.setInt(1, sale.getQuantity());
+                stmt.setInt(2, sale.getItemId());
+                stmt.setInt(3, sale.getQuantity());
 
-            if (currentStock < sale.getQuantity()) {
-                conn.rollback();
-                System.err.println("Insufficient stock. Available: " + currentStock + ", Required: " + sale.getQuantity());
-                return false; // Insufficient stock
+                int rowsUpdated = stmt.executeUpdate();
+                if (rowsUpdated == 0) {
+                    conn.rollback();
+                    System.err.println("Insufficient stock or item not found. Item: " + sale.getItemId() +
+                            ", Required: " + sale.getQuantity());
+                    return false; // Item doesn't exist or insufficient stock
+                }
             }
 
             // Insert sale record
@@ -72,24 +81,138 @@ public class SaleDAO {
                 stmt.executeUpdate();
             }
 
-            // Update stock quantity (decrease by sale quantity)
-            // Using the same connection to maintain transaction integrity
-            try (PreparedStatement stmt = conn.prepareStatement(updateStockSql)) {
-                stmt.setInt(1, sale.getQuantity());
-                stmt.setInt(2, sale.getItemId());
+            // Add the sale to the daily rollups in the same transaction
+            RollupDAO.Delta rollup = RollupDAO.salesDelta();
+            rollup.add(sale.getSaleDate(), sale.getItemId(), sale.getQuantity(), sale.getTotalAmount());
+            rollup.apply(conn);
 
-                int rowsUpdated = stmt.executeUpdate();
-                if (rowsUpdated == 0) {
-                    conn.rollback();
-                    System.err.println("Failed to update stock - item not found");
-                    return false;
+            conn.commit(); // Commit transaction
+            ItemCatalog.getInstance().adjustStock(sale.getItemId(), -sale.getQuantity());
+            if (sale.getCustomerId() > 0) {
+                CustomerSpendCache.getInstance().add(sale.getCustomerId(), sale.getTotalAmount());
+            }
+            TableVersions.bump(Table.SALES, Table.ITEMS);
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error adding sale: " + e.getMessage());
+            e.printStackTrace();
+            try {
+                if (conn != null) conn.rollback();
+            } catch (SQLException rollbackEx) {
+                System.err.println("Error rolling back transaction: " + rollbackEx.getMessage());
+            }
+            return false;
+        } finally {
+            try {
+                if (conn != null) {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                }
+            } catch (SQLException e) {
+                System.err.println("Error closing connection: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Records every line of a cart (one customer visit) in a single transaction
+     * Stock for all lines is checked and decreased with one batch of guarded UPDATEs and the sale
+     * rows are inserted with one batch INSERT; either every line is recorded or none is
+     * Lines are processed in item ID order so concurrent carts lock items in the same order
+     *
+     * @param sales The cart lines, one Sale per item line
+     * @return true if all lines were recorded, false if any line failed (nothing is recorded then)
+     */
+    public boolean addSales(List<Sale> sales) {
+        if (sales == null || sales.isEmpty()) {
+            return false;
+        }
+
+        String saleSql = "INSERT INTO sales (item_id, customer_id, quantity, unit_price, total_amount, " +
+                "sale_date, notes) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+        String decrementStockSql = "UPDATE items SET stock_quantity = stock_quantity - ? " +
+                "WHERE id = ? AND stock_quantity >= ?";
+
+        List<Sale> lines = new ArrayList<>(sales);
+        lines.sort(Comparator.comparingInt(Sale::getItemId));
+
+        // Total quantity per item, so the same part on two lines is checked against its combined quantity
+        Map<Integer, Integer> quantityByItem = new TreeMap<>();
+        for (Sale sale : lines) {
+            if (sale.getQuantity() <= 0) {
+                System.err.println("Invalid quantity " + sale.getQuantity() + " for item: " + sale.getItemId());
+                return false;
+            }
+            quantityByItem.merge(sale.getItemId(), sale.getQuantity(), Integer::sum);
+        }
+
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false); // Start transaction
+
+            // Decrease stock for every item; each guarded UPDATE must match exactly one row
+            try (PreparedStatement stmt = conn.prepareStatement(decrementStockSql)) {
+                for (Map.Entry<Integer, Integer> entry : quantityByItem.entrySet()) {
+                    stmt.setInt(1, entry.getValue());
+                    stmt.setInt(2, entry.getKey());
+                    stmt.setInt(3, entry.getValue());
+                    stmt.addBatch();
+                }
+
+                int[] rowsUpdated = stmt.executeBatch();
+                int index = 0;
+                for (Map.Entry<Integer, Integer> entry : quantityByItem.entrySet()) {
+                    // SUCCESS_NO_INFO is rejected as well, since the stock check depends on the row count
+                    if (index >= rowsUpdated.length || rowsUpdated[index] <= 0) {
+                        conn.rollback();
+                        System.err.println("Insufficient stock or item not found. Item: " + entry.getKey() +
+                                ", Required: " + entry.getValue());
+                        return false;
+                    }
+                    index++;
+                }
+            }
+
+            // Insert all sale records, collecting their daily rollup totals
+            RollupDAO.Delta rollup = RollupDAO.salesDelta();
+            try (PreparedStatement stmt = conn.prepareStatement(saleSql)) {
+                for (Sale sale : lines) {
+                    rollup.add(sale.getSaleDate(), sale.getItemId(), sale.getQuantity(), sale.getTotalAmount());
+                    stmt.setInt(1, sale.getItemId());
+                    stmt.setObject(2, sale.getCustomerId() > 0 ? sale.getCustomerId() : null);
+                    stmt.setInt(3, sale.getQuantity());
+                    stmt.setBigDecimal(4, sale.getUnitPrice());
+                    stmt.setBigDecimal(5, sale.getTotalAmount());
+                    stmt.setDate(6, sale.getSaleDate());
+                    stmt.setString(7, sale.getNotes());
+                    stmt.addBatch();
+                }
+
+                for (int rowsInserted : stmt.executeBatch()) {
+                    if (rowsInserted == Statement.EXECUTE_FAILED) {
+                        conn.rollback();
+                        System.err.println("Failed to insert sale line");
+                        return false;
+                    }
                 }
             }
+            rollup.apply(conn);
 
             conn.commit(); // Commit transaction
+            for (Map.Entry<Integer, Integer> entry : quantityByItem.entrySet()) {
+                ItemCatalog.getInstance().adjustStock(entry.getKey(), -entry.getValue());
+            }
+            for (Sale sale : lines) {
+                if (sale.getCustomerId() > 0) {
+                    CustomerSpendCache.getInstance().add(sale.getCustomerId(), sale.getTotalAmount());
+                }
+            }
+            TableVersions.bump(Table.SALES, Table.ITEMS);
             return true;
         } catch (SQLException e) {
-            System.err.println("Error adding sale: " + e.getMessage());
+            System.err.println("Error adding sales: " + e.getMessage());
             e.printStackTrace();
             try {
                 if (conn != null) conn.rollback();
@@ -147,12 +270,12 @@ public class SaleDAO {
 
     /**
      * Gets total sales for today
-     * This is used for dashboard statistics
+     * This is used for dashboard statistics; read from the daily rollup, so it is one row
      *
      * @return Total amount of sales made today
      */
     public BigDecimal getTodaySalesTotal() {
-        String sql = "SELECT COALESCE(SUM(total_amount), 0) as total FROM sales WHERE sale_date = CURDATE()";
+        String sql = "SELECT COALESCE(SUM(total_amount), 0) as total FROM sales_daily WHERE sale_date = CURDATE()";
 
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
@@ -189,19 +312,7 @@ public class SaleDAO {
 
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    Sale sale = new Sale();
-                    sale.setId(rs.getInt("id"));
-                    sale.setItemId(rs.getInt("item_id"));
-
-                    int customerId = rs.getInt("customer_id");
-                    sale.setCustomerId(rs.wasNull() ? 0 : customerId);
-
-                    sale.setQuantity(rs.getInt("quantity"));
-                    sale.setUnitPrice(rs.getBigDecimal("unit_price"));
-                    sale.setTotalAmount(rs.getBigDecimal("total_amount"));
-                    sale.setSaleDate(rs.getDate("sale_date"));
-                    sale.setNotes(rs.getString("notes"));
-                    sales.add(sale);
+                    sales.add(mapResultSetToSale(rs));
                 }
             }
         } catch (SQLException e) {
@@ -211,4 +322,229 @@ public class SaleDAO {
 
         return sales;
     }
-}
\ No newline at end of file
+
+    /**
+     * Retrieves all sales as display rows with item and customer names
+     * Runs one JOINed query instead of looking up the item and customer of every sale
+     *
+     * @return List of sale rows, newest first
+     */
+    public List<SaleRow> getAllSaleRows() {
+        List<SaleRow> rows = new ArrayList<>();
+        String sql = SALE_ROW_SELECT + " ORDER BY s.sale_date DESC, s.id DESC";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                rows.add(mapResultSetToSaleRow(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving sale rows: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return rows;
+    }
+
+    /**
+     * Retrieves sales within a date range as display rows with item and customer names
+     * Used for daily and monthly reports
+     *
+     * @param startDate Start date of the range
+     * @param endDate End date of the range
+     * @return List of sale rows within the date range, newest first
+     */
+    public List<SaleRow> getSaleRowsByDateRange(Date startDate, Date endDate) {
+        List<SaleRow> rows = new ArrayList<>();
+        String sql = SALE_ROW_SELECT + " WHERE s.sale_date BETWEEN ? AND ? ORDER BY s.sale_date DESC, s.id DESC";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setDate(1, startDate);
+            stmt.setDate(2, endDate);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(mapResultSetToSaleRow(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving sale rows by date range: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return rows;
+    }
+
+    /**
+     * Streams the sales within a date range as display rows from a forward-only cursor
+     * The stream holds a database connection and must be closed
+     *
+     * @param startDate Start date of the range
+     * @param endDate End date of the range
+     * @return The sale rows within the date range, newest first
+     * @throws SQLException if the query could not be started
+     */
+    public Stream<SaleRow> streamSaleRowsByDateRange(Date startDate, Date endDate) throws SQLException {
+        String sql = SALE_ROW_SELECT + " WHERE s.sale_date BETWEEN ? AND ? ORDER BY s.sale_date DESC, s.id DESC";
+        return RowStream.open(sql, stmt -> {
+            stmt.setDate(1, startDate);
+            stmt.setDate(2, endDate);
+        }, this::mapResultSetToSaleRow);
+    }
+
+    /**
+     * Retrieves one page of sale rows, newest first, using keyset pagination on (sale_date, id)
+     * The page starts right after the given key, so each page costs the same however deep it is
+     * and rows inserted meanwhile never shift rows between pages
+     *
+     * @param afterDate Sale date of the last row of the previous page, or null for the first page
+     * @param afterId ID of the last row of the previous page
+     * @param limit Maximum number of rows to return
+     * @return Up to limit sale rows; fewer means the end of the history was reached
+     */
+    public List<SaleRow> getSaleRowsPage(Date afterDate, int afterId, int limit) {
+        List<SaleRow> rows = new ArrayList<>();
+        String sql = SALE_ROW_SELECT +
+                (afterDate != null ? " WHERE (s.sale_date < ? OR (s.sale_date = ? AND s.id < ?))" : "") +
+                " ORDER BY s.sale_date DESC, s.id DESC LIMIT ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            if (afterDate != null) {
+                stmt.setDate(index++, afterDate);
+                stmt.setDate(index++, afterDate);
+                stmt.setInt(index++, afterId);
+            }
+            stmt.setInt(index, limit);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(mapResultSetToSaleRow(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving sale rows page: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return rows;
+    }
+
+    /**
+     * Retrieves one page of a customer's sales as display rows with item names, newest first
+     * Uses keyset pagination on (sale_date, id) like getSaleRowsPage(), served by the
+     * (customer_id, sale_date, id) index, so only the rows of the page are read
+     *
+     * @param customerId The customer ID
+     * @param afterDate Sale date of the last row of the previous page, or null for the first page
+     * @param afterId ID of the last row of the previous page
+     * @param limit Maximum number of rows to return
+     * @return Up to limit sale rows; fewer means the end of the customer's history was reached
+     */
+    public List<SaleRow> getSalesByCustomer(int customerId, Date afterDate, int afterId, int limit) {
+        List<SaleRow> rows = new ArrayList<>();
+        String sql = SALE_ROW_SELECT + " WHERE s.customer_id = ?" +
+                (afterDate != null ? " AND (s.sale_date < ? OR (s.sale_date = ? AND s.id < ?))" : "") +
+                " ORDER BY s.sale_date DESC, s.id DESC LIMIT ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            stmt.setInt(index++, customerId);
+            if (afterDate != null) {
+                stmt.setDate(index++, afterDate);
+                stmt.setDate(index++, afterDate);
+                stmt.setInt(index++, afterId);
+            }
+            stmt.setInt(index, limit);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(mapResultSetToSaleRow(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving sales by customer: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return rows;
+    }
+
+    /**
+     * Gets the total amount a customer has spent over all their sales
+     * The total is cached after the first query and kept up to date as sales are recorded
+     *
+     * @param customerId The customer ID
+     * @return Lifetime sales total of the customer
+     */
+    public BigDecimal getCustomerLifetimeSpend(int customerId) {
+        CustomerSpendCache cache = CustomerSpendCache.getInstance();
+        BigDecimal cached = cache.get(customerId);
+        if (cached != null) {
+            return cached;
+        }
+
+        String sql = "SELECT COALESCE(SUM(total_amount), 0) AS total FROM sales WHERE customer_id = ?";
+        long readVersion = cache.getVersion();
+
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, customerId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    BigDecimal total = rs.getBigDecimal("total");
+                    cache.putLoaded(customerId, total, readVersion);
+                    return total;
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting customer lifetime spend: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return BigDecimal.ZERO;
+    }
+
+    private Sale mapResultSetToSale(ResultSet rs) throws SQLException {
+        Sale sale = new Sale();
+        sale.setId(rs.getInt("id"));
+        sale.setItemId(rs.getInt("item_id"));
+
+        int customerId = rs.getInt("customer_id");
+        sale.setCustomerId(rs.wasNull() ? 0 : customerId);
+
+        sale.setQuantity(rs.getInt("quantity"));
+        sale.setUnitPrice(rs.getBigDecimal("unit_price"));
+        sale.setTotalAmount(rs.getBigDecimal("total_amount"));
+        sale.setSaleDate(rs.getDate("sale_date"));
+        sale.setNotes(rs.getString("notes"));
+        return sale;
+    }
+
+    private SaleRow mapResultSetToSaleRow(ResultSet rs) throws SQLException {
+        int customerId = rs.getInt("customer_id");
+        if (rs.wasNull()) {
+            customerId = 0;
+        }
+        return new SaleRow(
+                rs.getInt("id"),
+                rs.getInt("item_id"),
+                rs.getString("item_name"),
+                customerId,
+                rs.getString("customer_name"),
+                rs.getInt("quantity"),
+                rs.getBigDecimal("unit_price"),
+                rs.getBigDecimal("total_amount"),
+                rs.getDate("sale_date"));
+    }
+}
@@ -1,19 +1,32 @@
 package com.garage.inventory.dao;
 
+import com.garage.inventory.dao.TableVersions.Table;
 import com.garage.inventory.database.DatabaseConnection;
+import com.garage.inventory.model.Item;
+import com.garage.inventory.model.ItemSummary;
 import com.garage.inventory.model.Supplier;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * SupplierDAO handles all database operations for Suppliers
  * Manages supplier information and relationships with items
+ * A supplier's catalog is every item linked to it in supplier_items plus the items naming it as
+ * their primary supplier (items.supplier_id); the links are mirrored in the SupplierLinkIndex
  */
 public class SupplierDAO {
+    private final SupplierLinkIndex linkIndex = SupplierLinkIndex.getInstance();
     
     /**
      * Adds a new supplier to the database
@@ -34,6 +47,9 @@ public class SupplierDAO {
             stmt.setString(4, supplier.getAddress());
             
             int rowsAffected = stmt.executeUpdate();
+            if (rowsAffected > 0) {
+                TableVersions.bump(Table.SUPPLIERS);
+            }
             return rowsAffected > 0;
         } catch (SQLException e) {
             System.err.println("Error adding supplier: " + e.getMessage());
@@ -62,6 +78,9 @@ public class SupplierDAO {
             stmt.setInt(5, supplier.getId());
             
             int rowsAffected = stmt.executeUpdate();
+            if (rowsAffected > 0) {
+                TableVersions.bump(Table.SUPPLIERS);
+            }
             return rowsAffected > 0;
         } catch (SQLException e) {
             System.err.println("Error updating supplier: " + e.getMessage());
@@ -85,6 +104,13 @@ public class SupplierDAO {
             
             stmt.setInt(1, supplierId);
             int rowsAffected = stmt.executeUpdate();
+            if (rowsAffected > 0) {
+                // items.supplier_id is cleared by ON DELETE SET NULL; keep cached items in step
+                ItemCatalog.getInstance().clearSupplier(supplierId);
+                // supplier_items rows are removed by ON DELETE CASCADE
+                linkIndex.removeSupplier(supplierId);
+                TableVersions.bump(Table.SUPPLIERS, Table.ITEMS, Table.SUPPLIER_ITEMS, Table.PURCHASES);
+            }
             return rowsAffected > 0;
         } catch (SQLException e) {
             System.err.println("Error deleting supplier: " + e.getMessage());
@@ -186,6 +212,95 @@ public class SupplierDAO {
         return itemIds;
     }
     
+    /**
+     * Gets the catalog of a supplier as item summaries ordered by name
+     * Joins supplier_items to items on the link table's primary key and adds the items whose
+     * primary supplier it is through the items.supplier_id index; no other items are read
+     * 
+     * @param supplierId The ID of the supplier
+     * @return Summaries of the items the supplier provides
+     */
+    public List<ItemSummary> getItemSummariesBySupplier(int supplierId) {
+        List<ItemSummary> items = new ArrayList<>();
+        String sql = "SELECT i.id, i.part_number, i.name, i.unit_price, i.stock_quantity " +
+                     "FROM supplier_items si JOIN items i ON i.id = si.item_id WHERE si.supplier_id = ? " +
+                     "UNION " +
+                     "SELECT i.id, i.part_number, i.name, i.unit_price, i.stock_quantity " +
+                     "FROM items i WHERE i.supplier_id = ? " +
+                     "ORDER BY name, id";
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setInt(1, supplierId);
+            stmt.setInt(2, supplierId);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    items.add(new ItemSummary(
+                            rs.getInt("id"),
+                            rs.getString("part_number"),
+                            rs.getString("name"),
+                            rs.getBigDecimal("unit_price"),
+                            rs.getInt("stock_quantity")));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving supplier item summaries: " + e.getMessage());
+            e.printStackTrace();
+        }
+        
+        return items;
+    }
+    
+    /**
+     * Gets the suppliers that can provide an item: its primary supplier and every linked supplier
+     * Answered from the item catalog and the cached link index; the link table is loaded on first use
+     * 
+     * @param itemId The ID of the item
+     * @return IDs of the item's suppliers, primary supplier first
+     */
+    public List<Integer> getSupplierIdsForItem(int itemId) {
+        Set<Integer> supplierIds = new LinkedHashSet<>();
+        Item item = new ItemDAO().getItemById(itemId);
+        if (item != null && item.getSupplierId() > 0) {
+            supplierIds.add(item.getSupplierId());
+        }
+        
+        List<Integer> linked = linkIndex.getSupplierIds(itemId);
+        if (linked == null) {
+            loadLinkIndex();
+            linked = linkIndex.getSupplierIds(itemId);
+        }
+        if (linked != null) {
+            Collections.sort(linked);
+            supplierIds.addAll(linked);
+        }
+        return new ArrayList<>(supplierIds);
+    }
+    
+    /**
+     * Loads the whole supplier_items table into the link index
+     */
+    private void loadLinkIndex() {
+        String sql = "SELECT supplier_id, item_id FROM supplier_items";
+        long readVersion = linkIndex.getVersion();
+        
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            Map<Integer, Set<Integer>> links = new HashMap<>();
+            while (rs.next()) {
+                links.computeIfAbsent(rs.getInt("item_id"), id -> new HashSet<>()).add(rs.getInt("supplier_id"));
+            }
+            linkIndex.loadAll(links, readVersion);
+        } catch (SQLException e) {
+            System.err.println("Error loading supplier links: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
     /**
      * Links an item to a supplier
      * This establishes the relationship that a supplier provides a specific part
@@ -195,21 +310,125 @@ public class SupplierDAO {
      * @return true if link was created successfully, false otherwise
      */
     public boolean linkItemToSupplier(int supplierId, int itemId) {
+        return linkItemsToSupplier(supplierId, Collections.singletonList(itemId));
+    }
+    
+    /**
+     * Links several items to a supplier in one transaction with one batch of INSERTs
+     * Links that already exist are skipped
+     * 
+     * @param supplierId The ID of the supplier
+     * @param itemIds The IDs of the items
+     * @return true if every item is now linked, false if nothing was changed because of an error
+     */
+    public boolean linkItemsToSupplier(int supplierId, Collection<Integer> itemIds) {
         String sql = "INSERT INTO supplier_items (supplier_id, item_id) VALUES (?, ?) " +
                      "ON DUPLICATE KEY UPDATE supplier_id = supplier_id";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        if (!linkIndex.isComplete()) {
+            loadLinkIndex();
+        }
+        List<Integer> newLinks = new ArrayList<>();
+        for (Integer itemId : new LinkedHashSet<>(itemIds)) {
+            if (!linkIndex.isLinked(supplierId, itemId)) {
+                newLinks.add(itemId);
+            }
+        }
+        if (newLinks.isEmpty()) {
+            return true;
+        }
+        
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false); // Start transaction
             
-            stmt.setInt(1, supplierId);
-            stmt.setInt(2, itemId);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (Integer itemId : newLinks) {
+                    stmt.setInt(1, supplierId);
+                    stmt.setInt(2, itemId);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
             
-            int rowsAffected = stmt.executeUpdate();
-            return rowsAffected > 0;
+            conn.commit(); // Commit transaction
+            linkIndex.link(supplierId, newLinks);
+            TableVersions.bump(Table.SUPPLIER_ITEMS);
+            return true;
         } catch (SQLException e) {
-            System.err.println("Error linking item to supplier: " + e.getMessage());
+            System.err.println("Error linking items to supplier: " + e.getMessage());
             e.printStackTrace();
+            try {
+                if (conn != null) conn.rollback();
+            } catch (SQLException rollbackEx) {
+                System.err.println("Error rolling back transaction: " + rollbackEx.getMessage());
+            }
             return false;
+        } finally {
+            try {
+                if (conn != null) {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                }
+            } catch (SQLException e) {
+                System.err.println("Error closing connection: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Removes the links between a supplier and several items in one transaction
+     * Items whose primary supplier it is keep it as their primary supplier
+     * 
+     * @param supplierId The ID of the supplier
+     * @param itemIds The IDs of the items
+     * @return true if the links were removed, false if nothing was changed because of an error
+     */
+    public boolean unlinkItemsFromSupplier(int supplierId, Collection<Integer> itemIds) {
+        if (itemIds.isEmpty()) {
+            return true;
+        }
+        
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection();
+            conn.setAutoCommit(false); // Start transaction
+            
+            for (List<Integer> chunk : BatchLoader.chunks(itemIds)) {
+                String sql = "DELETE FROM supplier_items WHERE supplier_id = ? AND item_id IN (" +
+                             BatchLoader.placeholders(chunk.size()) + ")";
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setInt(1, supplierId);
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setInt(i + 2, chunk.get(i));
+                    }
+                    stmt.executeUpdate();
+                }
+            }
+            
+            conn.commit(); // Commit transaction
+            linkIndex.unlink(supplierId, itemIds);
+            TableVersions.bump(Table.SUPPLIER_ITEMS);
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error unlinking items from supplier: " + e.getMessage());
+            e.printStackTrace();
+            try {
+                if (conn != null) conn.rollback();
+            } catch (SQLException rollbackEx) {
+                System.err.println("Error rolling back transaction: " + rollbackEx.getMessage());
+            }
+            return false;
+        } finally {
+            try {
+                if (conn != null) {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                }
+            } catch (SQLException e) {
+                System.err.println("Error closing connection: " + e.getMessage());
+            }
         }
     }
 }
@@ -0,0 +1,159 @@
+package com.garage.inventory.dao;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SupplierLinkIndex is the in-process copy of the supplier_items link table, indexed by item
+ * It answers "which suppliers can provide this item" without a query, and lets SupplierDAO skip
+ * links that already exist; it is loaded with one query on first use and then kept up to date by
+ * SupplierDAO and ItemDAO after every committed change, including ON DELETE CASCADE deletions
+ * An item's primary supplier (items.supplier_id) is not part of the link table and not kept here
+ */
+class SupplierLinkIndex {
+    private static final SupplierLinkIndex INSTANCE = new SupplierLinkIndex();
+
+    private final Map<Integer, Set<Integer>> suppliersByItem = new HashMap<>();
+    // True once the whole table has been loaded
+    private boolean complete = false;
+    // Bumped by every write, so a load that raced with a write is not used
+    private long version = 0;
+
+    private SupplierLinkIndex() {
+    }
+
+    /**
+     * Gets the shared index
+     *
+     * @return The process wide link index
+     */
+    static SupplierLinkIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Gets the suppliers linked to an item
+     *
+     * @param itemId The item ID
+     * @return IDs of the linked suppliers, or null if the table has not been loaded yet
+     */
+    synchronized List<Integer> getSupplierIds(int itemId) {
+        if (!complete) {
+            return null;
+        }
+        Set<Integer> supplierIds = suppliersByItem.get(itemId);
+        return supplierIds != null ? new ArrayList<>(supplierIds) : new ArrayList<>();
+    }
+
+    /**
+     * Checks whether a link exists
+     *
+     * @param supplierId The supplier ID
+     * @param itemId The item ID
+     * @return true if linked, false if not linked or the table has not been loaded yet
+     */
+    synchronized boolean isLinked(int supplierId, int itemId) {
+        Set<Integer> supplierIds = suppliersByItem.get(itemId);
+        return complete && supplierIds != null && supplierIds.contains(supplierId);
+    }
+
+    /**
+     * @return true if the whole link table is loaded
+     */
+    synchronized boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Gets the write version to pass to loadAll() before a database read
+     *
+     * @return The current write version
+     */
+    synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * Replaces the index contents with a full table load
+     * Ignored if a write happened since readVersion was taken, as the rows may already be stale
+     *
+     * @param links Supplier IDs by item ID, for every row of supplier_items
+     * @param readVersion getVersion() taken before the rows were read
+     */
+    synchronized void loadAll(Map<Integer, Set<Integer>> links, long readVersion) {
+        if (readVersion != version) {
+            return;
+        }
+        suppliersByItem.clear();
+        suppliersByItem.putAll(links);
+        complete = true;
+    }
+
+    /**
+     * Records committed links
+     *
+     * @param supplierId The supplier ID
+     * @param itemIds The linked item IDs
+     */
+    synchronized void link(int supplierId, Collection<Integer> itemIds) {
+        version++;
+        if (!complete) {
+            return;
+        }
+        for (Integer itemId : itemIds) {
+            suppliersByItem.computeIfAbsent(itemId, id -> new HashSet<>()).add(supplierId);
+        }
+    }
+
+    /**
+     * Records committed unlinks
+     *
+     * @param supplierId The supplier ID
+     * @param itemIds The unlinked item IDs
+     */
+    synchronized void unlink(int supplierId, Collection<Integer> itemIds) {
+        version++;
+        for (Integer itemId : itemIds) {
+            Set<Integer> supplierIds = suppliersByItem.get(itemId);
+            if (supplierIds != null) {
+                supplierIds.remove(supplierId);
+                if (supplierIds.isEmpty()) {
+                    suppliersByItem.remove(itemId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops every link of a deleted supplier
+     *
+     * @param supplierId The deleted supplier's ID
+     */
+    synchronized void removeSupplier(int supplierId) {
+        version++;
+        Iterator<Set<Integer>> it = suppliersByItem.values().iterator();
+        while (it.hasNext()) {
+            Set<Integer> supplierIds = it.next();
+            supplierIds.remove(supplierId);
+            if (supplierIds.isEmpty()) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Drops every link of a deleted item
+     *
+     * @param itemId The deleted item's ID
+     */
+    synchronized void removeItem(int itemId) {
+        version++;
+        suppliersByItem.remove(itemId);
+    }
+}
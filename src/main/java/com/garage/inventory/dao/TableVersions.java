@@ -0,0 +1,50 @@
+package com.garage.inventory.dao;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * TableVersions keeps a change counter per database table
+ * Every DAO write path bumps the counters of the tables it changed once the change is committed
+ * and the ItemCatalog updated, including tables changed indirectly through ON DELETE CASCADE /
+ * SET NULL foreign keys, so a reader that sees the new counter also sees the new data
+ * Screens remember the counters they last rendered and skip reloading while they are unchanged
+ *
+ * Only changes made through this process are counted; changes made by other clients of a
+ * shared MySQL database are not seen until a screen is refreshed explicitly
+ */
+public class TableVersions {
+
+    /**
+     * The tracked tables
+     * DEBTS covers both debt_transactions and debt_payments
+     */
+    public enum Table {
+        ITEMS, CUSTOMERS, SUPPLIERS, SUPPLIER_ITEMS, SALES, PURCHASES, DEBTS
+    }
+
+    private static final AtomicLongArray versions = new AtomicLongArray(Table.values().length);
+
+    private TableVersions() {
+    }
+
+    /**
+     * Records that tables were changed
+     *
+     * @param tables The tables whose rows were inserted, updated or deleted
+     */
+    public static void bump(Table... tables) {
+        for (Table table : tables) {
+            versions.incrementAndGet(table.ordinal());
+        }
+    }
+
+    /**
+     * Gets the change counter of a table
+     *
+     * @param table The table
+     * @return A number that changes whenever the table is changed
+     */
+    public static long get(Table table) {
+        return versions.get(table.ordinal());
+    }
+}
@@ -0,0 +1,174 @@
+package com.garage.inventory.dao;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * TokenPrefixIndex finds keys by the start of any of the tokens they were indexed under
+ * Tokens are kept in a sorted map, so all tokens starting with a prefix are one range lookup
+ * Keys are added and removed one at a time; the tokens each key was indexed under are
+ * remembered, so a key can be removed or replaced without a scan
+ *
+ * Used by ItemSearchIndex and CustomerIndex; not thread safe, the owner guards it with its own lock
+ *
+ * @param <K> Type of the indexed keys, e.g. an item or customer ID
+ */
+class TokenPrefixIndex<K> {
+    private final TreeMap<String, Set<K>> keysByToken = new TreeMap<>();
+    // The tokens each key was indexed under, so it can be removed after it changed
+    private final Map<K, String[]> tokensByKey = new HashMap<>();
+
+    /**
+     * Indexes a key, replacing what was indexed for it before
+     *
+     * @param key The key
+     * @param tokens The tokens to find it by; duplicates are indexed once
+     */
+    void add(K key, Collection<String> tokens) {
+        remove(key);
+        String[] indexed = new LinkedHashSet<>(tokens).toArray(new String[0]);
+        tokensByKey.put(key, indexed);
+        for (String token : indexed) {
+            keysByToken.computeIfAbsent(token, t -> new HashSet<>()).add(key);
+        }
+    }
+
+    /**
+     * Removes a key from the index
+     *
+     * @param key The key
+     */
+    void remove(K key) {
+        String[] indexed = tokensByKey.remove(key);
+        if (indexed == null) {
+            return;
+        }
+        for (String token : indexed) {
+            Set<K> keys = keysByToken.get(token);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    keysByToken.remove(token);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes every key
+     */
+    void clear() {
+        keysByToken.clear();
+        tokensByKey.clear();
+    }
+
+    /**
+     * Gets the keys indexed under exactly one token
+     *
+     * @param token The token
+     * @return The keys, or null if none; not to be modified
+     */
+    Set<K> get(String token) {
+        return keysByToken.get(token);
+    }
+
+    /**
+     * Gets the keys indexed under any token starting with a prefix, in token order
+     *
+     * @param prefix The prefix
+     * @return One set of keys per matching token; a key can be in several; not to be modified
+     */
+    Collection<Set<K>> withPrefix(String prefix) {
+        return keysByToken.subMap(prefix, prefix + Character.MAX_VALUE).values();
+    }
+
+    /**
+     * Finds the keys that have a token starting with every one of the words
+     * The longest word drives the search, as it has the fewest matching tokens; the other words
+     * are checked against each candidate's own tokens
+     *
+     * @param words Lower case words, as returned by tokenize()
+     * @param maxMatches Stop once this many keys are in matches; keeps short prefixes like "a" cheap
+     * @param matches Receives the matching keys, in token order after what it already holds
+     */
+    void findAll(List<String> words, int maxMatches, Set<K> matches) {
+        if (words.isEmpty()) {
+            return;
+        }
+        String driver = words.get(0);
+        for (String word : words) {
+            if (word.length() > driver.length()) {
+                driver = word;
+            }
+        }
+
+        for (Set<K> keys : withPrefix(driver)) {
+            for (K key : keys) {
+                if (matches.size() >= maxMatches) {
+                    return;
+                }
+                if (matchesAll(key, words)) {
+                    matches.add(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that a key has a token starting with every one of the words
+     *
+     * @param key The key
+     * @param words Lower case words, as returned by tokenize()
+     * @return true if every word matches, false otherwise or if the key is not indexed
+     */
+    boolean matchesAll(K key, List<String> words) {
+        String[] indexed = tokensByKey.get(key);
+        if (indexed == null) {
+            return false;
+        }
+        for (String word : words) {
+            boolean found = false;
+            for (String token : indexed) {
+                if (token.startsWith(word)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Splits text into lower case runs of letters and digits
+     *
+     * @param text The text, may be null
+     * @return The tokens in order; empty if there are none
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+            } else if (token.length() > 0) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,371 @@
+package com.garage.inventory.database;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ConnectionPool keeps a bounded set of physical JDBC connections open and lends them out
+ * Connections handed to callers are proxies: closing them returns the physical connection
+ * to the pool instead of tearing down the TCP session and re-authenticating
+ */
+public class ConnectionPool {
+    // Idle connections above minIdle are closed after this long without use
+    private static final long IDLE_EVICTION_MILLIS = 5 * 60 * 1000L;
+
+    private final DatabaseBackend backend;
+    private final int minIdle;
+    private final int maxIdle;
+    private final int maxTotal;
+    private final long borrowTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final boolean captureLeakTrace;
+    private final int validationTimeoutSeconds;
+    private final int statementCacheSize;
+
+    // Idle physical connections, most recently returned first
+    private final Deque<PoolEntry> idle = new ArrayDeque<>();
+    // Connections currently lent out, keyed by the proxy handed to the caller
+    private final Map<PooledConnection, PoolEntry> leased = new ConcurrentHashMap<>();
+    // One permit per connection that may be leased at the same time
+    private final Semaphore permits;
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean shutdown = false;
+
+    // Statistics
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong destroyed = new AtomicLong();
+    private final AtomicLong borrowed = new AtomicLong();
+    private final AtomicLong returned = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong borrowTimeouts = new AtomicLong();
+    private final AtomicLong leaksDetected = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final StatementCache.Counters statementCounters = new StatementCache.Counters();
+
+    /**
+     * Creates a pool and opens the minimum number of idle connections
+     *
+     * @param backend Database engine to connect to; its driver is loaded once for the pool
+     * @param minIdle Connections kept open even when nobody is using them
+     * @param maxIdle Idle connections above this number are closed when returned
+     * @param maxTotal Hard upper bound on open connections
+     * @param borrowTimeoutMillis How long a caller waits for a free connection
+     * @param leakThresholdMillis A connection held longer than this is reported as a leak
+     * @param captureLeakTrace Record the borrower's stack trace so a leak report shows where the
+     *                         connection was taken; costs a stack walk on every borrow
+     * @param statementCacheSize Prepared statements cached per connection (0 disables caching)
+     * @throws SQLException if the driver cannot be loaded
+     */
+    public ConnectionPool(DatabaseBackend backend, int minIdle, int maxIdle, int maxTotal,
+                          long borrowTimeoutMillis, long leakThresholdMillis, boolean captureLeakTrace,
+                          int statementCacheSize) throws SQLException {
+        if (maxTotal < 1 || minIdle < 0 || maxIdle < minIdle || maxTotal < maxIdle) {
+            throw new IllegalArgumentException("Invalid pool bounds: minIdle=" + minIdle +
+                    ", maxIdle=" + maxIdle + ", maxTotal=" + maxTotal);
+        }
+        try {
+            Class.forName(backend.getDriverClassName());
+        } catch (ClassNotFoundException e) {
+            System.err.println("JDBC Driver not found: " + backend.getDriverClassName());
+            throw new SQLException("JDBC Driver not found: " + backend.getDriverClassName(), e);
+        }
+
+        this.backend = backend;
+        this.minIdle = minIdle;
+        this.maxIdle = maxIdle;
+        this.maxTotal = maxTotal;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.captureLeakTrace = captureLeakTrace;
+        this.validationTimeoutSeconds = 2;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxTotal, true);
+
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 30, 30, TimeUnit.SECONDS);
+
+        fillToMinIdle();
+    }
+
+    /**
+     * Borrows a connection from the pool
+     * The returned connection must be closed by the caller, which gives it back to the pool
+     *
+     * @return A validated connection
+     * @throws SQLException if no connection becomes available in time or the database is unreachable
+     */
+    public Connection borrow() throws SQLException {
+        if (shutdown) {
+            throw new SQLException("Connection pool has been shut down");
+        }
+
+        long waitStart = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                borrowTimeouts.incrementAndGet();
+                throw new SQLException("Timed out after " + borrowTimeoutMillis +
+                        " ms waiting for a database connection (" + maxTotal + " in use)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        totalWaitNanos.addAndGet(System.nanoTime() - waitStart);
+
+        PoolEntry entry;
+        try {
+            entry = takeValidIdleEntry();
+            if (entry == null) {
+                entry = createEntry();
+            }
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+
+        PooledConnection handler = new PooledConnection(this, entry.physical, entry.statementCache, backend.getDialect());
+        entry.leakReported = false;
+        entry.leasedBy = Thread.currentThread().getName();
+        entry.leasedTrace = captureLeakTrace
+                ? new Exception("Connection borrowed by thread " + entry.leasedBy) : null;
+        entry.leasedAt = System.currentTimeMillis();
+        leased.put(handler, entry);
+        borrowed.incrementAndGet();
+
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                handler);
+    }
+
+    /**
+     * Called by a pooled connection proxy when the caller closes it
+     * Resets transaction state and puts the physical connection back on the idle list
+     */
+    void release(PooledConnection handler) {
+        PoolEntry entry = leased.remove(handler);
+        if (entry == null) {
+            return; // Already released
+        }
+        returned.incrementAndGet();
+
+        try {
+            boolean keep = !shutdown && !entry.physical.isClosed();
+            if (keep) {
+                // Never hand an open transaction to the next borrower
+                if (!entry.physical.getAutoCommit()) {
+                    entry.physical.rollback();
+                    entry.physical.setAutoCommit(true);
+                }
+                entry.physical.clearWarnings();
+                if (entry.statementCache != null) {
+                    entry.statementCache.afterRelease();
+                }
+            }
+
+            synchronized (idle) {
+                if (keep && idle.size() < maxIdle) {
+                    entry.lastReturnedAt = System.currentTimeMillis();
+                    idle.addFirst(entry);
+                    entry = null;
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error resetting pooled connection, discarding it: " + e.getMessage());
+        } finally {
+            if (entry != null) {
+                destroy(entry);
+            }
+            permits.release();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the pool statistics
+     *
+     * @return Current pool statistics
+     */
+    public PoolStats getStats() {
+        int idleCount;
+        synchronized (idle) {
+            idleCount = idle.size();
+        }
+        return new PoolStats(
+                idleCount,
+                leased.size(),
+                maxTotal,
+                created.get(),
+                destroyed.get(),
+                borrowed.get(),
+                returned.get(),
+                validationFailures.get(),
+                borrowTimeouts.get(),
+                leaksDetected.get(),
+                TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get()),
+                statementCounters.hits.get(),
+                statementCounters.misses.get(),
+                statementCounters.evictions.get());
+    }
+
+    /**
+     * Closes all idle connections and rejects further borrows
+     * Connections still leased are closed as soon as they are returned
+     */
+    public void shutdown() {
+        shutdown = true;
+        housekeeper.shutdownNow();
+
+        List<PoolEntry> toClose;
+        synchronized (idle) {
+            toClose = new ArrayList<>(idle);
+            idle.clear();
+        }
+        for (PoolEntry entry : toClose) {
+            destroy(entry);
+        }
+        if (!leased.isEmpty()) {
+            System.err.println("Connection pool shut down with " + leased.size() + " connection(s) still in use");
+        }
+    }
+
+    /**
+     * Takes idle connections until one passes validation
+     *
+     * @return A valid idle entry, or null if the idle list is empty
+     */
+    private PoolEntry takeValidIdleEntry() {
+        while (true) {
+            PoolEntry entry;
+            synchronized (idle) {
+                entry = idle.pollFirst();
+            }
+            if (entry == null) {
+                return null;
+            }
+            if (isValid(entry)) {
+                return entry;
+            }
+            validationFailures.incrementAndGet();
+            destroy(entry);
+        }
+    }
+
+    private boolean isValid(PoolEntry entry) {
+        try {
+            return !entry.physical.isClosed() && entry.physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PoolEntry createEntry() throws SQLException {
+        Connection physical = DriverManager.getConnection(
+                backend.getUrl(), backend.getUsername(), backend.getPassword());
+        created.incrementAndGet();
+        StatementCache cache = statementCacheSize > 0
+                ? new StatementCache(physical, statementCacheSize, statementCounters)
+                : null;
+        return new PoolEntry(physical, cache);
+    }
+
+    private void destroy(PoolEntry entry) {
+        try {
+            entry.physical.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing pooled connection: " + e.getMessage());
+        }
+        destroyed.incrementAndGet();
+    }
+
+    /**
+     * Opens connections until the idle list holds at least minIdle entries
+     * Never grows the pool beyond maxTotal open connections
+     */
+    private void fillToMinIdle() {
+        while (!shutdown) {
+            synchronized (idle) {
+                if (idle.size() >= minIdle || idle.size() + leased.size() >= maxTotal) {
+                    return;
+                }
+            }
+            try {
+                PoolEntry entry = createEntry();
+                entry.lastReturnedAt = System.currentTimeMillis();
+                synchronized (idle) {
+                    idle.addLast(entry);
+                }
+            } catch (SQLException e) {
+                System.err.println("Error opening idle pooled connection: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Periodic maintenance: reports leaked connections, closes connections that sat idle
+     * too long above the minimum, and restores the minimum idle count
+     */
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+        List<PoolEntry> expired = new ArrayList<>();
+        synchronized (idle) {
+            // Oldest idle entries are at the tail
+            while (idle.size() > minIdle && now - idle.peekLast().lastReturnedAt > IDLE_EVICTION_MILLIS) {
+                expired.add(idle.pollLast());
+            }
+        }
+        for (PoolEntry entry : expired) {
+            destroy(entry);
+        }
+
+        for (PoolEntry entry : leased.values()) {
+            if (!entry.leakReported && now - entry.leasedAt > leakThresholdMillis) {
+                entry.leakReported = true;
+                leaksDetected.incrementAndGet();
+                System.err.println("Possible connection leak: connection held for " +
+                        (now - entry.leasedAt) + " ms by thread " + entry.leasedBy);
+                Exception trace = entry.leasedTrace;
+                if (trace != null) {
+                    trace.printStackTrace();
+                }
+            }
+        }
+        fillToMinIdle();
+    }
+
+    /**
+     * A physical connection together with its statement cache and pool bookkeeping
+     * The lease fields are written by the borrowing thread and read by the housekeeper, so they are volatile
+     */
+    private static class PoolEntry {
+        final Connection physical;
+        final StatementCache statementCache;
+        long lastReturnedAt;
+        volatile long leasedAt;
+        volatile String leasedBy;
+        volatile Exception leasedTrace;
+        volatile boolean leakReported;
+
+        PoolEntry(Connection physical, StatementCache statementCache) {
+            this.physical = physical;
+            this.statementCache = statementCache;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.garage.inventory.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * DatabaseBackend describes one database engine the application can run on
+ * The backend is chosen at startup by DatabaseConfig; all DAOs run the same SQL on every backend,
+ * with engine differences handled by the backend's SqlDialect
+ */
+public interface DatabaseBackend {
+
+    /**
+     * @return Short name used in configuration and log messages
+     */
+    String getName();
+
+    String getDriverClassName();
+
+    String getUrl();
+
+    String getUsername();
+
+    String getPassword();
+
+    SqlDialect getDialect();
+
+    /**
+     * Prepares the database for use, for example by creating missing tables
+     * Called once with the first pooled connection
+     *
+     * @param conn A connection to the database
+     * @throws SQLException if the schema cannot be prepared
+     */
+    void initialize(Connection conn) throws SQLException;
+}
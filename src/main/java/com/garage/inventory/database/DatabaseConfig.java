@@ -0,0 +1,91 @@
+package com.garage.inventory.database;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * DatabaseConfig decides which database backend the application runs on
+ * Settings are read from garage.properties in the working directory, and any
+ * -Dgarage.db.* system property overrides the file:
+ *
+ *   garage.db.backend       mysql (default) or embedded
+ *   garage.db.url           MySQL JDBC URL
+ *   garage.db.username      MySQL user
+ *   garage.db.password      MySQL password
+ *   garage.db.embedded.path Embedded database file, default ./data/garage_inventory
+ *   garage.db.pool.leak.trace true to record where each connection was borrowed, so leak
+ *                           reports show the stack trace (off by default, as it costs every borrow)
+ *
+ * Other garage.* settings are read through get() by the classes they belong to
+ */
+public class DatabaseConfig {
+    private static final String CONFIG_FILE = "garage.properties";
+
+    private static final String DEFAULT_MYSQL_URL = "jdbc:mysql://localhost:3306/garage_inventory?useServerPrepStmts=true&rewriteBatchedStatements=true";
+    private static final String DEFAULT_MYSQL_USERNAME = "root";
+    private static final String DEFAULT_MYSQL_PASSWORD = "root";
+    private static final String DEFAULT_EMBEDDED_PATH = "./data/garage_inventory";
+
+    private final Properties properties;
+
+    private DatabaseConfig(Properties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Loads the configuration from garage.properties and system properties
+     *
+     * @return The effective configuration
+     */
+    public static DatabaseConfig load() {
+        Properties props = new Properties();
+        File file = new File(CONFIG_FILE);
+        if (file.isFile()) {
+            try (InputStream in = new FileInputStream(file)) {
+                props.load(in);
+            } catch (IOException e) {
+                System.err.println("Error reading " + CONFIG_FILE + ": " + e.getMessage());
+            }
+        }
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("garage.")) {
+                props.setProperty(name, System.getProperty(name));
+            }
+        }
+        return new DatabaseConfig(props);
+    }
+
+    /**
+     * Gets a setting as a string
+     *
+     * @param key Property name
+     * @param defaultValue Value used when the property is not set
+     * @return The configured value or the default
+     */
+    public String get(String key, String defaultValue) {
+        String value = properties.getProperty(key);
+        return value != null && !value.trim().isEmpty() ? value.trim() : defaultValue;
+    }
+
+    /**
+     * Creates the configured database backend
+     *
+     * @return The backend selected by garage.db.backend
+     */
+    public DatabaseBackend createBackend() {
+        String backend = get("garage.db.backend", "mysql");
+        if ("embedded".equalsIgnoreCase(backend)) {
+            return new EmbeddedBackend(get("garage.db.embedded.path", DEFAULT_EMBEDDED_PATH));
+        }
+        if (!"mysql".equalsIgnoreCase(backend)) {
+            System.err.println("Unknown database backend '" + backend + "', using mysql");
+        }
+        return new MySqlBackend(
+                get("garage.db.url", DEFAULT_MYSQL_URL),
+                get("garage.db.username", DEFAULT_MYSQL_USERNAME),
+                get("garage.db.password", DEFAULT_MYSQL_PASSWORD));
+    }
+}
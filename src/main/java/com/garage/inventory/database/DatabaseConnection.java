@@ -1,63 +1,103 @@
 package com.garage.inventory.database;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 /**
- * DatabaseConnection class manages the connection to MySQL database
- * This class provides a singleton connection instance to ensure efficient database usage
+ * DatabaseConnection class manages access to the database
+ * The backend (MySQL server or embedded file database) is chosen by DatabaseConfig at startup
+ * Connections are lent out from a shared ConnectionPool; closing a connection
+ * (for example in try-with-resources) returns it to the pool instead of disconnecting
  */
 public class DatabaseConnection {
-    // Database connection parameters
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/garage_inventory";
-    private static final String DB_USERNAME = "root";
-    private static final String DB_PASSWORD = "root";
-    
-    private static Connection connection = null;
-    
+    // Pool parameters
+    private static final int POOL_MIN_IDLE = 2;
+    private static final int POOL_MAX_IDLE = 5;
+    private static final int POOL_MAX_TOTAL = 10;
+    private static final long POOL_BORROW_TIMEOUT_MILLIS = 10000;
+    private static final long POOL_LEAK_THRESHOLD_MILLIS = 60000;
+    private static final int STATEMENT_CACHE_SIZE = 64;
+
+    private static ConnectionPool pool = null;
+    private static DatabaseBackend backend = null;
+
     /**
      * Private constructor to prevent instantiation (Singleton pattern)
      */
     private DatabaseConnection() {
     }
-    
+
     /**
-     * Gets a database connection instance
-     * If connection doesn't exist or is closed, creates a new one
-     * 
+     * Borrows a database connection from the pool
+     * Creates the pool on first use; the caller must close the connection to return it
+     *
      * @return Connection object to the database
      * @throws SQLException if database connection fails
      */
     public static Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            try {
-                // Load MySQL JDBC driver
-                Class.forName("com.mysql.cj.jdbc.Driver");
-                // Create connection to database
-                connection = DriverManager.getConnection(DB_URL, DB_USERNAME, DB_PASSWORD);
-                System.out.println("Database connection established successfully!");
-            } catch (ClassNotFoundException e) {
-                System.err.println("MySQL JDBC Driver not found!");
-                throw new SQLException("MySQL JDBC Driver not found!", e);
+        return getPool().borrow();
+    }
+
+    /**
+     * Gets current connection pool statistics
+     *
+     * @return Pool statistics, or null if the pool has not been started yet
+     */
+    public static synchronized PoolStats getPoolStats() {
+        return pool != null ? pool.getStats() : null;
+    }
+
+    /**
+     * Gets the SQL dialect of the configured backend
+     * DAOs use it for the few statements that cannot be written portably
+     *
+     * @return The active SQL dialect
+     */
+    public static synchronized SqlDialect getDialect() {
+        return getBackend().getDialect();
+    }
+
+    private static DatabaseBackend getBackend() {
+        if (backend == null) {
+            backend = DatabaseConfig.load().createBackend();
+        }
+        return backend;
+    }
+
+    /**
+     * Gets the shared pool, starting it and preparing the schema if needed
+     */
+    private static synchronized ConnectionPool getPool() throws SQLException {
+        if (pool == null) {
+            DatabaseBackend selected = getBackend();
+            ConnectionPool created = new ConnectionPool(selected,
+                    POOL_MIN_IDLE, POOL_MAX_IDLE, POOL_MAX_TOTAL,
+                    POOL_BORROW_TIMEOUT_MILLIS, POOL_LEAK_THRESHOLD_MILLIS,
+                    Boolean.parseBoolean(DatabaseConfig.load().get("garage.db.pool.leak.trace", "false")),
+                    STATEMENT_CACHE_SIZE);
+            try (Connection conn = created.borrow()) {
+                selected.initialize(conn);
+            } catch (SQLException e) {
+                created.shutdown();
+                throw e;
             }
+            pool = created;
+            System.out.println("Database connection pool started successfully! (backend: " +
+                    selected.getName() + ")");
         }
-        return connection;
+        return pool;
     }
-    
+
     /**
-     * Closes the database connection
+     * Shuts down the connection pool and closes all idle connections
      * Should be called when application exits
      */
-    public static void closeConnection() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                System.out.println("Database connection closed.");
-            }
-        } catch (SQLException e) {
-            System.err.println("Error closing database connection: " + e.getMessage());
+    public static synchronized void closeConnection() {
+        if (pool != null) {
+            System.out.println("Closing database connection pool. " + pool.getStats());
+            pool.shutdown();
+            pool = null;
+            System.out.println("Database connection closed.");
         }
     }
 }
-
@@ -0,0 +1,60 @@
+package com.garage.inventory.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * EmbeddedBackend runs the database in-process as a file-backed H2 database
+ * Used on satellite counters and test rigs without a MySQL server; the schema the DAOs
+ * expect is created on first start, so cold start only costs opening the database file
+ */
+public class EmbeddedBackend implements DatabaseBackend {
+    private static final String SCHEMA_RESOURCE = "/schema/embedded-schema.sql";
+    private static final String ROLLUP_SCHEMA_RESOURCE = "/schema/rollup-schema.sql";
+
+    private final String path;
+
+    /**
+     * @param path Database file path without extension, e.g. ./data/garage_inventory
+     */
+    public EmbeddedBackend(String path) {
+        this.path = path;
+    }
+
+    @Override
+    public String getName() {
+        return "embedded";
+    }
+
+    @Override
+    public String getDriverClassName() {
+        return "org.h2.Driver";
+    }
+
+    @Override
+    public String getUrl() {
+        // MySQL mode keeps the DAO SQL (AUTO_INCREMENT, ON DUPLICATE KEY, LIMIT) working unchanged
+        return "jdbc:h2:file:" + path + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH";
+    }
+
+    @Override
+    public String getUsername() {
+        return "sa";
+    }
+
+    @Override
+    public String getPassword() {
+        return "";
+    }
+
+    @Override
+    public SqlDialect getDialect() {
+        return SqlDialect.H2;
+    }
+
+    @Override
+    public void initialize(Connection conn) throws SQLException {
+        SchemaScript.run(conn, SCHEMA_RESOURCE);
+        SchemaScript.run(conn, ROLLUP_SCHEMA_RESOURCE);
+    }
+}
@@ -0,0 +1,61 @@
+package com.garage.inventory.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * MySqlBackend connects to a MySQL server holding the garage_inventory schema
+ * The schema is managed on the server; only the sales and purchase rollup tables and the
+ * history pagination indexes are created at startup if they are missing, and RollupDAO
+ * backfills the rollups from the existing history
+ */
+public class MySqlBackend implements DatabaseBackend {
+    private static final String ROLLUP_SCHEMA_RESOURCE = "/schema/rollup-schema.sql";
+    private static final String INDEX_SCHEMA_RESOURCE = "/schema/mysql-index-schema.sql";
+
+    private final String url;
+    private final String username;
+    private final String password;
+
+    public MySqlBackend(String url, String username, String password) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    @Override
+    public String getName() {
+        return "mysql";
+    }
+
+    @Override
+    public String getDriverClassName() {
+        return "com.mysql.cj.jdbc.Driver";
+    }
+
+    @Override
+    public String getUrl() {
+        return url;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public SqlDialect getDialect() {
+        return SqlDialect.MYSQL;
+    }
+
+    @Override
+    public void initialize(Connection conn) throws SQLException {
+        SchemaScript.run(conn, ROLLUP_SCHEMA_RESOURCE);
+        SchemaScript.run(conn, INDEX_SCHEMA_RESOURCE);
+    }
+}
@@ -0,0 +1,120 @@
+package com.garage.inventory.database;
+
+/**
+ * PoolStats is a point-in-time snapshot of connection pool counters
+ * Used to check how often the application actually opens new database connections
+ */
+public class PoolStats {
+    private final int idleConnections;
+    private final int activeConnections;
+    private final int maxConnections;
+    private final long connectionsCreated;
+    private final long connectionsDestroyed;
+    private final long borrowCount;
+    private final long returnCount;
+    private final long validationFailures;
+    private final long borrowTimeouts;
+    private final long leaksDetected;
+    private final long totalWaitMillis;
+    private final long statementCacheHits;
+    private final long statementCacheMisses;
+    private final long statementCacheEvictions;
+
+    public PoolStats(int idleConnections, int activeConnections, int maxConnections,
+                     long connectionsCreated, long connectionsDestroyed, long borrowCount,
+                     long returnCount, long validationFailures, long borrowTimeouts,
+                     long leaksDetected, long totalWaitMillis, long statementCacheHits,
+                     long statementCacheMisses, long statementCacheEvictions) {
+        this.idleConnections = idleConnections;
+        this.activeConnections = activeConnections;
+        this.maxConnections = maxConnections;
+        this.connectionsCreated = connectionsCreated;
+        this.connectionsDestroyed = connectionsDestroyed;
+        this.borrowCount = borrowCount;
+        this.returnCount = returnCount;
+        this.validationFailures = validationFailures;
+        this.borrowTimeouts = borrowTimeouts;
+        this.leaksDetected = leaksDetected;
+        this.totalWaitMillis = totalWaitMillis;
+        this.statementCacheHits = statementCacheHits;
+        this.statementCacheMisses = statementCacheMisses;
+        this.statementCacheEvictions = statementCacheEvictions;
+    }
+
+    public int getIdleConnections() {
+        return idleConnections;
+    }
+
+    public int getActiveConnections() {
+        return activeConnections;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public long getConnectionsCreated() {
+        return connectionsCreated;
+    }
+
+    public long getConnectionsDestroyed() {
+        return connectionsDestroyed;
+    }
+
+    public long getBorrowCount() {
+        return borrowCount;
+    }
+
+    public long getReturnCount() {
+        return returnCount;
+    }
+
+    public long getValidationFailures() {
+        return validationFailures;
+    }
+
+    public long getBorrowTimeouts() {
+        return borrowTimeouts;
+    }
+
+    public long getLeaksDetected() {
+        return leaksDetected;
+    }
+
+    public long getTotalWaitMillis() {
+        return totalWaitMillis;
+    }
+
+    public long getStatementCacheHits() {
+        return statementCacheHits;
+    }
+
+    public long getStatementCacheMisses() {
+        return statementCacheMisses;
+    }
+
+    public long getStatementCacheEvictions() {
+        return statementCacheEvictions;
+    }
+
+    /**
+     * Fraction of prepareStatement calls served from the statement cache
+     *
+     * @return Hit ratio between 0 and 1
+     */
+    public double getStatementCacheHitRatio() {
+        long lookups = statementCacheHits + statementCacheMisses;
+        return lookups == 0 ? 0.0 : (double) statementCacheHits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "Pool[idle=" + idleConnections + ", active=" + activeConnections + "/" + maxConnections +
+                ", created=" + connectionsCreated + ", destroyed=" + connectionsDestroyed +
+                ", borrowed=" + borrowCount + ", returned=" + returnCount +
+                ", validationFailures=" + validationFailures + ", timeouts=" + borrowTimeouts +
+                ", leaks=" + leaksDetected + ", waitMs=" + totalWaitMillis +
+                ", stmtCache[hits=" + statementCacheHits + ", misses=" + statementCacheMisses +
+                ", evictions=" + statementCacheEvictions + "]]";
+    }
+}
@@ -0,0 +1,78 @@
+package com.garage.inventory.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * PooledConnection is the invocation handler behind the Connection proxies lent out by ConnectionPool
+ * Every call is forwarded to the physical connection, except close() which hands it back to the pool
+ * and prepareStatement(), whose SQL is passed through the backend's SqlDialect and
+ * served from the connection's StatementCache
+ */
+class PooledConnection implements InvocationHandler {
+    private final ConnectionPool pool;
+    private final Connection physical;
+    private final StatementCache statementCache;
+    private final SqlDialect dialect;
+    private volatile boolean closed = false;
+
+    PooledConnection(ConnectionPool pool, Connection physical, StatementCache statementCache, SqlDialect dialect) {
+        this.pool = pool;
+        this.physical = physical;
+        this.statementCache = statementCache;
+        this.dialect = dialect;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+
+        switch (name) {
+            case "close":
+                if (!closed) {
+                    closed = true;
+                    pool.release(this);
+                }
+                return null;
+            case "isClosed":
+                return closed || physical.isClosed();
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "PooledConnection[" + physical + (closed ? ", returned" : "") + "]";
+            default:
+                break;
+        }
+
+        if (closed) {
+            throw new SQLException("Connection has already been returned to the pool");
+        }
+
+        if ("prepareStatement".equals(name)) {
+            args[0] = dialect.translate((String) args[0]);
+
+            // prepareStatement(String) and prepareStatement(String, int autoGeneratedKeys) are cached;
+            // variants with result set type/concurrency or key columns go straight to the driver
+            if (statementCache != null) {
+                Class<?>[] types = method.getParameterTypes();
+                if (types.length == 1) {
+                    return statementCache.prepare((Connection) proxy, (String) args[0], null);
+                }
+                if (types.length == 2 && types[1] == int.class) {
+                    return statementCache.prepare((Connection) proxy, (String) args[0], (Integer) args[1]);
+                }
+            }
+        }
+
+        try {
+            return method.invoke(physical, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
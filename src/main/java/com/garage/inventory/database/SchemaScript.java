@@ -0,0 +1,55 @@
+package com.garage.inventory.database;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * SchemaScript runs a bundled SQL script against a connection
+ * Statements are separated by a semicolon at the end of a line; lines starting with -- are comments
+ */
+public class SchemaScript {
+
+    private SchemaScript() {
+    }
+
+    /**
+     * Runs every statement of a classpath SQL script in order
+     *
+     * @param conn Connection to run the script on
+     * @param resource Classpath location of the script
+     * @throws SQLException if the script is missing or a statement fails
+     */
+    public static void run(Connection conn, String resource) throws SQLException {
+        InputStream in = SchemaScript.class.getResourceAsStream(resource);
+        if (in == null) {
+            throw new SQLException("Schema script not found: " + resource);
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+             Statement stmt = conn.createStatement()) {
+
+            StringBuilder current = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                    continue;
+                }
+                current.append(line).append('\n');
+                if (trimmed.endsWith(";")) {
+                    String sql = current.toString().trim();
+                    stmt.execute(sql.substring(0, sql.length() - 1));
+                    current.setLength(0);
+                }
+            }
+        } catch (IOException e) {
+            throw new SQLException("Error reading schema script " + resource, e);
+        }
+    }
+}
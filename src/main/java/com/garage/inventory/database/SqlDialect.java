@@ -0,0 +1,45 @@
+package com.garage.inventory.database;
+
+/**
+ * SqlDialect adapts the MySQL-flavoured SQL used by the DAOs to a specific database engine
+ * The DAOs are written against MySQL; other backends rewrite the few MySQL-isms they do not accept
+ */
+public enum SqlDialect {
+    /**
+     * MySQL: the DAO SQL is native
+     */
+    MYSQL,
+
+    /**
+     * H2 running in MySQL compatibility mode
+     * H2 accepts ON DUPLICATE KEY UPDATE in that mode; date functions still need rewriting
+     */
+    H2;
+
+    /**
+     * Rewrites a DAO statement so this engine accepts it
+     * Called for every statement prepared on a pooled connection, so it must be cheap
+     *
+     * @param sql The SQL as written in the DAO
+     * @return SQL that runs on this engine
+     */
+    public String translate(String sql) {
+        if (this == H2 && sql.contains("CURDATE()")) {
+            return sql.replace("CURDATE()", "CURRENT_DATE");
+        }
+        return sql;
+    }
+
+    /**
+     * Gets the fetch size that makes a forward-only, read-only query stream its rows
+     * MySQL Connector/J reads the whole result into memory for any other value unless the URL sets
+     * useCursorFetch, and streams it one row at a time for Integer.MIN_VALUE; H2 fetches
+     * the given number of rows at a time and spools larger results to disk
+     *
+     * @param rows Rows to fetch per round trip where the engine supports batches
+     * @return The value to pass to Statement.setFetchSize()
+     */
+    public int streamingFetchSize(int rows) {
+        return this == MYSQL ? Integer.MIN_VALUE : rows;
+    }
+}
@@ -0,0 +1,225 @@
+package com.garage.inventory.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * StatementCache keeps prepared statements of one physical connection open between borrows
+ * Statements are keyed by SQL text and evicted least-recently-used first
+ * Closing a cached statement only clears its parameters so the next prepare of the same SQL
+ * skips the parse/prepare round trip
+ */
+class StatementCache {
+    // Statement-level settings that would leak into the next user of a cached statement
+    private static final Set<String> STATEMENT_SETTERS = new HashSet<>(Arrays.asList(
+            "setMaxRows", "setLargeMaxRows", "setFetchSize", "setFetchDirection", "setQueryTimeout",
+            "setMaxFieldSize", "setEscapeProcessing", "setPoolable", "setCursorName"));
+
+    private final Connection physical;
+    private final int maxSize;
+    private final Counters counters;
+    private final LinkedHashMap<String, Entry> entries;
+
+    StatementCache(Connection physical, int maxSize, Counters counters) {
+        this.physical = physical;
+        this.maxSize = maxSize;
+        this.counters = counters;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= StatementCache.this.maxSize) {
+                    return false;
+                }
+                evict(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Returns a prepared statement for the SQL, reusing a cached one when it is free
+     *
+     * @param connectionProxy The pooled connection proxy reported by Statement.getConnection()
+     * @param sql The SQL text
+     * @param autoGeneratedKeys Statement.RETURN_GENERATED_KEYS / NO_GENERATED_KEYS, or null if not given
+     * @return A statement proxy whose close() returns it to the cache
+     * @throws SQLException if the statement cannot be prepared
+     */
+    PreparedStatement prepare(Connection connectionProxy, String sql, Integer autoGeneratedKeys) throws SQLException {
+        String key = autoGeneratedKeys == null ? sql : autoGeneratedKeys + ":" + sql;
+
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.inUse) {
+            counters.hits.incrementAndGet();
+        } else {
+            counters.misses.incrementAndGet();
+            PreparedStatement stmt = autoGeneratedKeys == null
+                    ? physical.prepareStatement(sql)
+                    : physical.prepareStatement(sql, autoGeneratedKeys);
+            boolean cacheable = entry == null;
+            entry = new Entry(key, stmt);
+            if (cacheable) {
+                entries.put(key, entry);
+            } else {
+                // Same SQL already open by this borrower: hand out a private statement
+                entry.evicted = true;
+            }
+        }
+
+        entry.inUse = true;
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                new StatementHandler(entry, connectionProxy));
+    }
+
+    /**
+     * Called when the owning connection goes back to the pool
+     * Statements the borrower never closed are discarded rather than reused
+     */
+    void afterRelease() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (entry.inUse) {
+                it.remove();
+                entry.inUse = false;
+                evict(entry);
+            }
+        }
+    }
+
+    private void evict(Entry entry) {
+        counters.evictions.incrementAndGet();
+        entry.evicted = true;
+        if (!entry.inUse) {
+            closeQuietly(entry.statement);
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing cached statement: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Hit/miss/eviction counters shared by all statement caches of one pool
+     */
+    static class Counters {
+        final AtomicLong hits = new AtomicLong();
+        final AtomicLong misses = new AtomicLong();
+        final AtomicLong evictions = new AtomicLong();
+    }
+
+    private static class Entry {
+        final String key;
+        final PreparedStatement statement;
+        boolean inUse;
+        boolean evicted;
+        boolean dirty;
+
+        Entry(String key, PreparedStatement statement) {
+            this.key = key;
+            this.statement = statement;
+        }
+    }
+
+    /**
+     * Invocation handler for the statement proxies handed to DAO code
+     */
+    private class StatementHandler implements InvocationHandler {
+        private final Entry entry;
+        private final Connection connectionProxy;
+        private final List<ResultSet> openResults = new ArrayList<>();
+        private boolean closed = false;
+
+        StatementHandler(Entry entry, Connection connectionProxy) {
+            this.entry = entry;
+            this.connectionProxy = connectionProxy;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+
+            switch (name) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        giveBack();
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || entry.statement.isClosed();
+                case "getConnection":
+                    return connectionProxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + entry.key + "]";
+                default:
+                    break;
+            }
+
+            if (closed) {
+                throw new SQLException("Statement is closed");
+            }
+            if (STATEMENT_SETTERS.contains(name)) {
+                entry.dirty = true;
+            }
+
+            Object result;
+            try {
+                result = method.invoke(entry.statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof ResultSet) {
+                openResults.add((ResultSet) result);
+            }
+            return result;
+        }
+
+        private void giveBack() throws SQLException {
+            for (ResultSet rs : openResults) {
+                if (!rs.isClosed()) {
+                    rs.close();
+                }
+            }
+            openResults.clear();
+
+            if (entry.dirty && !entry.evicted) {
+                entries.remove(entry.key);
+                counters.evictions.incrementAndGet();
+                entry.evicted = true;
+            }
+            entry.inUse = false;
+            if (entry.evicted) {
+                entry.statement.close();
+            } else {
+                entry.statement.clearParameters();
+                entry.statement.clearBatch();
+            }
+        }
+    }
+}
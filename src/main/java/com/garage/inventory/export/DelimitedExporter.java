@@ -0,0 +1,120 @@
+package com.garage.inventory.export;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * DelimitedExporter writes an ExportSource to a CSV or tab separated file
+ * Rows go from the source's stream through one reused line buffer into a fixed size byte buffer
+ * that is written to a FileChannel whenever it fills, so memory use does not depend on the number
+ * of rows: a multi-million row export holds one row and BUFFER_SIZE bytes at a time
+ * The file is written as UTF-8
+ */
+public class DelimitedExporter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Rows between progress reports
+    private static final int PROGRESS_INTERVAL = 1000;
+
+    private DelimitedExporter() {
+    }
+
+    /**
+     * Writes every row of a source to a file, replacing the file if it exists
+     * Runs on the calling thread; cancelled is checked before every row, and a cancelled or failed
+     * export deletes the partly written file
+     *
+     * @param source The columns and rows to write
+     * @param format The file format
+     * @param file The file to write
+     * @param progress Told the number of rows written so far, every PROGRESS_INTERVAL rows and at the end
+     * @param cancelled Returns true once the export should stop
+     * @return The number of rows written, or -1 if the export was cancelled
+     * @throws IOException if the file could not be written
+     * @throws SQLException if the rows could not be read
+     */
+    public static long export(ExportSource source, ExportFormat format, Path file,
+                              LongConsumer progress, BooleanSupplier cancelled) throws IOException, SQLException {
+        boolean complete = false;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             Stream<Object[]> rows = source.openRows()) {
+
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+            StringBuilder line = new StringBuilder(256);
+
+            format.appendLine(line, source.getColumns());
+            write(line, encoder, buffer, channel);
+
+            long written = 0;
+            Iterator<Object[]> it = rows.iterator();
+            while (it.hasNext()) {
+                if (cancelled.getAsBoolean()) {
+                    return -1;
+                }
+                line.setLength(0);
+                format.appendLine(line, it.next());
+                write(line, encoder, buffer, channel);
+                written++;
+                if (written % PROGRESS_INTERVAL == 0) {
+                    progress.accept(written);
+                }
+            }
+
+            flush(buffer, channel);
+            progress.accept(written);
+            complete = true;
+            return written;
+        } catch (IllegalStateException e) {
+            // RowStream reports a failure while reading further rows this way
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw e;
+        } finally {
+            if (!complete) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Encodes a line into the buffer, writing the buffer to the channel whenever it fills up
+     */
+    private static void write(CharSequence line, CharsetEncoder encoder, ByteBuffer buffer,
+                              FileChannel channel) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(line);
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isOverflow()) {
+                flush(buffer, channel);
+            } else if (result.isError()) {
+                result.throwException();
+            } else {
+                break;
+            }
+        }
+        encoder.reset();
+    }
+
+    private static void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,110 @@
+package com.garage.inventory.export;
+
+import java.math.BigDecimal;
+
+/**
+ * ExportFormat is a delimited text format an export can be written in
+ * CSV follows RFC 4180: a value holding the delimiter, a quote or a line break is quoted and its
+ * quotes doubled; tab separated text has no quoting, so tabs and line breaks in values become spaces
+ */
+public enum ExportFormat {
+    CSV(',', "csv", "CSV (comma separated)"),
+    TSV('\t', "tsv", "Tab separated");
+
+    private final char delimiter;
+    private final String extension;
+    private final String description;
+
+    ExportFormat(char delimiter, String extension, String description) {
+        this.delimiter = delimiter;
+        this.extension = extension;
+        this.description = description;
+    }
+
+    public char getDelimiter() {
+        return delimiter;
+    }
+
+    /**
+     * @return The file name extension, without the dot
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Picks the format matching a file name's extension
+     *
+     * @param fileName The file name
+     * @return The matching format, or null if the extension is not an export format's
+     */
+    public static ExportFormat fromFileName(String fileName) {
+        String lower = fileName.toLowerCase();
+        for (ExportFormat format : values()) {
+            if (lower.endsWith("." + format.extension)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Appends one line holding the given values, followed by a line break
+     *
+     * @param line The buffer to append to
+     * @param values One value per column; null is written as an empty value
+     */
+    void appendLine(StringBuilder line, Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                line.append(delimiter);
+            }
+            appendValue(line, toText(values[i]));
+        }
+        line.append("\r\n");
+    }
+
+    private void appendValue(StringBuilder line, String text) {
+        if (this == TSV) {
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                line.append(c == '\t' || c == '\r' || c == '\n' ? ' ' : c);
+            }
+            return;
+        }
+
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == delimiter || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            line.append(text);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    private static String toText(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof BigDecimal) {
+            // Never scientific notation, so spreadsheets read the exact amount
+            return ((BigDecimal) value).toPlainString();
+        }
+        return value.toString();
+    }
+}
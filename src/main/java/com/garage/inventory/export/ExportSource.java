@@ -0,0 +1,100 @@
+package com.garage.inventory.export;
+
+import com.garage.inventory.dao.ExportDAO;
+import com.garage.inventory.dao.ExportDAO.ExportTable;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * ExportSource supplies the columns and rows of one export
+ * Large sources stream their rows from a database cursor; small ones, such as aggregated reports,
+ * may hand out a list they read when the export runs
+ * All methods are called on the export's background thread
+ */
+public interface ExportSource {
+
+    /**
+     * @return The column headings
+     * @throws SQLException if they could not be read
+     */
+    String[] getColumns() throws SQLException;
+
+    /**
+     * Counts the rows the export will write, for the progress bar
+     *
+     * @return The number of rows, or -1 if it is not known in advance
+     */
+    long countRows();
+
+    /**
+     * Opens the rows; the stream is closed when the export finishes or is cancelled
+     *
+     * @return One array per row with one value per column
+     * @throws SQLException if the rows could not be read
+     */
+    Stream<Object[]> openRows() throws SQLException;
+
+    /**
+     * Creates a source over every row of a table, streamed from a database cursor
+     *
+     * @param exportDAO Reads the table
+     * @param table The table
+     * @return The source
+     */
+    static ExportSource ofTable(ExportDAO exportDAO, ExportTable table) {
+        return new ExportSource() {
+            @Override
+            public String[] getColumns() throws SQLException {
+                return exportDAO.getColumns(table);
+            }
+
+            @Override
+            public long countRows() {
+                return exportDAO.countRows(table);
+            }
+
+            @Override
+            public Stream<Object[]> openRows() throws SQLException {
+                return exportDAO.streamTable(table);
+            }
+        };
+    }
+
+    /**
+     * Creates a source over rows that are read into a list when the export runs
+     * Meant for small results such as aggregated reports; the loader is called once
+     *
+     * @param columns The column headings
+     * @param loader Reads the rows
+     * @return The source
+     */
+    static ExportSource ofList(String[] columns, Supplier<List<Object[]>> loader) {
+        return new ExportSource() {
+            private List<Object[]> rows;
+
+            @Override
+            public String[] getColumns() {
+                return columns;
+            }
+
+            @Override
+            public long countRows() {
+                return load().size();
+            }
+
+            @Override
+            public Stream<Object[]> openRows() {
+                return load().stream();
+            }
+
+            private List<Object[]> load() {
+                if (rows == null) {
+                    rows = loader.get();
+                }
+                return rows;
+            }
+        };
+    }
+}
@@ -0,0 +1,91 @@
+package com.garage.inventory.gui;
+
+import javax.swing.table.DefaultTableModel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Vector;
+
+/**
+ * BulkTableModel is a read-only DefaultTableModel whose contents are replaced in one operation
+ * Filling a DefaultTableModel with setRowCount(0) and addRow() fires one event per row, and the
+ * JTable re-lays out and repaints for each of them; setRows() swaps in all rows at once instead
+ * The new rows are compared with the old ones: unchanged rows at the start and end are kept,
+ * and a single event covers only the rows in between, or no event at all if nothing changed
+ */
+public class BulkTableModel extends DefaultTableModel {
+
+    /**
+     * @param columns Column names
+     */
+    public BulkTableModel(String[] columns) {
+        super(columns, 0);
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    /**
+     * Replaces every row of the table, firing at most one TableModelEvent
+     *
+     * @param rows The new rows; each array holds one value per column
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void setRows(List<Object[]> rows) {
+        Vector<Vector> oldData = dataVector;
+        Vector<Vector> newData = new Vector<>(rows.size());
+        for (Object[] row : rows) {
+            Vector<Object> values = new Vector<>(Arrays.asList(row));
+            values.setSize(getColumnCount());
+            newData.add(values);
+        }
+
+        // Rows that are equal at the start and at the end of both lists need no event
+        int oldSize = oldData.size();
+        int newSize = newData.size();
+        int prefix = 0;
+        while (prefix < oldSize && prefix < newSize && oldData.get(prefix).equals(newData.get(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < oldSize - prefix && suffix < newSize - prefix &&
+                oldData.get(oldSize - 1 - suffix).equals(newData.get(newSize - 1 - suffix))) {
+            suffix++;
+        }
+        int oldChanged = oldSize - prefix - suffix;
+        int newChanged = newSize - prefix - suffix;
+
+        dataVector = newData;
+        if (oldChanged == 0 && newChanged == 0) {
+            return;
+        } else if (oldChanged == newChanged) {
+            fireTableRowsUpdated(prefix, prefix + newChanged - 1);
+        } else if (oldChanged == 0) {
+            fireTableRowsInserted(prefix, prefix + newChanged - 1);
+        } else if (newChanged == 0) {
+            fireTableRowsDeleted(prefix, prefix + oldChanged - 1);
+        } else {
+            fireTableDataChanged();
+        }
+    }
+
+    /**
+     * Sets the column names, unless they are already the same
+     * Unlike setColumnIdentifiers() this keeps the table's column layout when nothing changes
+     *
+     * @param columns Column names
+     */
+    public void setColumns(String[] columns) {
+        if (getColumnCount() == columns.length) {
+            boolean same = true;
+            for (int i = 0; i < columns.length && same; i++) {
+                same = columns[i].equals(getColumnName(i));
+            }
+            if (same) {
+                return;
+            }
+        }
+        setColumnIdentifiers(columns);
+    }
+}
@@ -2,29 +2,44 @@ package com.garage.inventory.gui;
 
 import com.garage.inventory.dao.CustomerDAO;
 import com.garage.inventory.dao.SaleDAO;
+import com.garage.inventory.dao.TableVersions.Table;
 import com.garage.inventory.model.Customer;
-import com.garage.inventory.model.Sale;
+import com.garage.inventory.model.SaleRow;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
-import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * CustomersScreen allows managing customers
  * Features: Add, Edit, Delete customers, View customer details and purchase history
+ * The customer list is filtered as the user types in the search field
  */
-public class CustomersScreen extends JPanel {
+public class CustomersScreen extends JPanel implements RefreshableScreen {
+    // Pause in typing after which the search runs
+    private static final int SEARCH_DELAY_MS = 100;
+    // Purchase history rows per page, and pages kept in memory while scrolling
+    private static final int HISTORY_PAGE_SIZE = 50;
+    private static final int HISTORY_MAX_PAGES = 10;
+    
     private MainApplication mainApp;
     private JTable customerTable;
-    private DefaultTableModel tableModel;
+    private BulkTableModel tableModel;
     private JTextField nameField, contactNumberField, emailField, addressField, vehicleInfoField;
     private JTextField searchField;
+    private Timer searchTimer;
     private CustomerDAO customerDAO;
     private SaleDAO saleDAO;
     private Customer selectedCustomer;
     private JTable salesTable;
-    private DefaultTableModel salesTableModel;
+    private PagedTableModel<SaleRow> salesTableModel;
+    private JLabel lifetimeSpendLabel;
+    // The customer whose history the sales table pages through; read by the loader threads
+    private volatile int historyCustomerId = 0;
+    private final ScreenLoader loader = new ScreenLoader(this, Table.CUSTOMERS);
+    private final ScreenLoader historyLoader = new ScreenLoader(this, Table.SALES, Table.ITEMS);
     
     public CustomersScreen(MainApplication mainApp) {
         this.mainApp = mainApp;
@@ -33,7 +48,6 @@ public class CustomersScreen extends JPanel {
         
         initializeComponents();
         setupLayout();
-        refreshData();
     }
     
     /**
@@ -50,14 +64,33 @@ public class CustomersScreen extends JPanel {
         vehicleInfoField = new JTextField(20);
         searchField = new JTextField(20);
         
-        // Initialize customer table
-        String[] columns = {"ID", "Name", "Contact Number", "Email", "Address", "Vehicle Info"};
-        tableModel = new DefaultTableModel(columns, 0) {
+        // Search as the user types, once typing pauses; Enter searches at once
+        searchTimer = new Timer(SEARCH_DELAY_MS, e -> searchCustomers());
+        searchTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
             @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
+            public void insertUpdate(DocumentEvent e) {
+                searchTimer.restart();
             }
-        };
+            
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+            
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+        });
+        searchField.addActionListener(e -> {
+            searchTimer.stop();
+            searchCustomers();
+        });
+        
+        // Initialize customer table
+        String[] columns = {"ID", "Name", "Contact Number", "Email", "Address", "Vehicle Info"};
+        tableModel = new BulkTableModel(columns);
         customerTable = new JTable(tableModel);
         customerTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         customerTable.getTableHeader().setFont(new Font("Arial", Font.BOLD, 12));
@@ -68,16 +101,26 @@ public class CustomersScreen extends JPanel {
         });
         
         // Initialize sales history table
+        // Only the selected customer's sales are fetched, one page at a time as the user scrolls
         String[] salesColumns = {"Sale ID", "Item", "Quantity", "Unit Price", "Total Amount", "Date"};
-        salesTableModel = new DefaultTableModel(salesColumns, 0) {
+        salesTableModel = new PagedTableModel<SaleRow>(salesColumns, this::fetchHistoryPage, HISTORY_PAGE_SIZE, HISTORY_MAX_PAGES) {
             @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
+            protected Object getColumnValue(SaleRow sale, int column) {
+                switch (column) {
+                    case 0: return sale.getId();
+                    case 1: return sale.getItemName() != null ? sale.getItemName() : "N/A";
+                    case 2: return sale.getQuantity();
+                    case 3: return "$" + String.format("%.2f", sale.getUnitPrice());
+                    case 4: return "$" + String.format("%.2f", sale.getTotalAmount());
+                    default: return sale.getSaleDate();
+                }
             }
         };
         salesTable = new JTable(salesTableModel);
         salesTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         salesTable.getTableHeader().setFont(new Font("Arial", Font.BOLD, 12));
+        lifetimeSpendLabel = new JLabel(" ");
+        lifetimeSpendLabel.setFont(new Font("Arial", Font.BOLD, 12));
     }
     
     /**
@@ -89,12 +132,10 @@ public class CustomersScreen extends JPanel {
         searchPanel.setBorder(BorderFactory.createTitledBorder("Search Customers"));
         searchPanel.add(new JLabel("Search (Name/Contact):"));
         searchPanel.add(searchField);
-        JButton searchButton = new JButton("Search");
-        searchButton.addActionListener(e -> searchCustomers());
-        searchPanel.add(searchButton);
         JButton clearSearchButton = new JButton("Clear");
         clearSearchButton.addActionListener(e -> {
             searchField.setText("");
+            searchTimer.stop();
             refreshData();
         });
         searchPanel.add(clearSearchButton);
@@ -127,6 +168,7 @@ public class CustomersScreen extends JPanel {
         salesPanel.setPreferredSize(new Dimension(0, 200));
         JScrollPane salesScrollPane = new JScrollPane(salesTable);
         salesPanel.add(salesScrollPane, BorderLayout.CENTER);
+        salesPanel.add(lifetimeSpendLabel, BorderLayout.SOUTH);
         
         // Combine right panel components
         JSplitPane rightSplit = new JSplitPane(JSplitPane.VERTICAL_SPLIT, tablePanel, salesPanel);
@@ -136,7 +178,11 @@ public class CustomersScreen extends JPanel {
         
         // Refresh button
         JButton refreshButton = new JButton("Refresh");
-        refreshButton.addActionListener(e -> refreshData());
+        refreshButton.addActionListener(e -> {
+            loader.markStale();
+            historyLoader.markStale();
+            refreshData();
+        });
         JPanel refreshPanel = new JPanel();
         refreshPanel.add(refreshButton);
         rightPanel.add(refreshPanel, BorderLayout.SOUTH);
@@ -201,13 +247,13 @@ public class CustomersScreen extends JPanel {
         JPanel panel = new JPanel(new FlowLayout());
         
         JButton addButton = new JButton("Add New");
-        addButton.addActionListener(e -> addCustomer());
+        addButton.addActionListener(e -> addCustomer(addButton));
         
         JButton updateButton = new JButton("Update");
-        updateButton.addActionListener(e -> updateCustomer());
+        updateButton.addActionListener(e -> updateCustomer(updateButton));
         
         JButton deleteButton = new JButton("Delete");
-        deleteButton.addActionListener(e -> deleteCustomer());
+        deleteButton.addActionListener(e -> deleteCustomer(deleteButton));
         
         JButton clearButton = new JButton("Clear");
         clearButton.addActionListener(e -> clearForm());
@@ -221,13 +267,29 @@ public class CustomersScreen extends JPanel {
     }
     
     /**
-     * Refreshes the data - loads all customers
+     * Refreshes the data - loads all customers, or those matching the search field
+     * The query runs in the background; the table is updated when it finishes
+     * Nothing is reloaded when the customers and sales are unchanged since they were shown
      */
+    @Override
     public void refreshData() {
-        tableModel.setRowCount(0);
-        List<Customer> customers = customerDAO.getAllCustomers();
+        searchCustomers();
+        updateSalesHistory();
+    }
+    
+    @Override
+    public void cancelLoading() {
+        loader.cancel();
+        historyLoader.cancel();
+    }
+    
+    /**
+     * Shows loaded customers in the table (runs on the EDT)
+     */
+    private void showCustomers(List<Customer> customers) {
+        List<Object[]> rows = new ArrayList<>(customers.size());
         for (Customer customer : customers) {
-            tableModel.addRow(new Object[]{
+            rows.add(new Object[]{
                 customer.getId(),
                 customer.getName(),
                 customer.getContactNumber() != null ? customer.getContactNumber() : "N/A",
@@ -236,31 +298,18 @@ public class CustomersScreen extends JPanel {
                 customer.getVehicleInfo() != null ? customer.getVehicleInfo() : "N/A"
             });
         }
-        updateSalesHistory();
+        tableModel.setRows(rows);
     }
     
     /**
-     * Searches customers by name or contact number
+     * Searches customers by name or contact number, or shows all customers if the search field is empty
+     * Searches are answered from the in-memory customer index, so results follow the typing closely
      */
     private void searchCustomers() {
         String searchTerm = searchField.getText().trim();
-        if (searchTerm.isEmpty()) {
-            refreshData();
-            return;
-        }
-        
-        tableModel.setRowCount(0);
-        List<Customer> customers = customerDAO.searchCustomers(searchTerm);
-        for (Customer customer : customers) {
-            tableModel.addRow(new Object[]{
-                customer.getId(),
-                customer.getName(),
-                customer.getContactNumber() != null ? customer.getContactNumber() : "N/A",
-                customer.getEmail() != null ? customer.getEmail() : "N/A",
-                customer.getAddress() != null ? customer.getAddress() : "N/A",
-                customer.getVehicleInfo() != null ? customer.getVehicleInfo() : "N/A"
-            });
-        }
+        loader.loadIfChanged(searchTerm, () -> searchTerm.isEmpty()
+                ? customerDAO.getAllCustomers()
+                : customerDAO.searchCustomers(searchTerm), this::showCustomers);
     }
     
     /**
@@ -282,61 +331,71 @@ public class CustomersScreen extends JPanel {
                 updateSalesHistory();
             }
         } else {
-            salesTableModel.setRowCount(0);
+            selectedCustomer = null;
+            updateSalesHistory();
         }
     }
     
     /**
      * Updates the sales history table for the selected customer
+     * Only the customer's lifetime total is loaded here (cached after the first time); the table
+     * then fetches the customer's sales page by page
      */
     private void updateSalesHistory() {
-        salesTableModel.setRowCount(0);
         if (selectedCustomer == null) {
+            historyLoader.cancel();
+            historyCustomerId = 0;
+            salesTableModel.clear();
+            lifetimeSpendLabel.setText(" ");
             return;
         }
         
-        List<Sale> allSales = saleDAO.getAllSales();
-        BigDecimal totalSpent = BigDecimal.ZERO;
-        
-        for (Sale sale : allSales) {
-            if (sale.getCustomerId() == selectedCustomer.getId()) {
-                com.garage.inventory.model.Item item = new com.garage.inventory.dao.ItemDAO().getItemById(sale.getItemId());
-                totalSpent = totalSpent.add(sale.getTotalAmount());
-                
-                salesTableModel.addRow(new Object[]{
-                    sale.getId(),
-                    item != null ? item.getName() : "N/A",
-                    sale.getQuantity(),
-                    "$" + String.format("%.2f", sale.getUnitPrice()),
-                    "$" + String.format("%.2f", sale.getTotalAmount()),
-                    sale.getSaleDate()
-                });
-            }
-        }
+        int customerId = selectedCustomer.getId();
+        historyLoader.loadIfChanged(customerId, () -> saleDAO.getCustomerLifetimeSpend(customerId), total -> {
+            lifetimeSpendLabel.setText("Lifetime Spend: $" + String.format("%.2f", total));
+            historyCustomerId = customerId;
+            salesTableModel.reset();
+        });
+    }
+    
+    /**
+     * Fetches one page of the selected customer's sales (runs on a loader thread)
+     *
+     * @param after The last sale of the previous page, or null for the first page
+     * @param limit Maximum number of sales to return
+     * @return The customer's next sales, newest first
+     */
+    private List<SaleRow> fetchHistoryPage(SaleRow after, int limit) {
+        int customerId = historyCustomerId;
+        return after == null
+                ? saleDAO.getSalesByCustomer(customerId, null, 0, limit)
+                : saleDAO.getSalesByCustomer(customerId, after.getSaleDate(), after.getId(), limit);
     }
     
     /**
      * Adds a new customer
      */
-    private void addCustomer() {
+    private void addCustomer(JButton button) {
         if (!validateForm()) return;
         
         Customer customer = createCustomerFromForm();
         if (customer == null) return;
         
-        if (customerDAO.addCustomer(customer)) {
-            JOptionPane.showMessageDialog(this, "Customer added successfully!");
-            clearForm();
-            refreshData();
-        } else {
-            JOptionPane.showMessageDialog(this, "Failed to add customer.", "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        ScreenLoader.write(button, () -> customerDAO.addCustomer(customer), saved -> {
+            if (Boolean.TRUE.equals(saved)) {
+                JOptionPane.showMessageDialog(this, "Customer added successfully!");
+                clearForm();
+                refreshData();
+            } else {
+                JOptionPane.showMessageDialog(this, "Failed to add customer.", "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        });
     }
     
     /**
      * Updates an existing customer
      */
-    private void updateCustomer() {
+    private void updateCustomer(JButton button) {
         if (selectedCustomer == null) {
             JOptionPane.showMessageDialog(this, "Please select a customer to update.", "Error", JOptionPane.ERROR_MESSAGE);
             return;
@@ -349,20 +408,22 @@ public class CustomersScreen extends JPanel {
         
         customer.setId(selectedCustomer.getId());
         
-        if (customerDAO.updateCustomer(customer)) {
-            JOptionPane.showMessageDialog(this, "Customer updated successfully!");
-            clearForm();
-            selectedCustomer = null;
-            refreshData();
-        } else {
-            JOptionPane.showMessageDialog(this, "Failed to update customer.", "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        ScreenLoader.write(button, () -> customerDAO.updateCustomer(customer), saved -> {
+            if (Boolean.TRUE.equals(saved)) {
+                JOptionPane.showMessageDialog(this, "Customer updated successfully!");
+                clearForm();
+                selectedCustomer = null;
+                refreshData();
+            } else {
+                JOptionPane.showMessageDialog(this, "Failed to update customer.", "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        });
     }
     
     /**
      * Deletes the selected customer
      */
-    private void deleteCustomer() {
+    private void deleteCustomer(JButton button) {
         if (selectedCustomer == null) {
             JOptionPane.showMessageDialog(this, "Please select a customer to delete.", "Error", JOptionPane.ERROR_MESSAGE);
             return;
@@ -374,14 +435,17 @@ public class CustomersScreen extends JPanel {
             JOptionPane.YES_NO_OPTION);
         
         if (confirm == JOptionPane.YES_OPTION) {
-            if (customerDAO.deleteCustomer(selectedCustomer.getId())) {
-                JOptionPane.showMessageDialog(this, "Customer deleted successfully!");
-                clearForm();
-                selectedCustomer = null;
-                refreshData();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to delete customer.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            int customerId = selectedCustomer.getId();
+            ScreenLoader.write(button, () -> customerDAO.deleteCustomer(customerId), deleted -> {
+                if (Boolean.TRUE.equals(deleted)) {
+                    JOptionPane.showMessageDialog(this, "Customer deleted successfully!");
+                    clearForm();
+                    selectedCustomer = null;
+                    refreshData();
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to delete customer.", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         }
     }
     
@@ -396,7 +460,7 @@ public class CustomersScreen extends JPanel {
         vehicleInfoField.setText("");
         selectedCustomer = null;
         customerTable.clearSelection();
-        salesTableModel.setRowCount(0);
+        updateSalesHistory();
     }
     
     /**
@@ -1,40 +1,35 @@
 package com.garage.inventory.gui;
 
-import com.garage.inventory.dao.ItemDAO;
-import com.garage.inventory.dao.PurchaseDAO;
-import com.garage.inventory.dao.SaleDAO;
+import com.garage.inventory.dao.DashboardDAO;
+import com.garage.inventory.dao.TableVersions.Table;
+import com.garage.inventory.model.DashboardSnapshot;
 import com.garage.inventory.model.Item;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * DashboardScreen displays key statistics and low stock alerts
  * Shows: total items, low stock alerts, today's sales, and today's purchases
  */
-public class DashboardScreen extends JPanel {
+public class DashboardScreen extends JPanel implements RefreshableScreen {
     private MainApplication mainApp;
     private JLabel totalItemsLabel;
     private JLabel lowStockCountLabel;
     private JLabel todaySalesLabel;
     private JLabel todayPurchasesLabel;
     private JTable lowStockTable;
-    private DefaultTableModel tableModel;
-    private ItemDAO itemDAO;
-    private SaleDAO saleDAO;
-    private PurchaseDAO purchaseDAO;
+    private BulkTableModel tableModel;
+    private DashboardDAO dashboardDAO;
+    private final ScreenLoader loader = new ScreenLoader(this, Table.ITEMS, Table.SALES, Table.PURCHASES);
     
     public DashboardScreen(MainApplication mainApp) {
         this.mainApp = mainApp;
-        itemDAO = new ItemDAO();
-        saleDAO = new SaleDAO();
-        purchaseDAO = new PurchaseDAO();
+        dashboardDAO = new DashboardDAO();
         
         initializeComponents();
         setupLayout();
-        refreshData();
     }
     
     /**
@@ -62,12 +57,7 @@ public class DashboardScreen extends JPanel {
         
         // Initialize table for low stock items
         String[] columns = {"Part Number", "Item Name", "Current Stock", "Min Level", "Category"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new BulkTableModel(columns);
         lowStockTable = new JTable(tableModel);
         lowStockTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         lowStockTable.getTableHeader().setFont(new Font("Arial", Font.BOLD, 12));
@@ -153,28 +143,41 @@ public class DashboardScreen extends JPanel {
     /**
      * Refreshes all dashboard data
      * This method is called when the dashboard is displayed
+     * All values are read together as one snapshot in the background, shared with other
+     * dashboards for a short time; the cards and table are updated when it arrives
+     * Nothing is reloaded when items, sales and purchases are unchanged since they were shown
      */
+    @Override
     public void refreshData() {
-        // Get total items count
-        int totalItems = itemDAO.getTotalItemCount();
-        totalItemsLabel.setText(String.valueOf(totalItems));
+        loader.loadIfChanged(null, dashboardDAO::getSnapshot, this::showData);
+    }
+    
+    @Override
+    public void cancelLoading() {
+        loader.cancel();
+    }
+    
+    /**
+     * Shows loaded dashboard data (runs on the EDT)
+     */
+    private void showData(DashboardSnapshot data) {
+        // Total items count
+        totalItemsLabel.setText(String.valueOf(data.getTotalItems()));
         
-        // Get low stock items
-        List<Item> lowStockItems = itemDAO.getLowStockItems();
+        // Low stock items
+        List<Item> lowStockItems = data.getLowStockItems();
         lowStockCountLabel.setText(String.valueOf(lowStockItems.size()));
         
-        // Get today's sales
-        BigDecimal todaySales = saleDAO.getTodaySalesTotal();
-        todaySalesLabel.setText("$" + String.format("%.2f", todaySales));
+        // Today's sales
+        todaySalesLabel.setText("$" + String.format("%.2f", data.getTodaySales()));
         
-        // Get today's purchases
-        BigDecimal todayPurchases = purchaseDAO.getTodayPurchasesTotal();
-        todayPurchasesLabel.setText("$" + String.format("%.2f", todayPurchases));
+        // Today's purchases
+        todayPurchasesLabel.setText("$" + String.format("%.2f", data.getTodayPurchases()));
         
         // Update low stock table
-        tableModel.setRowCount(0);
+        List<Object[]> rows = new ArrayList<>(lowStockItems.size());
         for (Item item : lowStockItems) {
-            tableModel.addRow(new Object[]{
+            rows.add(new Object[]{
                 item.getPartNumber(),
                 item.getName(),
                 item.getStockQuantity(),
@@ -182,6 +185,7 @@ public class DashboardScreen extends JPanel {
                 item.getCategory() != null ? item.getCategory() : "N/A"
             });
         }
+        tableModel.setRows(rows);
+        StartupTimer.mark(StartupTimer.DASHBOARD_READY);
     }
 }
-
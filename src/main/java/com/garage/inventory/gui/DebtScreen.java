@@ -1,23 +1,25 @@
 
 package com.garage.inventory.gui;
 
+import com.garage.inventory.dao.BatchLoader;
 import com.garage.inventory.dao.CustomerDAO;
 import com.garage.inventory.dao.DebtDAO;
+import com.garage.inventory.dao.TableVersions.Table;
 import com.garage.inventory.model.Customer;
 import com.garage.inventory.model.DebtTransaction;
 import com.garage.inventory.model.DebtPayment;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.math.BigDecimal;
 import java.sql.Date;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
-public class DebtScreen extends JPanel {
+public class DebtScreen extends JPanel implements RefreshableScreen {
     private MainApplication mainApp;
     private JTable debtTable;
-    private DefaultTableModel debtTableModel;
+    private BulkTableModel debtTableModel;
     private JComboBox<Customer> customerComboBox;
     private JComboBox<Customer> paymentCustomerComboBox;
     private JComboBox<String> statusFilterCombo;
@@ -28,10 +30,12 @@ public class DebtScreen extends JPanel {
     private JComboBox<String> paymentMethodPaymentCombo;
     private JLabel totalOutstandingLabel, overdueCountLabel;
     private JTable paymentHistoryTable;
-    private DefaultTableModel paymentHistoryTableModel;
+    private BulkTableModel paymentHistoryTableModel;
     private DebtDAO debtDAO;
     private CustomerDAO customerDAO;
     private DebtTransaction selectedDebt;
+    private final ScreenLoader loader = new ScreenLoader(this, Table.DEBTS, Table.CUSTOMERS);
+    private final ScreenLoader debtLoader = new ScreenLoader(this, Table.DEBTS, Table.CUSTOMERS);
 
     public DebtScreen(MainApplication mainApp) {
         this.mainApp = mainApp;
@@ -40,7 +44,6 @@ public class DebtScreen extends JPanel {
 
         initializeComponents();
         setupLayout();
-        refreshData();
     }
 
     private void initializeComponents() {
@@ -80,12 +83,7 @@ public class DebtScreen extends JPanel {
         overdueCountLabel.setForeground(new Color(255, 102, 0));
 
         String[] columns = {"ID", "Customer", "Type", "Amount", "Balance", "Date", "Due Date", "Status"};
-        debtTableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        debtTableModel = new BulkTableModel(columns);
         debtTable = new JTable(debtTableModel);
         debtTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         debtTable.getTableHeader().setFont(new Font("Arial", Font.BOLD, 12));
@@ -96,12 +94,7 @@ public class DebtScreen extends JPanel {
         });
 
         String[] paymentColumns = {"ID", "Amount", "Date", "Method", "Reference", "Notes"};
-        paymentHistoryTableModel = new DefaultTableModel(paymentColumns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        paymentHistoryTableModel = new BulkTableModel(paymentColumns);
         paymentHistoryTable = new JTable(paymentHistoryTableModel);
         paymentHistoryTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         paymentHistoryTable.getTableHeader().setFont(new Font("Arial", Font.BOLD, 12));
@@ -119,7 +112,11 @@ public class DebtScreen extends JPanel {
         filterPanel.add(new JLabel("Filter by Status:"));
         filterPanel.add(statusFilterCombo);
         JButton refreshButton = new JButton("Refresh");
-        refreshButton.addActionListener(e -> refreshData());
+        refreshButton.addActionListener(e -> {
+            loader.markStale();
+            debtLoader.markStale();
+            refreshData();
+        });
         filterPanel.add(refreshButton);
 
         tablePanel.add(filterPanel, BorderLayout.NORTH);
@@ -222,7 +219,7 @@ public class DebtScreen extends JPanel {
         gbc.gridx = 0; gbc.gridy = ++row; gbc.gridwidth = 2;
         JPanel buttonPanel = new JPanel(new FlowLayout());
         JButton recordButton = new JButton("Record Credit Sale");
-        recordButton.addActionListener(e -> recordCreditSale());
+        recordButton.addActionListener(e -> recordCreditSale(recordButton));
         JButton clearButton = new JButton("Clear");
         clearButton.addActionListener(e -> clearCreditSaleForm());
         buttonPanel.add(recordButton);
@@ -275,7 +272,7 @@ public class DebtScreen extends JPanel {
         gbc.gridx = 0; gbc.gridy = ++row; gbc.gridwidth = 2;
         JPanel buttonPanel = new JPanel(new FlowLayout());
         JButton recordButton = new JButton("Record Payment");
-        recordButton.addActionListener(e -> recordPayment());
+        recordButton.addActionListener(e -> recordPayment(recordButton));
         JButton clearButton = new JButton("Clear");
         clearButton.addActionListener(e -> clearPaymentForm());
         buttonPanel.add(recordButton);
@@ -291,53 +288,80 @@ public class DebtScreen extends JPanel {
         return panel;
     }
 
+    /**
+     * Reloads statistics, customers and debt transactions in the background
+     * The statistics and the debt table load in parallel on separate loaders
+     * Nothing is reloaded when debts and customers are unchanged since they were shown
+     */
+    @Override
     public void refreshData() {
-        // Update statistics
-        BigDecimal totalOutstanding = debtDAO.getTotalOutstandingDebt();
-        totalOutstandingLabel.setText("$" + String.format("%.2f", totalOutstanding));
+        loader.loadIfChanged(null, () -> {
+            DebtSummary summary = new DebtSummary();
+            summary.totalOutstanding = debtDAO.getTotalOutstandingDebt();
+            summary.overdueCount = debtDAO.getOverdueDebts().size();
+            summary.customers = customerDAO.getAllCustomers();
+            return summary;
+        }, this::showSummary);
+
+        // Refresh debt transactions
+        filterDebts();
+    }
 
-        List<DebtTransaction> overdueDebts = debtDAO.getOverdueDebts();
-        overdueCountLabel.setText(String.valueOf(overdueDebts.size()));
+    @Override
+    public void cancelLoading() {
+        loader.cancel();
+        debtLoader.cancel();
+    }
+
+    private void showSummary(DebtSummary summary) {
+        // Update statistics
+        totalOutstandingLabel.setText("$" + String.format("%.2f", summary.totalOutstanding));
+        overdueCountLabel.setText(String.valueOf(summary.overdueCount));
 
         // Refresh customers
         customerComboBox.removeAllItems();
         paymentCustomerComboBox.removeAllItems();
-        List<Customer> customers = customerDAO.getAllCustomers();
-        for (Customer customer : customers) {
+        for (Customer customer : summary.customers) {
             customerComboBox.addItem(customer);
             paymentCustomerComboBox.addItem(customer);
         }
-
-        // Refresh debt transactions
-        filterDebts();
     }
 
     private void filterDebts() {
-        debtTableModel.setRowCount(0);
         String filter = (String) statusFilterCombo.getSelectedItem();
 
-        List<DebtTransaction> debts;
-        if ("All".equals(filter)) {
-            debts = debtDAO.getAllDebtTransactions();
-        } else if ("Overdue".equals(filter)) {
-            debts = debtDAO.getOverdueDebts();
-        } else {
-            debts = debtDAO.getPendingDebts();
-        }
+        debtLoader.loadIfChanged(filter, () -> {
+            List<DebtTransaction> debts;
+            if ("All".equals(filter)) {
+                debts = debtDAO.getAllDebtTransactions();
+            } else if ("Overdue".equals(filter)) {
+                debts = debtDAO.getOverdueDebts();
+            } else {
+                debts = debtDAO.getPendingDebts();
+            }
 
-        for (DebtTransaction debt : debts) {
-            Customer customer = customerDAO.getCustomerById(debt.getCustomerId());
-            debtTableModel.addRow(new Object[]{
-                    debt.getId(),
-                    customer != null ? customer.getName() : "N/A",
-                    debt.getTransactionType().name(),
-                    "$" + String.format("%.2f", debt.getAmount()),
-                    "$" + String.format("%.2f", debt.getRemainingBalance()),
-                    debt.getTransactionDate(),
-                    debt.getDueDate() != null ? debt.getDueDate() : "N/A",
-                    debt.getStatus().name()
-            });
-        }
+            BatchLoader<Customer> customerLoader = new BatchLoader<>(customerDAO::getCustomersByIds);
+            for (DebtTransaction debt : debts) {
+                customerLoader.queue(debt.getCustomerId());
+            }
+            customerLoader.dispatch();
+
+            List<Object[]> rows = new ArrayList<>(debts.size());
+            for (DebtTransaction debt : debts) {
+                Customer customer = customerLoader.get(debt.getCustomerId());
+                rows.add(new Object[]{
+                        debt.getId(),
+                        customer != null ? customer.getName() : "N/A",
+                        debt.getTransactionType().name(),
+                        "$" + String.format("%.2f", debt.getAmount()),
+                        "$" + String.format("%.2f", debt.getRemainingBalance()),
+                        debt.getTransactionDate(),
+                        debt.getDueDate() != null ? debt.getDueDate() : "N/A",
+                        debt.getStatus().name()
+                });
+            }
+            return rows;
+        }, debtTableModel::setRows);
     }
 
     private void selectDebtFromTable() {
@@ -356,11 +380,11 @@ public class DebtScreen extends JPanel {
     }
 
     private void loadPaymentHistory() {
-        paymentHistoryTableModel.setRowCount(0);
+        List<Object[]> rows = new ArrayList<>();
         if (selectedDebt != null) {
             List<DebtPayment> payments = debtDAO.getPaymentHistory(selectedDebt.getId());
             for (DebtPayment payment : payments) {
-                paymentHistoryTableModel.addRow(new Object[]{
+                rows.add(new Object[]{
                         payment.getId(),
                         "$" + String.format("%.2f", payment.getPaymentAmount()),
                         payment.getPaymentDate(),
@@ -370,9 +394,10 @@ public class DebtScreen extends JPanel {
                 });
             }
         }
+        paymentHistoryTableModel.setRows(rows);
     }
 
-    private void recordCreditSale() {
+    private void recordCreditSale(JButton button) {
         try {
             Customer customer = (Customer) customerComboBox.getSelectedItem();
             if (customer == null) {
@@ -402,19 +427,21 @@ public class DebtScreen extends JPanel {
                     DebtTransaction.DebtStatus.PENDING
             );
 
-            if (debtDAO.addDebtTransaction(debt)) {
-                JOptionPane.showMessageDialog(this, "Credit sale recorded successfully!");
-                clearCreditSaleForm();
-                refreshData();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to record credit sale.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            ScreenLoader.write(button, () -> debtDAO.addDebtTransaction(debt), saved -> {
+                if (Boolean.TRUE.equals(saved)) {
+                    JOptionPane.showMessageDialog(this, "Credit sale recorded successfully!");
+                    clearCreditSaleForm();
+                    refreshData();
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to record credit sale.", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this, "Error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
-    private void recordPayment() {
+    private void recordPayment(JButton button) {
         if (selectedDebt == null) {
             JOptionPane.showMessageDialog(this, "Please select a debt from the table.", "Error", JOptionPane.ERROR_MESSAGE);
             return;
@@ -446,14 +473,16 @@ public class DebtScreen extends JPanel {
                     "admin"
             );
 
-            if (debtDAO.recordPayment(payment)) {
-                JOptionPane.showMessageDialog(this, "Payment recorded successfully!");
-                clearPaymentForm();
-                selectedDebt = null;
-                refreshData();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to record payment.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            ScreenLoader.write(button, () -> debtDAO.recordPayment(payment), saved -> {
+                if (Boolean.TRUE.equals(saved)) {
+                    JOptionPane.showMessageDialog(this, "Payment recorded successfully!");
+                    clearPaymentForm();
+                    selectedDebt = null;
+                    refreshData();
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to record payment.", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this, "Error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
         }
@@ -474,4 +503,13 @@ public class DebtScreen extends JPanel {
         paymentDateSpinner.setValue(java.util.Calendar.getInstance().getTime());
         paymentMethodPaymentCombo.setSelectedIndex(0);
     }
+
+    /**
+     * Debt statistics and customer list loaded together in the background
+     */
+    private static class DebtSummary {
+        BigDecimal totalOutstanding;
+        int overdueCount;
+        List<Customer> customers;
+    }
 }
@@ -0,0 +1,182 @@
+package com.garage.inventory.gui;
+
+import com.garage.inventory.export.DelimitedExporter;
+import com.garage.inventory.export.ExportFormat;
+import com.garage.inventory.export.ExportSource;
+import javax.swing.*;
+import javax.swing.filechooser.FileFilter;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * ExportDialog asks for a CSV or tab separated file and writes an ExportSource to it
+ * The export runs on its own background thread, not on the screen loaders, so a long export never
+ * holds up screen loads; the dialog shows the rows written so far and a Cancel button that stops
+ * the export and deletes the partly written file
+ * It is not modal, so the rest of the application can be used while an export runs
+ */
+public class ExportDialog extends JDialog {
+    private final ExportSource source;
+    private final ExportFormat format;
+    private final Path file;
+    private final JProgressBar progressBar;
+    private final JButton cancelButton;
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+    // Rows the export will write, or -1 while unknown
+    private volatile long totalRows = -1;
+
+    private ExportDialog(Window owner, ExportSource source, ExportFormat format, Path file) {
+        super(owner, "Export", ModalityType.MODELESS);
+        this.source = source;
+        this.format = format;
+        this.file = file;
+
+        progressBar = new JProgressBar();
+        progressBar.setIndeterminate(true);
+        progressBar.setStringPainted(true);
+        progressBar.setString("Starting...");
+        progressBar.setPreferredSize(new Dimension(350, 20));
+
+        cancelButton = new JButton("Cancel");
+        cancelButton.addActionListener(e -> cancel());
+
+        JPanel panel = new JPanel(new BorderLayout(10, 10));
+        panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        panel.add(new JLabel("Exporting to " + file.getFileName()), BorderLayout.NORTH);
+        panel.add(progressBar, BorderLayout.CENTER);
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttonPanel.add(cancelButton);
+        panel.add(buttonPanel, BorderLayout.SOUTH);
+
+        setContentPane(panel);
+        setDefaultCloseOperation(DO_NOTHING_ON_CLOSE);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                cancel();
+            }
+        });
+        pack();
+        setLocationRelativeTo(owner);
+    }
+
+    /**
+     * Asks for the file to export to, then exports in the background while showing the progress
+     * The format is taken from the chosen file type, or from the file name's extension
+     *
+     * @param parent Component the dialogs are shown over
+     * @param defaultName Suggested file name, without extension
+     * @param source The columns and rows to export
+     */
+    public static void export(Component parent, String defaultName, ExportSource source) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Export");
+        chooser.setAcceptAllFileFilterUsed(false);
+        for (ExportFormat format : ExportFormat.values()) {
+            chooser.addChoosableFileFilter(new FileNameExtensionFilter(format.getDescription(), format.getExtension()));
+        }
+        chooser.setFileFilter(chooser.getChoosableFileFilters()[0]);
+        chooser.setSelectedFile(new File(defaultName + "." + ExportFormat.CSV.getExtension()));
+        if (chooser.showSaveDialog(parent) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        File selected = chooser.getSelectedFile();
+        ExportFormat format = ExportFormat.fromFileName(selected.getName());
+        if (format == null) {
+            format = formatOf(chooser.getFileFilter());
+            selected = new File(selected.getPath() + "." + format.getExtension());
+        }
+        if (selected.exists()) {
+            int choice = JOptionPane.showConfirmDialog(parent,
+                    selected.getName() + " already exists. Replace it?", "Confirm Export",
+                    JOptionPane.YES_NO_OPTION);
+            if (choice != JOptionPane.YES_OPTION) {
+                return;
+            }
+        }
+
+        Window owner = parent instanceof Window ? (Window) parent : SwingUtilities.getWindowAncestor(parent);
+        ExportDialog dialog = new ExportDialog(owner, source, format, selected.toPath());
+        dialog.setVisible(true);
+        dialog.start();
+    }
+
+    private static ExportFormat formatOf(FileFilter filter) {
+        for (ExportFormat format : ExportFormat.values()) {
+            if (filter != null && format.getDescription().equals(filter.getDescription())) {
+                return format;
+            }
+        }
+        return ExportFormat.CSV;
+    }
+
+    private void start() {
+        new SwingWorker<Long, Long>() {
+            @Override
+            protected Long doInBackground() throws Exception {
+                totalRows = source.countRows();
+                publish(0L);
+                return DelimitedExporter.export(source, format, file, this::publish, cancelled::get);
+            }
+
+            @Override
+            protected void process(List<Long> written) {
+                showProgress(written.get(written.size() - 1));
+            }
+
+            @Override
+            protected void done() {
+                finished(this);
+            }
+        }.execute();
+    }
+
+    private void cancel() {
+        cancelled.set(true);
+        cancelButton.setEnabled(false);
+        progressBar.setString("Cancelling...");
+    }
+
+    private void showProgress(long written) {
+        if (cancelled.get()) {
+            return;
+        }
+        long total = totalRows;
+        if (total > 0) {
+            progressBar.setIndeterminate(false);
+            progressBar.setMaximum(1000);
+            progressBar.setValue((int) Math.min(1000, written * 1000 / total));
+            progressBar.setString(written + " of " + total + " rows");
+        } else {
+            progressBar.setString(written + " rows");
+        }
+    }
+
+    private void finished(SwingWorker<Long, Long> worker) {
+        dispose();
+        Component parent = getOwner();
+        try {
+            long written = worker.get();
+            if (written < 0) {
+                JOptionPane.showMessageDialog(parent, "Export cancelled.");
+            } else {
+                JOptionPane.showMessageDialog(parent, "Exported " + written + " rows to " + file.getFileName() + ".");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("Error exporting to " + file + ": " + e.getCause().getMessage());
+            e.getCause().printStackTrace();
+            JOptionPane.showMessageDialog(parent, "Export failed: " + e.getCause().getMessage(),
+                    "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+}
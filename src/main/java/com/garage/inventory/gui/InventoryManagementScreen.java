@@ -2,27 +2,36 @@ package com.garage.inventory.gui;
 
 import com.garage.inventory.dao.ItemDAO;
 import com.garage.inventory.dao.SupplierDAO;
+import com.garage.inventory.dao.TableVersions.Table;
 import com.garage.inventory.model.Item;
 import com.garage.inventory.model.Supplier;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * InventoryManagementScreen allows managing spare parts/items
  * Features: Add, Edit, Delete items, View stock quantities in a table
  */
-public class InventoryManagementScreen extends JPanel {
+public class InventoryManagementScreen extends JPanel implements RefreshableScreen {
     private MainApplication mainApp;
     private JTable itemTable;
-    private DefaultTableModel tableModel;
+    private BulkTableModel tableModel;
     private JTextField partNumberField, nameField, descriptionField, categoryField;
     private JTextField unitPriceField, stockQuantityField, minStockLevelField, locationField;
     private JComboBox<Supplier> supplierComboBox;
+    private JLabel suppliedByLabel;
     private ItemDAO itemDAO;
     private SupplierDAO supplierDAO;
+    private final ScreenLoader loader = new ScreenLoader(this, Table.SUPPLIERS, Table.ITEMS);
+    // Loads the suppliers of the selected item
+    private final ScreenLoader suppliedByLoader = new ScreenLoader(this);
+    // Suppliers shown in the combo box, by ID, for naming the selected item's suppliers
+    private Map<Integer, Supplier> suppliersById = new HashMap<>();
     private Item selectedItem;
     
     public InventoryManagementScreen(MainApplication mainApp) {
@@ -32,7 +41,6 @@ public class InventoryManagementScreen extends JPanel {
         
         initializeComponents();
         setupLayout();
-        refreshData();
     }
     
     /**
@@ -52,16 +60,12 @@ public class InventoryManagementScreen extends JPanel {
         locationField = new JTextField(20);
         supplierComboBox = new JComboBox<>();
         supplierComboBox.addItem(new Supplier("", "", "", "")); // Empty option
+        suppliedByLabel = new JLabel(" ");
         
         // Initialize table
         String[] columns = {"ID", "Part Number", "Name", "Category", "Unit Price", 
                            "Stock Qty", "Min Level", "Location", "Supplier"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new BulkTableModel(columns);
         itemTable = new JTable(tableModel);
         itemTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         itemTable.getTableHeader().setFont(new Font("Arial", Font.BOLD, 12));
@@ -97,7 +101,10 @@ public class InventoryManagementScreen extends JPanel {
         
         // Refresh button for table
         JButton refreshButton = new JButton("Refresh");
-        refreshButton.addActionListener(e -> refreshData());
+        refreshButton.addActionListener(e -> {
+            loader.markStale();
+            refreshData();
+        });
         JPanel refreshPanel = new JPanel();
         refreshPanel.add(refreshButton);
         tablePanel.add(refreshPanel, BorderLayout.SOUTH);
@@ -175,6 +182,12 @@ public class InventoryManagementScreen extends JPanel {
         gbc.gridx = 1; gbc.fill = GridBagConstraints.HORIZONTAL;
         panel.add(supplierComboBox, gbc);
         
+        // Every supplier of the selected item: the primary one and the linked ones
+        gbc.gridx = 0; gbc.gridy = ++row; gbc.fill = GridBagConstraints.NONE;
+        panel.add(new JLabel("Supplied by:"), gbc);
+        gbc.gridx = 1; gbc.fill = GridBagConstraints.HORIZONTAL;
+        panel.add(suppliedByLabel, gbc);
+        
         return panel;
     }
     
@@ -185,13 +198,13 @@ public class InventoryManagementScreen extends JPanel {
         JPanel panel = new JPanel(new FlowLayout());
         
         JButton addButton = new JButton("Add New");
-        addButton.addActionListener(e -> addItem());
+        addButton.addActionListener(e -> addItem(addButton));
         
         JButton updateButton = new JButton("Update");
-        updateButton.addActionListener(e -> updateItem());
+        updateButton.addActionListener(e -> updateItem(updateButton));
         
         JButton deleteButton = new JButton("Delete");
-        deleteButton.addActionListener(e -> deleteItem());
+        deleteButton.addActionListener(e -> deleteItem(deleteButton));
         
         JButton clearButton = new JButton("Clear");
         clearButton.addActionListener(e -> clearForm());
@@ -206,25 +219,48 @@ public class InventoryManagementScreen extends JPanel {
     
     /**
      * Refreshes the data - loads all items and suppliers
+     * The queries run in the background; the form and table are updated when they finish
+     * Nothing is reloaded when items and suppliers are unchanged since they were shown
      */
+    @Override
     public void refreshData() {
+        loader.loadIfChanged(null, () -> {
+            InventoryData data = new InventoryData();
+            data.suppliers = supplierDAO.getAllSuppliers();
+            data.items = itemDAO.getAllItems();
+            return data;
+        }, this::showData);
+    }
+    
+    @Override
+    public void cancelLoading() {
+        loader.cancel();
+        suppliedByLoader.cancel();
+    }
+    
+    /**
+     * Shows loaded items and suppliers (runs on the EDT)
+     */
+    private void showData(InventoryData data) {
         // Refresh suppliers combo box
         supplierComboBox.removeAllItems();
         supplierComboBox.addItem(new Supplier("", "", "", "")); // Empty option
-        List<Supplier> suppliers = supplierDAO.getAllSuppliers();
+        List<Supplier> suppliers = data.suppliers;
+        suppliersById = new HashMap<>();
         for (Supplier supplier : suppliers) {
             supplierComboBox.addItem(supplier);
+            suppliersById.put(supplier.getId(), supplier);
         }
         
         // Refresh items table
-        tableModel.setRowCount(0);
-        List<Item> items = itemDAO.getAllItems();
+        List<Item> items = data.items;
+        List<Object[]> rows = new ArrayList<>(items.size());
         for (Item item : items) {
-            Supplier supplier = item.getSupplierId() > 0 ? 
-                supplierDAO.getSupplierById(item.getSupplierId()) : null;
+            // Suppliers were all loaded above, so no per-row lookup is needed
+            Supplier supplier = suppliersById.get(item.getSupplierId());
             String supplierName = supplier != null ? supplier.getName() : "N/A";
             
-            tableModel.addRow(new Object[]{
+            rows.add(new Object[]{
                 item.getId(),
                 item.getPartNumber(),
                 item.getName(),
@@ -236,6 +272,7 @@ public class InventoryManagementScreen extends JPanel {
                 supplierName
             });
         }
+        tableModel.setRows(rows);
     }
     
     /**
@@ -269,14 +306,37 @@ public class InventoryManagementScreen extends JPanel {
                 } else {
                     supplierComboBox.setSelectedIndex(0);
                 }
+                
+                suppliedByLabel.setText("Loading...");
+                int selectedId = selectedItem.getId();
+                suppliedByLoader.load(() -> supplierDAO.getSupplierIdsForItem(selectedId), this::showSuppliedBy);
             }
         }
     }
     
+    /**
+     * Shows the names of the selected item's suppliers (runs on the EDT)
+     */
+    private void showSuppliedBy(List<Integer> supplierIds) {
+        if (supplierIds.isEmpty()) {
+            suppliedByLabel.setText("No suppliers");
+            return;
+        }
+        StringBuilder names = new StringBuilder();
+        for (Integer supplierId : supplierIds) {
+            Supplier supplier = suppliersById.get(supplierId);
+            if (names.length() > 0) {
+                names.append(", ");
+            }
+            names.append(supplier != null ? supplier.getName() : "Supplier #" + supplierId);
+        }
+        suppliedByLabel.setText(names.toString());
+    }
+    
     /**
      * Adds a new item to the inventory
      */
-    private void addItem() {
+    private void addItem(JButton button) {
         if (!validateForm()) return;
         
         Item item = createItemFromForm();
@@ -290,19 +350,21 @@ public class InventoryManagementScreen extends JPanel {
             return;
         }
         
-        if (itemDAO.addItem(item)) {
-            JOptionPane.showMessageDialog(this, "Item added successfully!");
-            clearForm();
-            refreshData();
-        } else {
-            JOptionPane.showMessageDialog(this, "Failed to add item.", "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        ScreenLoader.write(button, () -> itemDAO.addItem(item), saved -> {
+            if (Boolean.TRUE.equals(saved)) {
+                JOptionPane.showMessageDialog(this, "Item added successfully!");
+                clearForm();
+                refreshData();
+            } else {
+                JOptionPane.showMessageDialog(this, "Failed to add item.", "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        });
     }
     
     /**
      * Updates an existing item
      */
-    private void updateItem() {
+    private void updateItem(JButton button) {
         if (selectedItem == null) {
             JOptionPane.showMessageDialog(this, "Please select an item to update.", "Error", JOptionPane.ERROR_MESSAGE);
             return;
@@ -324,20 +386,22 @@ public class InventoryManagementScreen extends JPanel {
             return;
         }
         
-        if (itemDAO.updateItem(item)) {
-            JOptionPane.showMessageDialog(this, "Item updated successfully!");
-            clearForm();
-            selectedItem = null;
-            refreshData();
-        } else {
-            JOptionPane.showMessageDialog(this, "Failed to update item.", "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        ScreenLoader.write(button, () -> itemDAO.updateItem(item), saved -> {
+            if (Boolean.TRUE.equals(saved)) {
+                JOptionPane.showMessageDialog(this, "Item updated successfully!");
+                clearForm();
+                selectedItem = null;
+                refreshData();
+            } else {
+                JOptionPane.showMessageDialog(this, "Failed to update item.", "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        });
     }
     
     /**
      * Deletes the selected item
      */
-    private void deleteItem() {
+    private void deleteItem(JButton button) {
         if (selectedItem == null) {
             JOptionPane.showMessageDialog(this, "Please select an item to delete.", "Error", JOptionPane.ERROR_MESSAGE);
             return;
@@ -349,14 +413,17 @@ public class InventoryManagementScreen extends JPanel {
             JOptionPane.YES_NO_OPTION);
         
         if (confirm == JOptionPane.YES_OPTION) {
-            if (itemDAO.deleteItem(selectedItem.getId())) {
-                JOptionPane.showMessageDialog(this, "Item deleted successfully!");
-                clearForm();
-                selectedItem = null;
-                refreshData();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to delete item.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            int itemId = selectedItem.getId();
+            ScreenLoader.write(button, () -> itemDAO.deleteItem(itemId), deleted -> {
+                if (Boolean.TRUE.equals(deleted)) {
+                    JOptionPane.showMessageDialog(this, "Item deleted successfully!");
+                    clearForm();
+                    selectedItem = null;
+                    refreshData();
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to delete item.", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         }
     }
     
@@ -373,6 +440,8 @@ public class InventoryManagementScreen extends JPanel {
         minStockLevelField.setText("");
         locationField.setText("");
         supplierComboBox.setSelectedIndex(0);
+        suppliedByLoader.cancel();
+        suppliedByLabel.setText(" ");
         selectedItem = null;
         itemTable.clearSelection();
     }
@@ -438,5 +507,12 @@ public class InventoryManagementScreen extends JPanel {
             return null;
         }
     }
+    
+    /**
+     * Screen data loaded together in the background
+     */
+    private static class InventoryData {
+        List<Supplier> suppliers;
+        List<Item> items;
+    }
 }
-
@@ -0,0 +1,323 @@
+package com.garage.inventory.gui;
+
+import com.garage.inventory.dao.ItemDAO;
+import com.garage.inventory.model.Item;
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * ItemPicker is a typeahead replacement for a JComboBox holding every item
+ * As the user types a part number or words of a name, the best matches from the item catalog's
+ * search index are shown in a popup list; Up/Down move through it, Enter or a click picks an item
+ * and Escape closes it
+ * Listeners added with addActionListener() are told whenever the picked item changes
+ *
+ * A barcode scanner types a part number and Enter far faster than a person can, so a burst of
+ * keystrokes ending in Enter is treated as a scan and handed to the listeners added with
+ * addScanListener(); without scan listeners the scanned part number is simply looked up and picked
+ * The search waits until typing pauses, so a scan does not run a search for every character, and
+ * runs on the loader threads, as the first search may have to load the catalog
+ */
+public class ItemPicker extends JPanel {
+    private static final int MAX_MATCHES = 12;
+    // Keystrokes at most this far apart belong to one scanner burst
+    private static final long SCAN_KEY_INTERVAL_MS = 50;
+    // Shortest burst taken as a scan rather than fast typing
+    private static final int MIN_SCAN_LENGTH = 3;
+    // Pause in typing after which the search runs
+    private static final int SEARCH_DELAY_MS = 80;
+
+    private final ItemDAO itemDAO;
+    private final JTextField textField;
+    private final JPopupMenu popup;
+    private final DefaultListModel<Item> matchesModel;
+    private final JList<Item> matchesList;
+    private final List<ActionListener> listeners = new ArrayList<>();
+    private final List<Consumer<String>> scanListeners = new ArrayList<>();
+    private final Timer searchTimer;
+    private final ScreenLoader searchLoader;
+    // Characters of the current keystroke burst and when its last key was typed
+    private final StringBuilder burst = new StringBuilder();
+    private long lastKeyTime = 0;
+    private Item selectedItem;
+    // Set while the text is changed by the picker itself, so it does not start a search
+    private boolean updatingText = false;
+    // Set when a scanned part number should pick the best match as soon as the search returns
+    private boolean pickBestMatch = false;
+
+    /**
+     * @param itemDAO Used to search the items
+     */
+    public ItemPicker(ItemDAO itemDAO) {
+        super(new BorderLayout());
+        this.itemDAO = itemDAO;
+
+        textField = new JTextField(20);
+        matchesModel = new DefaultListModel<>();
+        matchesList = new JList<>(matchesModel);
+        matchesList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        matchesList.setFocusable(false);
+
+        popup = new JPopupMenu();
+        popup.setFocusable(false);
+        popup.setLayout(new BorderLayout());
+        popup.add(new JScrollPane(matchesList), BorderLayout.CENTER);
+
+        searchTimer = new Timer(SEARCH_DELAY_MS, e -> search());
+        searchTimer.setRepeats(false);
+        searchLoader = new ScreenLoader(this);
+
+        add(textField, BorderLayout.CENTER);
+        attachEventListeners();
+    }
+
+    private void attachEventListeners() {
+        textField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                textChanged();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                textChanged();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                textChanged();
+            }
+        });
+
+        textField.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyTyped(KeyEvent e) {
+                char c = e.getKeyChar();
+                if (Character.isISOControl(c) || c == KeyEvent.CHAR_UNDEFINED) {
+                    return;
+                }
+                if (e.getWhen() - lastKeyTime > SCAN_KEY_INTERVAL_MS) {
+                    burst.setLength(0);
+                }
+                burst.append(c);
+                lastKeyTime = e.getWhen();
+            }
+
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_ENTER && isScan(e.getWhen())) {
+                    String partNumber = burst.toString();
+                    burst.setLength(0);
+                    if (!scanListeners.isEmpty()) {
+                        e.consume();
+                        scanned(partNumber);
+                        return;
+                    }
+                    // Nobody handles scans: search now and pick the best match when it returns
+                    searchTimer.stop();
+                    pickBestMatch = true;
+                    search();
+                    e.consume();
+                    return;
+                }
+                if (!popup.isVisible()) {
+                    return;
+                }
+                int index = matchesList.getSelectedIndex();
+                if (e.getKeyCode() == KeyEvent.VK_DOWN) {
+                    matchesList.setSelectedIndex(Math.min(index + 1, matchesModel.size() - 1));
+                    matchesList.ensureIndexIsVisible(matchesList.getSelectedIndex());
+                    e.consume();
+                } else if (e.getKeyCode() == KeyEvent.VK_UP) {
+                    matchesList.setSelectedIndex(Math.max(index - 1, 0));
+                    matchesList.ensureIndexIsVisible(matchesList.getSelectedIndex());
+                    e.consume();
+                } else if (e.getKeyCode() == KeyEvent.VK_ENTER) {
+                    Item match = matchesList.getSelectedValue();
+                    if (match != null) {
+                        setSelectedItem(match);
+                    }
+                    e.consume();
+                } else if (e.getKeyCode() == KeyEvent.VK_ESCAPE) {
+                    popup.setVisible(false);
+                    e.consume();
+                }
+            }
+        });
+
+        matchesList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                Item match = matchesList.getSelectedValue();
+                if (match != null) {
+                    setSelectedItem(match);
+                }
+            }
+        });
+
+        textField.addFocusListener(new FocusAdapter() {
+            @Override
+            public void focusLost(FocusEvent e) {
+                popup.setVisible(false);
+            }
+        });
+    }
+
+    /**
+     * Clears the picked item once its text is edited, and schedules a search
+     */
+    private void textChanged() {
+        if (updatingText) {
+            return;
+        }
+        if (selectedItem != null) {
+            // The user is editing the text of a picked item: it no longer names that item
+            selectedItem = null;
+            fireSelectionChanged();
+        }
+        searchTimer.restart();
+    }
+
+    /**
+     * Checks whether an Enter ends a scanner burst
+     *
+     * @param enterTime When Enter was pressed
+     * @return true if the keys before it came in as one fast burst
+     */
+    private boolean isScan(long enterTime) {
+        return burst.length() >= MIN_SCAN_LENGTH && enterTime - lastKeyTime <= SCAN_KEY_INTERVAL_MS;
+    }
+
+    /**
+     * Clears the text typed by the scanner and passes the part number to the scan listeners
+     */
+    private void scanned(String partNumber) {
+        setSelectedItem(null);
+        for (Consumer<String> listener : scanListeners) {
+            listener.accept(partNumber);
+        }
+    }
+
+    /**
+     * Searches the catalog for the current text in the background, replacing any search still running
+     */
+    private void search() {
+        if (selectedItem != null) {
+            pickBestMatch = false;
+            return;
+        }
+        String query = textField.getText().trim();
+        if (query.isEmpty()) {
+            pickBestMatch = false;
+            searchLoader.cancel();
+            matchesModel.clear();
+            popup.setVisible(false);
+            return;
+        }
+        searchLoader.load(() -> itemDAO.searchItems(query, MAX_MATCHES), this::showMatches);
+    }
+
+    /**
+     * Shows the matches of the last search (runs on the EDT)
+     */
+    private void showMatches(List<Item> matches) {
+        if (selectedItem != null) {
+            return;
+        }
+        if (pickBestMatch) {
+            pickBestMatch = false;
+            if (!matches.isEmpty()) {
+                setSelectedItem(matches.get(0));
+                return;
+            }
+        }
+        matchesModel.clear();
+        for (Item match : matches) {
+            matchesModel.addElement(match);
+        }
+        if (matchesModel.isEmpty() || !textField.isShowing()) {
+            popup.setVisible(false);
+            return;
+        }
+
+        matchesList.setSelectedIndex(0);
+        matchesList.setVisibleRowCount(Math.min(matchesModel.size(), 8));
+        popup.setPopupSize(Math.max(textField.getWidth(), 300), popup.getPreferredSize().height);
+        popup.pack();
+        popup.show(textField, 0, textField.getHeight());
+        textField.requestFocusInWindow();
+    }
+
+    /**
+     * Gets the picked item
+     *
+     * @return The item, or null if no item is picked
+     */
+    public Item getSelectedItem() {
+        return selectedItem;
+    }
+
+    /**
+     * Picks an item and shows it in the text field
+     *
+     * @param item The item, or null to clear the picker
+     */
+    public void setSelectedItem(Item item) {
+        searchTimer.stop();
+        searchLoader.cancel();
+        pickBestMatch = false;
+        popup.setVisible(false);
+        updatingText = true;
+        try {
+            textField.setText(item != null ? item.toString() : "");
+        } finally {
+            updatingText = false;
+        }
+        selectedItem = item;
+        fireSelectionChanged();
+    }
+
+    /**
+     * Registers a listener called whenever the picked item changes
+     *
+     * @param listener The listener
+     */
+    public void addActionListener(ActionListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Registers a listener called with the part number of each barcode scan
+     * Scanned part numbers then no longer pick an item in this picker
+     *
+     * @param listener The listener
+     */
+    public void addScanListener(Consumer<String> listener) {
+        scanListeners.add(listener);
+    }
+
+    @Override
+    public boolean requestFocusInWindow() {
+        return textField.requestFocusInWindow();
+    }
+
+    private void fireSelectionChanged() {
+        ActionEvent event = new ActionEvent(this, ActionEvent.ACTION_PERFORMED, "itemSelected");
+        for (ActionListener listener : listeners) {
+            listener.actionPerformed(event);
+        }
+    }
+}
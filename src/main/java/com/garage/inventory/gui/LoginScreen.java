@@ -134,7 +134,9 @@ public class LoginScreen extends JFrame {
         }
         
         // Authenticate with database
+        StartupTimer.start();
         if (adminDAO.authenticate(username, password) != null) {
+            StartupTimer.mark("Authenticated");
             // Login successful - open main dashboard
             dispose(); // Close login window
             SwingUtilities.invokeLater(new Runnable() {
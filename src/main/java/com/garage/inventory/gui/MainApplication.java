@@ -5,29 +5,48 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.util.HashMap;
+import java.util.Map;
+import com.garage.inventory.dao.CustomerDAO;
+import com.garage.inventory.dao.ExportDAO;
+import com.garage.inventory.dao.ExportDAO.ExportTable;
+import com.garage.inventory.dao.ItemDAO;
+import com.garage.inventory.dao.RollupDAO;
+import com.garage.inventory.dao.SupplierDAO;
 import com.garage.inventory.database.DatabaseConnection;
+import com.garage.inventory.export.ExportSource;
 
 /**
  * MainApplication is the main window that contains all screens
  * Manages navigation between different screens using a card layout
+ * Each screen is built the first time it is shown, so login only pays for the dashboard
  */
 public class MainApplication extends JFrame {
     private CardLayout cardLayout;
     private JPanel mainPanel;
-    private DashboardScreen dashboardScreen;
-    private InventoryManagementScreen inventoryScreen;
-    private PurchaseScreen purchaseScreen;
-    private SalesScreen salesScreen;
-    private ReportsScreen reportsScreen;
-    private SuppliersScreen suppliersScreen;
-    private CustomersScreen customersScreen;
-    private DebtScreen debtScreen;
+    // Screens built so far, by card name, so navigation can refresh the new screen and cancel the old one
+    private final Map<String, RefreshableScreen> screens = new HashMap<>();
+    private String currentScreen;
+    private JProgressBar loadingBar;
+    private JLabel statusLabel;
+    private boolean painted = false;
 
     public MainApplication() {
         initializeComponents();
         setupLayout();
         setupMenuBar();
         attachEventListeners();
+        StartupTimer.mark("Main window built");
+        prefetchReferenceData();
+    }
+
+    @Override
+    public void paint(Graphics g) {
+        super.paint(g);
+        if (!painted) {
+            painted = true;
+            StartupTimer.mark(StartupTimer.FIRST_PAINT);
+        }
     }
 
     /**
@@ -41,38 +60,118 @@ public class MainApplication extends JFrame {
 
         cardLayout = new CardLayout();
         mainPanel = new JPanel(cardLayout);
-
-        // Initialize all screens
-        dashboardScreen = new DashboardScreen(this);
-        inventoryScreen = new InventoryManagementScreen(this);
-        purchaseScreen = new PurchaseScreen(this);
-        salesScreen = new SalesScreen(this);
-        reportsScreen = new ReportsScreen(this);
-        suppliersScreen = new SuppliersScreen(this);
-        customersScreen = new CustomersScreen(this);
-        debtScreen = new DebtScreen(this); // FIXED: Pass 'this' parameter
     }
 
     /**
-     * Sets up the card layout with all screens
+     * Sets up the card layout; screens are added to it as they are first shown
      */
     private void setupLayout() {
-        // Add all screens to card layout
-        mainPanel.add(dashboardScreen, "DASHBOARD");
-        mainPanel.add(inventoryScreen, "INVENTORY");
-        mainPanel.add(purchaseScreen, "PURCHASE");
-        mainPanel.add(salesScreen, "SALES");
-        mainPanel.add(reportsScreen, "REPORTS");
-        mainPanel.add(suppliersScreen, "SUPPLIERS");
-        mainPanel.add(customersScreen, "CUSTOMERS");
-        mainPanel.add(debtScreen, "DEBT"); // ADDED: Debt screen
-
         add(mainPanel, BorderLayout.CENTER);
+        add(createStatusBar(), BorderLayout.SOUTH);
 
         // Show dashboard by default
         showScreen("DASHBOARD");
     }
 
+    /**
+     * Creates the screen for a card name
+     *
+     * @param screenName The name of the screen
+     * @return The new screen, or null if the name is unknown
+     */
+    private JPanel createScreen(String screenName) {
+        switch (screenName) {
+            case "DASHBOARD":
+                return new DashboardScreen(this);
+            case "INVENTORY":
+                return new InventoryManagementScreen(this);
+            case "PURCHASE":
+                return new PurchaseScreen(this);
+            case "SALES":
+                return new SalesScreen(this);
+            case "REPORTS":
+                return new ReportsScreen(this);
+            case "SUPPLIERS":
+                return new SuppliersScreen(this);
+            case "CUSTOMERS":
+                return new CustomersScreen(this);
+            case "DEBT":
+                return new DebtScreen(this);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Gets a screen, building it and adding it to the card layout the first time
+     *
+     * @param screenName The name of the screen
+     * @return The screen, or null if the name is unknown
+     */
+    private RefreshableScreen getScreen(String screenName) {
+        RefreshableScreen screen = screens.get(screenName);
+        if (screen == null) {
+            JPanel panel = createScreen(screenName);
+            if (panel == null) {
+                return null;
+            }
+            mainPanel.add(panel, screenName);
+            screen = (RefreshableScreen) panel;
+            screens.put(screenName, screen);
+            StartupTimer.mark(screenName + " screen built");
+        }
+        return screen;
+    }
+
+    /**
+     * Loads the reference data most screens need in parallel, while the dashboard loads
+     * The item catalog is filled so item lookups and low stock checks are answered from memory;
+     * the customer and supplier lists are read once so their pooled connections and prepared
+     * statements are ready before the first screen that lists them is opened
+     * The sales and purchase rollups are rebuilt if they do not match the history yet
+     */
+    private void prefetchReferenceData() {
+        ScreenLoader.runInBackground(() -> {
+            new ItemDAO().getAllItems();
+            StartupTimer.mark("Item catalog prefetched");
+        });
+        ScreenLoader.runInBackground(() -> {
+            new CustomerDAO().getAllCustomers();
+            StartupTimer.mark("Customers prefetched");
+        });
+        ScreenLoader.runInBackground(() -> {
+            new SupplierDAO().getAllSuppliers();
+            StartupTimer.mark("Suppliers prefetched");
+        });
+        ScreenLoader.runInBackground(() -> {
+            new RollupDAO().backfillIfNeeded();
+            StartupTimer.mark("Rollups checked");
+        });
+    }
+
+    /**
+     * Creates the status bar that shows when screen data is loading in the background
+     */
+    private JPanel createStatusBar() {
+        JPanel statusBar = new JPanel(new BorderLayout(10, 0));
+        statusBar.setBorder(BorderFactory.createEmptyBorder(2, 10, 2, 10));
+
+        statusLabel = new JLabel("Ready");
+        loadingBar = new JProgressBar();
+        loadingBar.setIndeterminate(true);
+        loadingBar.setPreferredSize(new Dimension(150, 14));
+        loadingBar.setVisible(false);
+
+        statusBar.add(statusLabel, BorderLayout.CENTER);
+        statusBar.add(loadingBar, BorderLayout.EAST);
+
+        ScreenLoader.setActivityListener(activeLoads -> {
+            loadingBar.setVisible(activeLoads > 0);
+            statusLabel.setText(activeLoads > 0 ? "Loading..." : "Ready");
+        });
+        return statusBar;
+    }
+
     /**
      * Creates the menu bar for navigation
      */
@@ -130,6 +229,17 @@ public class MainApplication extends JFrame {
         JMenu fileMenu = new JMenu("File");
         fileMenu.setMnemonic('F');
 
+        // Whole tables are streamed to the file, however large they are
+        JMenu exportMenu = new JMenu("Export Table");
+        exportMenu.setMnemonic('E');
+        ExportDAO exportDAO = new ExportDAO();
+        for (ExportTable table : ExportTable.values()) {
+            JMenuItem exportItem = new JMenuItem(table.getTitle() + "...");
+            exportItem.addActionListener(e -> ExportDialog.export(this, table.getTableName(),
+                    ExportSource.ofTable(exportDAO, table)));
+            exportMenu.add(exportItem);
+        }
+
         JMenuItem logoutItem = new JMenuItem("Logout");
         logoutItem.setMnemonic('L');
         logoutItem.addActionListener(e -> logout());
@@ -138,6 +248,8 @@ public class MainApplication extends JFrame {
         exitItem.setMnemonic('x');
         exitItem.addActionListener(e -> exitApplication());
 
+        fileMenu.add(exportMenu);
+        fileMenu.addSeparator();
         fileMenu.add(logoutItem);
         fileMenu.addSeparator();
         fileMenu.add(exitItem);
@@ -166,26 +278,20 @@ public class MainApplication extends JFrame {
      * @param screenName The name of the screen to show
      */
     public void showScreen(String screenName) {
-        cardLayout.show(mainPanel, screenName);
+        RefreshableScreen screen = getScreen(screenName);
+        if (screen == null) {
+            return;
+        }
 
-        // Refresh dashboard when shown
-        if (screenName.equals("DASHBOARD")) {
-            dashboardScreen.refreshData();
-        } else if (screenName.equals("INVENTORY")) {
-            inventoryScreen.refreshData();
-        } else if (screenName.equals("PURCHASE")) {
-            purchaseScreen.refreshData();
-        } else if (screenName.equals("SALES")) {
-            salesScreen.refreshData();
-        } else if (screenName.equals("REPORTS")) {
-            reportsScreen.refreshData();
-        } else if (screenName.equals("SUPPLIERS")) {
-            suppliersScreen.refreshData();
-        } else if (screenName.equals("CUSTOMERS")) {
-            customersScreen.refreshData();
-        } else if (screenName.equals("DEBT")) { // ADDED
-            debtScreen.refreshData();
+        // Stop loading data for the screen being left; its results would not be seen
+        if (currentScreen != null && !currentScreen.equals(screenName)) {
+            screens.get(currentScreen).cancelLoading();
         }
+        currentScreen = screenName;
+        cardLayout.show(mainPanel, screenName);
+
+        // Refresh the screen when shown; the data loads in the background
+        screen.refreshData();
     }
 
     /**
@@ -200,6 +306,8 @@ public class MainApplication extends JFrame {
         );
 
         if (confirm == JOptionPane.YES_OPTION) {
+            screens.get(currentScreen).cancelLoading();
+            ScreenLoader.setActivityListener(null);
             dispose();
             new LoginScreen().setVisible(true);
         }
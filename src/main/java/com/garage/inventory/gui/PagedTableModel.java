@@ -0,0 +1,233 @@
+package com.garage.inventory.gui;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * PagedTableModel shows a long, newest first history without loading all of it
+ * Rows are fetched one page at a time on the loader threads using keyset pagination: a page is
+ * requested as "the next pageSize rows after the last row of the previous page"
+ * The row count grows as the user scrolls towards the end, and only the most recently used
+ * maxPages pages are kept in memory; a page that was dropped is fetched again when scrolled back
+ * into view, starting from the key remembered for it
+ * Rows that are not loaded yet show as "Loading..." until their page arrives
+ *
+ * All methods must be called on the EDT
+ *
+ * @param <R> The row type, which must carry its own pagination key
+ */
+public abstract class PagedTableModel<R> extends AbstractTableModel {
+
+    /**
+     * Fetches pages of rows; called on a loader thread
+     *
+     * @param <R> The row type
+     */
+    public interface PageSource<R> {
+        /**
+         * @param after The last row of the previous page, or null for the first page
+         * @param limit Maximum number of rows to return
+         * @return Up to limit rows following after; fewer means the end was reached
+         */
+        List<R> fetchPage(R after, int limit);
+    }
+
+    private static final String LOADING = "Loading...";
+
+    private final String[] columns;
+    private final PageSource<R> source;
+    private final int pageSize;
+    private final int maxPages;
+
+    // pageAfter.get(n) is the row page n starts after (null for page 0); the last entry belongs to
+    // the next page still to be fetched, unless the end was reached
+    private final List<R> pageAfter = new ArrayList<>();
+    // Loaded pages in least recently used order
+    private final LinkedHashMap<Integer, List<R>> pages;
+    private final Set<Integer> pending = new HashSet<>();
+    private int rowCount = 0;
+    private boolean endReached = false;
+    // Incremented by reset(); pages fetched for an earlier generation are dropped
+    private int generation = 0;
+
+    /**
+     * @param columns Column names
+     * @param source Fetches the pages
+     * @param pageSize Rows per page
+     * @param maxPages Pages kept in memory at most
+     */
+    public PagedTableModel(String[] columns, PageSource<R> source, int pageSize, int maxPages) {
+        this.columns = columns;
+        this.source = source;
+        this.pageSize = pageSize;
+        this.maxPages = maxPages;
+        this.pages = new LinkedHashMap<Integer, List<R>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<R>> eldest) {
+                return size() > PagedTableModel.this.maxPages;
+            }
+        };
+    }
+
+    /**
+     * Gets the value of one column of a row
+     *
+     * @param row The row
+     * @param column The column index
+     * @return The value to show
+     */
+    protected abstract Object getColumnValue(R row, int column);
+
+    /**
+     * Drops every loaded page and starts again from the first page
+     * Used when the underlying table changed
+     */
+    public void reset() {
+        generation++;
+        pageAfter.clear();
+        pages.clear();
+        pending.clear();
+        rowCount = 0;
+        endReached = false;
+        pageAfter.add(null);
+        fireTableDataChanged();
+        requestPage(0);
+    }
+
+    /**
+     * Drops every loaded page and shows no rows, without fetching anything
+     * Used when there is nothing to page through, such as no selection for a detail table
+     */
+    public void clear() {
+        generation++;
+        pageAfter.clear();
+        pages.clear();
+        pending.clear();
+        rowCount = 0;
+        endReached = true;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Gets a row if its page is loaded, without triggering a fetch
+     *
+     * @param rowIndex The row index
+     * @return The row, or null if its page is not in memory
+     */
+    public R getRow(int rowIndex) {
+        List<R> page = pages.get(rowIndex / pageSize);
+        int offset = rowIndex % pageSize;
+        return page != null && offset < page.size() ? page.get(offset) : null;
+    }
+
+    /**
+     * @return Number of pages currently held in memory
+     */
+    public int getLoadedPageCount() {
+        return pages.size();
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        int pageIndex = rowIndex / pageSize;
+        List<R> page = pages.get(pageIndex);
+        if (page == null) {
+            requestPage(pageIndex);
+            return columnIndex == 0 ? LOADING : "";
+        }
+        // Showing the last counted page: fetch the one after it so the table grows while scrolling
+        if (!endReached && pageIndex == pageAfter.size() - 2) {
+            requestPage(pageIndex + 1);
+        }
+        int offset = rowIndex % pageSize;
+        return offset < page.size() ? getColumnValue(page.get(offset), columnIndex) : "";
+    }
+
+    private void requestPage(int pageIndex) {
+        if (pageIndex >= pageAfter.size() || pages.containsKey(pageIndex) || !pending.add(pageIndex)) {
+            return;
+        }
+        int requestGeneration = generation;
+        R after = pageAfter.get(pageIndex);
+        ScreenLoader.runInBackground(() -> {
+            List<R> rows;
+            try {
+                rows = source.fetchPage(after, pageSize);
+            } catch (RuntimeException e) {
+                System.err.println("Error fetching page " + pageIndex + ": " + e.getMessage());
+                e.printStackTrace();
+                rows = null;
+            }
+            List<R> fetched = rows;
+            SwingUtilities.invokeLater(() -> pageLoaded(requestGeneration, pageIndex, fetched));
+        });
+    }
+
+    /**
+     * Stores a fetched page and grows the table if it was the next page to discover
+     *
+     * @param rows The fetched rows, or null if the fetch failed; the page is then requested
+     *             again the next time one of its rows is shown, or on the next reset()
+     */
+
+    private void pageLoaded(int requestGeneration, int pageIndex, List<R> rows) {
+        if (requestGeneration != generation) {
+            return; // Fetched before a reset()
+        }
+        pending.remove(pageIndex);
+        if (rows == null) {
+            return;
+        }
+        boolean discovered = pageIndex == pageAfter.size() - 1 && !endReached;
+        if (!discovered && rows.isEmpty()) {
+            // A page dropped from memory always had rows; an empty refetch means the DAO hit an
+            // error (it returns an empty list then), so keep showing "Loading..." and retry later
+            return;
+        }
+        pages.put(pageIndex, rows);
+
+        if (discovered) {
+            // A newly discovered page: it extends the table
+            if (rows.size() == pageSize) {
+                pageAfter.add(rows.get(rows.size() - 1));
+            } else {
+                endReached = true;
+            }
+            int firstRow = rowCount;
+            rowCount += rows.size();
+            if (rowCount > firstRow) {
+                fireTableRowsInserted(firstRow, rowCount - 1);
+            }
+        } else {
+            // A page fetched again after being dropped from memory
+            int firstRow = pageIndex * pageSize;
+            fireTableRowsUpdated(firstRow, Math.min(firstRow + pageSize, rowCount) - 1);
+        }
+    }
+}
@@ -3,12 +3,18 @@ package com.garage.inventory.gui;
 import com.garage.inventory.dao.ItemDAO;
 import com.garage.inventory.dao.PurchaseDAO;
 import com.garage.inventory.dao.SupplierDAO;
+import com.garage.inventory.dao.TableVersions.Table;
 import com.garage.inventory.model.Item;
 import com.garage.inventory.model.Purchase;
+import com.garage.inventory.model.PurchaseInvoice;
+import com.garage.inventory.model.PurchaseRow;
 import com.garage.inventory.model.Supplier;
 import javax.swing.*;
+import javax.swing.event.TableModelEvent;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
 import java.math.BigDecimal;
 import java.sql.Date;
 import java.util.List;
@@ -16,19 +22,31 @@ import java.util.List;
 /**
  * PurchaseScreen allows recording purchases and automatically updates stock
  * When items are purchased, the stock quantity is increased automatically
+ * Whole supplier deliveries can be keyed into the receiving grid and recorded as one invoice
  */
-public class PurchaseScreen extends JPanel {
+public class PurchaseScreen extends JPanel implements RefreshableScreen {
+    // History rows per page, and pages kept in memory while scrolling
+    private static final int HISTORY_PAGE_SIZE = 100;
+    private static final int HISTORY_MAX_PAGES = 20;
+    
     private MainApplication mainApp;
-    private JComboBox<Item> itemComboBox;
+    private ItemPicker itemPicker;
     private JComboBox<Supplier> supplierComboBox;
     private JTextField quantityField, unitPriceField, totalAmountField;
     private JTextField invoiceNumberField, notesField;
     private JSpinner purchaseDateSpinner;
     private JTable purchaseTable;
-    private DefaultTableModel tableModel;
+    private PagedTableModel<PurchaseRow> tableModel;
+    private JComboBox<Supplier> receivingSupplierComboBox;
+    private JTextField receivingInvoiceField;
+    private JSpinner receivingDateSpinner;
+    private JTable receivingTable;
+    private DefaultTableModel receivingTableModel;
+    private JLabel receivingTotalLabel;
     private ItemDAO itemDAO;
     private SupplierDAO supplierDAO;
     private PurchaseDAO purchaseDAO;
+    private final ScreenLoader loader = new ScreenLoader(this, Table.ITEMS, Table.SUPPLIERS, Table.PURCHASES);
     
     public PurchaseScreen(MainApplication mainApp) {
         this.mainApp = mainApp;
@@ -38,7 +56,6 @@ public class PurchaseScreen extends JPanel {
         
         initializeComponents();
         setupLayout();
-        refreshData();
     }
     
     /**
@@ -47,7 +64,7 @@ public class PurchaseScreen extends JPanel {
     private void initializeComponents() {
         setLayout(new BorderLayout(10, 10));
         
-        itemComboBox = new JComboBox<>();
+        itemPicker = new ItemPicker(itemDAO);
         supplierComboBox = new JComboBox<>();
         supplierComboBox.addItem(new Supplier("", "", "", "")); // Empty option
         
@@ -65,13 +82,23 @@ public class PurchaseScreen extends JPanel {
         purchaseDateSpinner.setEditor(dateEditor);
         purchaseDateSpinner.setValue(java.util.Calendar.getInstance().getTime());
         
-        // Initialize table
+        // Initialize table; purchase history is paged, so only the rows scrolled into view are loaded
         String[] columns = {"ID", "Item", "Supplier", "Quantity", "Unit Price", 
                            "Total", "Date", "Invoice #"};
-        tableModel = new DefaultTableModel(columns, 0) {
+        tableModel = new PagedTableModel<PurchaseRow>(columns, this::fetchPurchasesPage,
+                HISTORY_PAGE_SIZE, HISTORY_MAX_PAGES) {
             @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
+            protected Object getColumnValue(PurchaseRow purchase, int column) {
+                switch (column) {
+                    case 0: return purchase.getId();
+                    case 1: return purchase.getItemName() != null ? purchase.getItemName() : "N/A";
+                    case 2: return purchase.getSupplierName() != null ? purchase.getSupplierName() : "N/A";
+                    case 3: return purchase.getQuantity();
+                    case 4: return "$" + String.format("%.2f", purchase.getUnitPrice());
+                    case 5: return "$" + String.format("%.2f", purchase.getTotalAmount());
+                    case 6: return purchase.getPurchaseDate();
+                    default: return purchase.getInvoiceNumber() != null ? purchase.getInvoiceNumber() : "N/A";
+                }
             }
         };
         purchaseTable = new JTable(tableModel);
@@ -81,6 +108,70 @@ public class PurchaseScreen extends JPanel {
         // Calculate total when quantity or price changes
         quantityField.addActionListener(e -> calculateTotal());
         unitPriceField.addActionListener(e -> calculateTotal());
+        
+        initializeReceivingComponents();
+    }
+    
+    /**
+     * Initializes the invoice receiving grid
+     * Keyboard entry: type a part number, Tab to quantity and unit price,
+     * Enter on the last row starts a new line, Ctrl+Delete removes the current line
+     */
+    private void initializeReceivingComponents() {
+        receivingSupplierComboBox = new JComboBox<>();
+        receivingSupplierComboBox.addItem(new Supplier("", "", "", "")); // Empty option
+        receivingInvoiceField = new JTextField(15);
+        
+        receivingDateSpinner = new JSpinner(new SpinnerDateModel());
+        receivingDateSpinner.setEditor(new JSpinner.DateEditor(receivingDateSpinner, "yyyy-MM-dd"));
+        receivingDateSpinner.setValue(java.util.Calendar.getInstance().getTime());
+        
+        // Column 1 holds the resolved Item, displayed through Item.toString()
+        String[] columns = {"Part #", "Item", "Quantity", "Unit Price", "Total"};
+        receivingTableModel = new DefaultTableModel(columns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return column == 0 || column == 2 || column == 3;
+            }
+        };
+        receivingTable = new JTable(receivingTableModel);
+        receivingTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        receivingTable.setSurrendersFocusOnKeystroke(true);
+        receivingTable.putClientProperty("terminateEditOnFocusLost", Boolean.TRUE);
+        receivingTable.getTableHeader().setFont(new Font("Arial", Font.BOLD, 12));
+        receivingTableModel.addRow(new Object[5]);
+        
+        receivingTableModel.addTableModelListener(e -> {
+            if (e.getType() != TableModelEvent.UPDATE || e.getFirstRow() < 0) {
+                return;
+            }
+            int row = e.getFirstRow();
+            if (e.getColumn() == 0) {
+                resolveReceivingItem(row);
+            } else if (e.getColumn() == 2 || e.getColumn() == 3) {
+                updateReceivingLineTotal(row);
+            }
+        });
+        
+        InputMap inputMap = receivingTable.getInputMap(JComponent.WHEN_ANCESTOR_OF_FOCUSED_COMPONENT);
+        ActionMap actionMap = receivingTable.getActionMap();
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_ENTER, 0), "nextReceivingLine");
+        actionMap.put("nextReceivingLine", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                nextReceivingLine();
+            }
+        });
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_DELETE, KeyEvent.CTRL_DOWN_MASK), "removeReceivingLine");
+        actionMap.put("removeReceivingLine", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                removeReceivingLine();
+            }
+        });
+        
+        receivingTotalLabel = new JLabel("Invoice Total: $0.00");
+        receivingTotalLabel.setFont(new Font("Arial", Font.BOLD, 12));
     }
     
     /**
@@ -93,11 +184,19 @@ public class PurchaseScreen extends JPanel {
         // Button panel
         JPanel buttonPanel = createButtonPanel();
         
-        // Left panel (form + buttons)
+        // Single purchase panel (form + buttons)
+        JPanel singlePanel = new JPanel(new BorderLayout());
+        singlePanel.setBorder(BorderFactory.createTitledBorder("New Purchase"));
+        singlePanel.add(formPanel, BorderLayout.CENTER);
+        singlePanel.add(buttonPanel, BorderLayout.SOUTH);
+        
+        // Left panel (single purchase or whole invoice)
+        JTabbedPane tabbedPane = new JTabbedPane();
+        tabbedPane.addTab("Single Purchase", singlePanel);
+        tabbedPane.addTab("Receive Invoice", createReceivingPanel());
+        
         JPanel leftPanel = new JPanel(new BorderLayout());
-        leftPanel.setBorder(BorderFactory.createTitledBorder("New Purchase"));
-        leftPanel.add(formPanel, BorderLayout.CENTER);
-        leftPanel.add(buttonPanel, BorderLayout.SOUTH);
+        leftPanel.add(tabbedPane, BorderLayout.CENTER);
         leftPanel.setPreferredSize(new Dimension(400, 0));
         
         // Table panel
@@ -108,7 +207,10 @@ public class PurchaseScreen extends JPanel {
         
         // Refresh button
         JButton refreshButton = new JButton("Refresh");
-        refreshButton.addActionListener(e -> refreshData());
+        refreshButton.addActionListener(e -> {
+            loader.markStale();
+            refreshData();
+        });
         JPanel refreshPanel = new JPanel();
         refreshPanel.add(refreshButton);
         tablePanel.add(refreshPanel, BorderLayout.SOUTH);
@@ -136,7 +238,7 @@ public class PurchaseScreen extends JPanel {
         gbc.gridx = 0; gbc.gridy = row;
         panel.add(new JLabel("Item *:"), gbc);
         gbc.gridx = 1; gbc.fill = GridBagConstraints.HORIZONTAL;
-        panel.add(itemComboBox, gbc);
+        panel.add(itemPicker, gbc);
         
         // Supplier
         gbc.gridx = 0; gbc.gridy = ++row; gbc.fill = GridBagConstraints.NONE;
@@ -183,6 +285,60 @@ public class PurchaseScreen extends JPanel {
         return panel;
     }
     
+    /**
+     * Creates the invoice receiving panel (header fields, line grid and buttons)
+     */
+    private JPanel createReceivingPanel() {
+        JPanel panel = new JPanel(new BorderLayout(5, 5));
+        panel.setBorder(BorderFactory.createTitledBorder("Receive Supplier Invoice"));
+        
+        JPanel headerPanel = new JPanel(new GridBagLayout());
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(5, 5, 5, 5);
+        gbc.anchor = GridBagConstraints.WEST;
+        
+        int row = 0;
+        
+        gbc.gridx = 0; gbc.gridy = row;
+        headerPanel.add(new JLabel("Supplier:"), gbc);
+        gbc.gridx = 1; gbc.fill = GridBagConstraints.HORIZONTAL;
+        headerPanel.add(receivingSupplierComboBox, gbc);
+        
+        gbc.gridx = 0; gbc.gridy = ++row; gbc.fill = GridBagConstraints.NONE;
+        headerPanel.add(new JLabel("Invoice Number:"), gbc);
+        gbc.gridx = 1; gbc.fill = GridBagConstraints.HORIZONTAL;
+        headerPanel.add(receivingInvoiceField, gbc);
+        
+        gbc.gridx = 0; gbc.gridy = ++row; gbc.fill = GridBagConstraints.NONE;
+        headerPanel.add(new JLabel("Purchase Date *:"), gbc);
+        gbc.gridx = 1; gbc.fill = GridBagConstraints.HORIZONTAL;
+        headerPanel.add(receivingDateSpinner, gbc);
+        
+        panel.add(headerPanel, BorderLayout.NORTH);
+        panel.add(new JScrollPane(receivingTable), BorderLayout.CENTER);
+        
+        JButton receiveButton = new JButton("Receive Invoice");
+        receiveButton.addActionListener(e -> receiveInvoice(receiveButton));
+        
+        JButton removeButton = new JButton("Remove Line");
+        removeButton.addActionListener(e -> removeReceivingLine());
+        
+        JButton clearButton = new JButton("Clear");
+        clearButton.addActionListener(e -> clearReceiving());
+        
+        JPanel buttonPanel = new JPanel(new FlowLayout());
+        buttonPanel.add(receiveButton);
+        buttonPanel.add(removeButton);
+        buttonPanel.add(clearButton);
+        
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.add(receivingTotalLabel, BorderLayout.NORTH);
+        southPanel.add(buttonPanel, BorderLayout.SOUTH);
+        panel.add(southPanel, BorderLayout.SOUTH);
+        
+        return panel;
+    }
+    
     /**
      * Creates button panel
      */
@@ -190,7 +346,7 @@ public class PurchaseScreen extends JPanel {
         JPanel panel = new JPanel(new FlowLayout());
         
         JButton addButton = new JButton("Record Purchase");
-        addButton.addActionListener(e -> recordPurchase());
+        addButton.addActionListener(e -> recordPurchase(addButton));
         
         JButton clearButton = new JButton("Clear");
         clearButton.addActionListener(e -> clearForm());
@@ -202,45 +358,68 @@ public class PurchaseScreen extends JPanel {
     }
     
     /**
-     * Refreshes data - loads items, suppliers, and purchases
+     * Refreshes data - loads suppliers and the first page of purchases
+     * Items are not loaded here; the item picker searches the item catalog as the user types
+     * The queries run in the background; the forms and table are updated when they finish
+     * Nothing is reloaded when items, suppliers and purchases are unchanged since they were shown
      */
+    @Override
     public void refreshData() {
-        // Refresh items combo box
-        itemComboBox.removeAllItems();
-        List<Item> items = itemDAO.getAllItems();
-        for (Item item : items) {
-            itemComboBox.addItem(item);
-        }
+        loader.loadIfChanged(null, () -> {
+            PurchaseData data = new PurchaseData();
+            data.suppliers = supplierDAO.getAllSuppliers();
+            return data;
+        }, this::showData);
+    }
+    
+    @Override
+    public void cancelLoading() {
+        loader.cancel();
+    }
+    
+    /**
+     * Shows loaded suppliers and purchases (runs on the EDT)
+     */
+    private void showData(PurchaseData data) {
+        // Refresh supplier combo boxes, keeping what a half entered purchase or invoice has selected
+        fillSuppliers(supplierComboBox, data.suppliers);
+        fillSuppliers(receivingSupplierComboBox, data.suppliers);
         
-        // Refresh suppliers combo box
-        supplierComboBox.removeAllItems();
-        supplierComboBox.addItem(new Supplier("", "", "", ""));
-        List<Supplier> suppliers = supplierDAO.getAllSuppliers();
-        for (Supplier supplier : suppliers) {
-            supplierComboBox.addItem(supplier);
-        }
+        // Refresh purchases table; it fetches its first page in the background
+        tableModel.reset();
+    }
+    
+    /**
+     * Replaces the suppliers in a combo box and selects the previously selected supplier again by ID
+     * Falls back to the empty option if that supplier no longer exists
+     */
+    private void fillSuppliers(JComboBox<Supplier> comboBox, List<Supplier> suppliers) {
+        Supplier previous = (Supplier) comboBox.getSelectedItem();
+        int previousId = previous != null ? previous.getId() : 0;
         
-        // Refresh purchases table
-        tableModel.setRowCount(0);
-        List<Purchase> purchases = purchaseDAO.getAllPurchases();
-        for (Purchase purchase : purchases) {
-            Item item = itemDAO.getItemById(purchase.getItemId());
-            Supplier supplier = purchase.getSupplierId() > 0 ? 
-                supplierDAO.getSupplierById(purchase.getSupplierId()) : null;
-            
-            tableModel.addRow(new Object[]{
-                purchase.getId(),
-                item != null ? item.getName() : "N/A",
-                supplier != null ? supplier.getName() : "N/A",
-                purchase.getQuantity(),
-                "$" + String.format("%.2f", purchase.getUnitPrice()),
-                "$" + String.format("%.2f", purchase.getTotalAmount()),
-                purchase.getPurchaseDate(),
-                purchase.getInvoiceNumber() != null ? purchase.getInvoiceNumber() : "N/A"
-            });
+        comboBox.removeAllItems();
+        comboBox.addItem(new Supplier("", "", "", ""));
+        for (Supplier supplier : suppliers) {
+            comboBox.addItem(supplier);
+            if (previousId > 0 && supplier.getId() == previousId) {
+                comboBox.setSelectedItem(supplier);
+            }
         }
     }
     
+    /**
+     * Fetches one page of the purchase history (runs on a loader thread)
+     *
+     * @param after The last purchase of the previous page, or null for the first page
+     * @param limit Maximum number of purchases to return
+     * @return The next purchases, newest first
+     */
+    private List<PurchaseRow> fetchPurchasesPage(PurchaseRow after, int limit) {
+        return after == null
+                ? purchaseDAO.getPurchaseRowsPage(null, 0, limit)
+                : purchaseDAO.getPurchaseRowsPage(after.getPurchaseDate(), after.getId(), limit);
+    }
+    
     /**
      * Calculates total amount based on quantity and unit price
      */
@@ -257,12 +436,13 @@ public class PurchaseScreen extends JPanel {
     
     /**
      * Records a new purchase and updates stock automatically
+     * The purchase is saved in the background while the button is disabled
      */
-    private void recordPurchase() {
+    private void recordPurchase(JButton button) {
         if (!validateForm()) return;
         
         try {
-            Item selectedItem = (Item) itemComboBox.getSelectedItem();
+            Item selectedItem = itemPicker.getSelectedItem();
             if (selectedItem == null) {
                 JOptionPane.showMessageDialog(this, "Please select an item.", "Error", JOptionPane.ERROR_MESSAGE);
                 return;
@@ -288,33 +468,213 @@ public class PurchaseScreen extends JPanel {
                 notes.isEmpty() ? null : notes);
             
             // This automatically updates the stock quantity
-            if (purchaseDAO.addPurchase(purchase)) {
+            ScreenLoader.write(button, () -> purchaseDAO.addPurchase(purchase), saved -> {
+                if (Boolean.TRUE.equals(saved)) {
+                    JOptionPane.showMessageDialog(this, 
+                        "Purchase recorded successfully!\nStock has been updated automatically.",
+                        "Success", JOptionPane.INFORMATION_MESSAGE);
+                    clearForm();
+                    refreshData();
+                } else {
+                    JOptionPane.showMessageDialog(this, 
+                        "Failed to record purchase.\nPlease check:\n- Database connection\n- Item exists in inventory\n- All required fields are filled",
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
+        } catch (Exception e) {
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(this, 
+                "Error recording purchase: " + e.getMessage() + "\n\nCheck the console for details.",
+                "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+    
+    /**
+     * Looks up the part number typed in a receiving line and fills in the item and its price
+     */
+    private void resolveReceivingItem(int row) {
+        Object value = receivingTableModel.getValueAt(row, 0);
+        String partNumber = value != null ? value.toString().trim() : "";
+        Item item = partNumber.isEmpty() ? null : itemDAO.getItemByPartNumber(partNumber);
+        receivingTableModel.setValueAt(item, row, 1);
+        if (item != null && receivingTableModel.getValueAt(row, 3) == null) {
+            receivingTableModel.setValueAt(item.getUnitPrice().toString(), row, 3);
+        }
+        if (item == null && !partNumber.isEmpty()) {
+            Toolkit.getDefaultToolkit().beep();
+        }
+        updateReceivingLineTotal(row);
+    }
+    
+    /**
+     * Recalculates one receiving line total and the invoice total
+     */
+    private void updateReceivingLineTotal(int row) {
+        BigDecimal lineTotal = parseReceivingLineTotal(row);
+        receivingTableModel.setValueAt(lineTotal != null ? "$" + String.format("%.2f", lineTotal) : null, row, 4);
+        
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < receivingTableModel.getRowCount(); i++) {
+            BigDecimal amount = parseReceivingLineTotal(i);
+            if (amount != null) {
+                total = total.add(amount);
+            }
+        }
+        receivingTotalLabel.setText("Invoice Total: $" + String.format("%.2f", total));
+    }
+    
+    /**
+     * Calculates a receiving line total
+     * 
+     * @return Quantity times unit price, or null if either is missing or invalid
+     */
+    private BigDecimal parseReceivingLineTotal(int row) {
+        try {
+            int quantity = Integer.parseInt(String.valueOf(receivingTableModel.getValueAt(row, 2)).trim());
+            BigDecimal unitPrice = new BigDecimal(String.valueOf(receivingTableModel.getValueAt(row, 3)).trim());
+            return unitPrice.multiply(new BigDecimal(quantity));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Moves to the part number of the next receiving line, adding a line at the end of the grid
+     */
+    private void nextReceivingLine() {
+        if (receivingTable.isEditing()) {
+            receivingTable.getCellEditor().stopCellEditing();
+        }
+        int row = Math.max(receivingTable.getSelectedRow(), 0);
+        if (row >= receivingTableModel.getRowCount() - 1) {
+            receivingTableModel.addRow(new Object[5]);
+        }
+        int nextRow = row + 1;
+        receivingTable.changeSelection(nextRow, 0, false, false);
+        receivingTable.editCellAt(nextRow, 0);
+        Component editor = receivingTable.getEditorComponent();
+        if (editor != null) {
+            editor.requestFocusInWindow();
+        }
+    }
+    
+    /**
+     * Removes the selected receiving line
+     */
+    private void removeReceivingLine() {
+        if (receivingTable.isEditing()) {
+            receivingTable.getCellEditor().cancelCellEditing();
+        }
+        int row = receivingTable.getSelectedRow();
+        if (row < 0) {
+            return;
+        }
+        receivingTableModel.removeRow(row);
+        if (receivingTableModel.getRowCount() == 0) {
+            receivingTableModel.addRow(new Object[5]);
+        }
+        updateReceivingLineTotal(Math.min(row, receivingTableModel.getRowCount() - 1));
+    }
+    
+    /**
+     * Records every line of the receiving grid as one invoice in one transaction
+     * The invoice is saved in the background; the grid cannot be edited until it finished
+     */
+    private void receiveInvoice(JButton button) {
+        if (receivingTable.isEditing()) {
+            receivingTable.getCellEditor().stopCellEditing();
+        }
+        
+        Supplier selectedSupplier = (Supplier) receivingSupplierComboBox.getSelectedItem();
+        int supplierId = (selectedSupplier != null && selectedSupplier.getId() > 0) ? selectedSupplier.getId() : 0;
+        String invoiceNumber = receivingInvoiceField.getText().trim();
+        java.util.Date date = (java.util.Date) receivingDateSpinner.getValue();
+        
+        PurchaseInvoice invoice = new PurchaseInvoice(supplierId, invoiceNumber.isEmpty() ? null : invoiceNumber,
+            new Date(date.getTime()), null);
+        
+        for (int row = 0; row < receivingTableModel.getRowCount(); row++) {
+            Object part = receivingTableModel.getValueAt(row, 0);
+            Object quantity = receivingTableModel.getValueAt(row, 2);
+            Object price = receivingTableModel.getValueAt(row, 3);
+            if (isBlank(part) && isBlank(quantity) && isBlank(price)) {
+                continue; // Skip empty lines
+            }
+            
+            Item item = (Item) receivingTableModel.getValueAt(row, 1);
+            if (item == null) {
+                showReceivingError(row, "Unknown part number.");
+                return;
+            }
+            int qty;
+            BigDecimal unitPrice;
+            try {
+                qty = Integer.parseInt(String.valueOf(quantity).trim());
+                unitPrice = new BigDecimal(String.valueOf(price).trim());
+            } catch (NumberFormatException e) {
+                showReceivingError(row, "Invalid quantity or unit price.");
+                return;
+            }
+            if (qty <= 0 || unitPrice.compareTo(BigDecimal.ZERO) <= 0) {
+                showReceivingError(row, "Quantity and unit price must be greater than 0.");
+                return;
+            }
+            invoice.addLine(item.getId(), qty, unitPrice);
+        }
+        
+        if (invoice.getLines().isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Please enter at least one line.", "Validation Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        
+        // This records all lines and updates stock in a single transaction
+        receivingTable.setEnabled(false);
+        ScreenLoader.write(button, () -> purchaseDAO.addPurchaseInvoice(invoice), saved -> {
+            receivingTable.setEnabled(true);
+            if (Boolean.TRUE.equals(saved)) {
                 JOptionPane.showMessageDialog(this, 
-                    "Purchase recorded successfully!\nStock has been updated automatically.",
+                    "Invoice received successfully! (" + invoice.getLines().size() + " lines, $" +
+                    String.format("%.2f", invoice.getTotalAmount()) + ")\nStock has been updated automatically.",
                     "Success", JOptionPane.INFORMATION_MESSAGE);
-                clearForm();
+                clearReceiving();
                 refreshData();
-                // Refresh dashboard if it's open
-                mainApp.showScreen("DASHBOARD");
-                mainApp.showScreen("PURCHASE");
             } else {
                 JOptionPane.showMessageDialog(this, 
-                    "Failed to record purchase.\nPlease check:\n- Database connection\n- Item exists in inventory\n- All required fields are filled",
+                    "Failed to receive invoice. No lines were recorded.\nPlease check:\n- Database connection\n- Items exist in inventory\n\nCheck the console for details.",
                     "Error", JOptionPane.ERROR_MESSAGE);
             }
-        } catch (Exception e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this, 
-                "Error recording purchase: " + e.getMessage() + "\n\nCheck the console for details.",
-                "Error", JOptionPane.ERROR_MESSAGE);
+        });
+    }
+    
+    private boolean isBlank(Object value) {
+        return value == null || value.toString().trim().isEmpty();
+    }
+    
+    private void showReceivingError(int row, String message) {
+        receivingTable.changeSelection(row, 0, false, false);
+        JOptionPane.showMessageDialog(this, "Line " + (row + 1) + ": " + message, "Validation Error", JOptionPane.ERROR_MESSAGE);
+    }
+    
+    /**
+     * Clears the receiving grid and header
+     */
+    private void clearReceiving() {
+        if (receivingTable.isEditing()) {
+            receivingTable.getCellEditor().cancelCellEditing();
         }
+        receivingSupplierComboBox.setSelectedIndex(0);
+        receivingInvoiceField.setText("");
+        receivingDateSpinner.setValue(java.util.Calendar.getInstance().getTime());
+        receivingTableModel.setRowCount(0);
+        receivingTableModel.addRow(new Object[5]);
+        receivingTotalLabel.setText("Invoice Total: $0.00");
     }
     
     /**
      * Clears the form
      */
     private void clearForm() {
-        itemComboBox.setSelectedIndex(0);
+        itemPicker.setSelectedItem(null);
         supplierComboBox.setSelectedIndex(0);
         quantityField.setText("");
         unitPriceField.setText("");
@@ -329,7 +689,7 @@ public class PurchaseScreen extends JPanel {
      * Validates form inputs
      */
     private boolean validateForm() {
-        if (itemComboBox.getSelectedItem() == null) {
+        if (itemPicker.getSelectedItem() == null) {
             JOptionPane.showMessageDialog(this, "Please select an item.", "Validation Error", JOptionPane.ERROR_MESSAGE);
             return false;
         }
@@ -355,5 +715,11 @@ public class PurchaseScreen extends JPanel {
         }
         return true;
     }
+    
+    /**
+     * Screen data loaded together in the background
+     */
+    private static class PurchaseData {
+        List<Supplier> suppliers;
+    }
 }
-
@@ -0,0 +1,18 @@
+package com.garage.inventory.gui;
+
+/**
+ * RefreshableScreen is implemented by every screen shown in MainApplication's card layout
+ * Lets MainApplication reload a screen when it is shown and stop its loading when the user navigates away
+ */
+public interface RefreshableScreen {
+
+    /**
+     * Reloads the screen's data in the background and shows it when ready
+     */
+    void refreshData();
+
+    /**
+     * Cancels any data loading still running for this screen
+     */
+    void cancelLoading();
+}
@@ -2,47 +2,60 @@ package com.garage.inventory.gui;
 
 import com.garage.inventory.dao.ItemDAO;
 import com.garage.inventory.dao.PurchaseDAO;
+import com.garage.inventory.dao.ReportDAO;
+import com.garage.inventory.dao.ReportDAO.Report;
+import com.garage.inventory.dao.RollupDAO;
 import com.garage.inventory.dao.SaleDAO;
-import com.garage.inventory.dao.SupplierDAO;
-import com.garage.inventory.dao.CustomerDAO;
+import com.garage.inventory.dao.TableVersions.Table;
+import com.garage.inventory.export.ExportSource;
 import com.garage.inventory.model.Item;
-import com.garage.inventory.model.Purchase;
-import com.garage.inventory.model.Sale;
-import com.garage.inventory.model.Supplier;
-import com.garage.inventory.model.Customer;
+import com.garage.inventory.model.PeriodTotal;
+import com.garage.inventory.model.PurchaseRow;
+import com.garage.inventory.model.SaleRow;
+import com.garage.inventory.model.SummaryReport;
+import com.garage.inventory.model.SummaryRow;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.math.BigDecimal;
 import java.sql.Date;
+import java.sql.SQLException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * ReportsScreen provides various reports including:
  * - Daily stock report
  * - Monthly stock report
  * - Low stock report
+ * - Summary reports aggregated by the database: sales by item, by category, daily trend, top customers
  */
-public class ReportsScreen extends JPanel {
+public class ReportsScreen extends JPanel implements RefreshableScreen {
+    // Rows shown by the top customers report
+    private static final int TOP_CUSTOMERS_LIMIT = 20;
+    
     private MainApplication mainApp;
     private JComboBox<String> reportTypeComboBox;
     private JSpinner startDateSpinner, endDateSpinner;
     private JTable reportTable;
-    private DefaultTableModel tableModel;
+    private BulkTableModel tableModel;
     private JLabel totalLabel;
     private ItemDAO itemDAO;
     private SaleDAO saleDAO;
     private PurchaseDAO purchaseDAO;
-    private SupplierDAO supplierDAO;
-    private CustomerDAO customerDAO;
+    private RollupDAO rollupDAO;
+    private ReportDAO reportDAO;
+    private final ScreenLoader loader = new ScreenLoader(this, Table.ITEMS, Table.CUSTOMERS, Table.SALES, Table.PURCHASES);
     
     public ReportsScreen(MainApplication mainApp) {
         this.mainApp = mainApp;
         itemDAO = new ItemDAO();
         saleDAO = new SaleDAO();
         purchaseDAO = new PurchaseDAO();
-        supplierDAO = new SupplierDAO();
-        customerDAO = new CustomerDAO();
+        rollupDAO = new RollupDAO();
+        reportDAO = new ReportDAO();
         
         initializeComponents();
         setupLayout();
@@ -58,6 +71,9 @@ public class ReportsScreen extends JPanel {
         String[] reportTypes = {"Low Stock Report", "Daily Sales Report", "Monthly Sales Report", 
                                 "Daily Purchase Report", "Monthly Purchase Report", "Stock Report"};
         reportTypeComboBox = new JComboBox<>(reportTypes);
+        for (Report report : Report.values()) {
+            reportTypeComboBox.addItem(report.getTitle());
+        }
         reportTypeComboBox.addActionListener(e -> generateReport());
         
         // Date spinners
@@ -75,12 +91,7 @@ public class ReportsScreen extends JPanel {
         
         // Table
         String[] columns = {"Column1", "Column2", "Column3", "Column4", "Column5"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new BulkTableModel(columns);
         reportTable = new JTable(tableModel);
         reportTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         reportTable.getTableHeader().setFont(new Font("Arial", Font.BOLD, 12));
@@ -106,9 +117,16 @@ public class ReportsScreen extends JPanel {
         controlPanel.add(endDateSpinner);
         
         JButton generateButton = new JButton("Generate Report");
-        generateButton.addActionListener(e -> generateReport());
+        generateButton.addActionListener(e -> {
+            loader.markStale();
+            generateReport();
+        });
         controlPanel.add(generateButton);
         
+        JButton exportButton = new JButton("Export...");
+        exportButton.addActionListener(e -> exportReport());
+        controlPanel.add(exportButton);
+        
         // Table panel
         JPanel tablePanel = new JPanel(new BorderLayout());
         tablePanel.setBorder(BorderFactory.createTitledBorder("Report Results"));
@@ -127,34 +145,50 @@ public class ReportsScreen extends JPanel {
     /**
      * Refreshes data (same as generate report)
      */
+    @Override
     public void refreshData() {
         generateReport();
     }
     
+    @Override
+    public void cancelLoading() {
+        loader.cancel();
+    }
+    
     /**
      * Generates the selected report based on report type
+     * Each report queries in the background and fills the table when the rows arrive;
+     * choosing another report before then discards the earlier one
+     * The report is not queried again while its type, dates and underlying tables are unchanged
      */
     private void generateReport() {
         String reportType = (String) reportTypeComboBox.getSelectedItem();
+        Object key = Arrays.asList(reportType, startDateSpinner.getValue(), endDateSpinner.getValue());
         
         switch (reportType) {
             case "Low Stock Report":
-                generateLowStockReport();
+                generateLowStockReport(key);
                 break;
             case "Daily Sales Report":
-                generateDailySalesReport();
+                generateDailySalesReport(key);
                 break;
             case "Monthly Sales Report":
-                generateMonthlySalesReport();
+                generateMonthlySalesReport(key);
                 break;
             case "Daily Purchase Report":
-                generateDailyPurchaseReport();
+                generateDailyPurchaseReport(key);
                 break;
             case "Monthly Purchase Report":
-                generateMonthlyPurchaseReport();
+                generateMonthlyPurchaseReport(key);
                 break;
             case "Stock Report":
-                generateStockReport();
+                generateStockReport(key);
+                break;
+            default:
+                Report report = Report.fromTitle(reportType);
+                if (report != null) {
+                    generateSummaryReport(key, report);
+                }
                 break;
         }
     }
@@ -162,95 +196,77 @@ public class ReportsScreen extends JPanel {
     /**
      * Generates low stock report showing items with low inventory
      */
-    private void generateLowStockReport() {
-        String[] columns = {"Part Number", "Item Name", "Current Stock", "Min Level", "Category", "Unit Price"};
-        tableModel.setColumnIdentifiers(columns);
-        tableModel.setRowCount(0);
-        
-        List<Item> lowStockItems = itemDAO.getLowStockItems();
-        BigDecimal total = BigDecimal.ZERO;
-        
-        for (Item item : lowStockItems) {
-            tableModel.addRow(new Object[]{
-                item.getPartNumber(),
-                item.getName(),
-                item.getStockQuantity(),
-                item.getMinStockLevel(),
-                item.getCategory() != null ? item.getCategory() : "N/A",
-                "$" + String.format("%.2f", item.getUnitPrice())
-            });
-        }
-        
-        totalLabel.setText("Total Low Stock Items: " + lowStockItems.size());
+    private void generateLowStockReport(Object key) {
+        loader.loadIfChanged(key, itemDAO::getLowStockItems, lowStockItems -> {
+            String[] columns = {"Part Number", "Item Name", "Current Stock", "Min Level", "Category", "Unit Price"};
+            tableModel.setColumns(columns);
+            
+            List<Object[]> rows = new ArrayList<>(lowStockItems.size());
+            for (Item item : lowStockItems) {
+                rows.add(new Object[]{
+                    item.getPartNumber(),
+                    item.getName(),
+                    item.getStockQuantity(),
+                    item.getMinStockLevel(),
+                    item.getCategory() != null ? item.getCategory() : "N/A",
+                    "$" + String.format("%.2f", item.getUnitPrice())
+                });
+            }
+            tableModel.setRows(rows);
+            
+            totalLabel.setText("Total Low Stock Items: " + lowStockItems.size());
+        });
     }
     
     /**
      * Generates daily sales report for selected date
      */
-    private void generateDailySalesReport() {
-        String[] columns = {"ID", "Item Name", "Quantity", "Unit Price", "Total Amount", "Customer", "Date"};
-        tableModel.setColumnIdentifiers(columns);
-        tableModel.setRowCount(0);
-        
+    private void generateDailySalesReport(Object key) {
         java.util.Date startDate = (java.util.Date) startDateSpinner.getValue();
         Date sqlStartDate = new Date(startDate.getTime());
         Date sqlEndDate = new Date(startDate.getTime()); // Same day
         
-        List<Sale> sales = saleDAO.getSalesByDateRange(sqlStartDate, sqlEndDate);
-        BigDecimal total = BigDecimal.ZERO;
-        
-        for (Sale sale : sales) {
-            Item item = itemDAO.getItemById(sale.getItemId());
-            Customer customer = sale.getCustomerId() > 0 ? 
-                customerDAO.getCustomerById(sale.getCustomerId()) : null;
-            total = total.add(sale.getTotalAmount());
-            
-            tableModel.addRow(new Object[]{
-                sale.getId(),
-                item != null ? item.getName() : "N/A",
-                sale.getQuantity(),
-                "$" + String.format("%.2f", sale.getUnitPrice()),
-                "$" + String.format("%.2f", sale.getTotalAmount()),
-                customer != null ? customer.getName() : "N/A",
-                sale.getSaleDate()
-            });
-        }
-        
-        totalLabel.setText("Total Sales: $" + String.format("%.2f", total));
+        loader.loadIfChanged(key, () -> saleDAO.getSaleRowsByDateRange(sqlStartDate, sqlEndDate), this::showSalesReport);
     }
     
     /**
      * Generates monthly sales report for date range
+     * Shows one row per month, summed from the daily rollup instead of every sale in the range
      */
-    private void generateMonthlySalesReport() {
-        String[] columns = {"ID", "Item Name", "Quantity", "Unit Price", "Total Amount", "Customer", "Date"};
-        tableModel.setColumnIdentifiers(columns);
-        tableModel.setRowCount(0);
-        
+    private void generateMonthlySalesReport(Object key) {
         java.util.Date startDate = (java.util.Date) startDateSpinner.getValue();
         java.util.Date endDate = (java.util.Date) endDateSpinner.getValue();
         Date sqlStartDate = new Date(startDate.getTime());
         Date sqlEndDate = new Date(endDate.getTime());
         
-        List<Sale> sales = saleDAO.getSalesByDateRange(sqlStartDate, sqlEndDate);
+        loader.loadIfChanged(key, () -> rollupDAO.getMonthlySales(sqlStartDate, sqlEndDate),
+                months -> showMonthlyTotals(months, "Sales", "Total Sales"));
+    }
+    
+    /**
+     * Shows the rows of the daily or monthly sales report
+     */
+    private void showSalesReport(List<SaleRow> sales) {
+        String[] columns = {"ID", "Item Name", "Quantity", "Unit Price", "Total Amount", "Customer", "Date"};
+        tableModel.setColumns(columns);
+        
         BigDecimal total = BigDecimal.ZERO;
         
-        for (Sale sale : sales) {
-            Item item = itemDAO.getItemById(sale.getItemId());
-            Customer customer = sale.getCustomerId() > 0 ? 
-                customerDAO.getCustomerById(sale.getCustomerId()) : null;
+        List<Object[]> rows = new ArrayList<>(sales.size());
+        for (SaleRow sale : sales) {
             total = total.add(sale.getTotalAmount());
             
-            tableModel.addRow(new Object[]{
+            rows.add(new Object[]{
                 sale.getId(),
-                item != null ? item.getName() : "N/A",
+                sale.getItemName() != null ? sale.getItemName() : "N/A",
                 sale.getQuantity(),
                 "$" + String.format("%.2f", sale.getUnitPrice()),
                 "$" + String.format("%.2f", sale.getTotalAmount()),
-                customer != null ? customer.getName() : "N/A",
+                sale.getCustomerName() != null ? sale.getCustomerName() : "N/A",
                 sale.getSaleDate()
             });
         }
+        tableModel.setRows(rows);
         
         totalLabel.setText("Total Sales: $" + String.format("%.2f", total));
     }
@@ -258,65 +274,45 @@ public class ReportsScreen extends JPanel {
     /**
      * Generates daily purchase report for selected date
      */
-    private void generateDailyPurchaseReport() {
-        String[] columns = {"ID", "Item Name", "Supplier", "Quantity", "Unit Price", "Total Amount", "Date", "Invoice #"};
-        tableModel.setColumnIdentifiers(columns);
-        tableModel.setRowCount(0);
-        
+    private void generateDailyPurchaseReport(Object key) {
         java.util.Date startDate = (java.util.Date) startDateSpinner.getValue();
         Date sqlStartDate = new Date(startDate.getTime());
         Date sqlEndDate = new Date(startDate.getTime()); // Same day
         
-        List<Purchase> purchases = purchaseDAO.getPurchasesByDateRange(sqlStartDate, sqlEndDate);
-        BigDecimal total = BigDecimal.ZERO;
-        
-        for (Purchase purchase : purchases) {
-            Item item = itemDAO.getItemById(purchase.getItemId());
-            Supplier supplier = purchase.getSupplierId() > 0 ?
-                supplierDAO.getSupplierById(purchase.getSupplierId()) : null;
-            total = total.add(purchase.getTotalAmount());
-            
-            tableModel.addRow(new Object[]{
-                purchase.getId(),
-                item != null ? item.getName() : "N/A",
-                supplier != null ? supplier.getName() : "N/A",
-                purchase.getQuantity(),
-                "$" + String.format("%.2f", purchase.getUnitPrice()),
-                "$" + String.format("%.2f", purchase.getTotalAmount()),
-                purchase.getPurchaseDate(),
-                purchase.getInvoiceNumber() != null ? purchase.getInvoiceNumber() : "N/A"
-            });
-        }
-        
-        totalLabel.setText("Total Purchases: $" + String.format("%.2f", total));
+        loader.loadIfChanged(key, () -> purchaseDAO.getPurchaseRowsByDateRange(sqlStartDate, sqlEndDate), this::showPurchaseReport);
     }
     
     /**
      * Generates monthly purchase report for date range
+     * Shows one row per month, summed from the daily rollup instead of every purchase in the range
      */
-    private void generateMonthlyPurchaseReport() {
-        String[] columns = {"ID", "Item Name", "Supplier", "Quantity", "Unit Price", "Total Amount", "Date", "Invoice #"};
-        tableModel.setColumnIdentifiers(columns);
-        tableModel.setRowCount(0);
-        
+    private void generateMonthlyPurchaseReport(Object key) {
         java.util.Date startDate = (java.util.Date) startDateSpinner.getValue();
         java.util.Date endDate = (java.util.Date) endDateSpinner.getValue();
         Date sqlStartDate = new Date(startDate.getTime());
         Date sqlEndDate = new Date(endDate.getTime());
         
-        List<Purchase> purchases = purchaseDAO.getPurchasesByDateRange(sqlStartDate, sqlEndDate);
+        loader.loadIfChanged(key, () -> rollupDAO.getMonthlyPurchases(sqlStartDate, sqlEndDate),
+                months -> showMonthlyTotals(months, "Purchases", "Total Purchases"));
+    }
+    
+    /**
+     * Shows the rows of the daily or monthly purchase report
+     */
+    private void showPurchaseReport(List<PurchaseRow> purchases) {
+        String[] columns = {"ID", "Item Name", "Supplier", "Quantity", "Unit Price", "Total Amount", "Date", "Invoice #"};
+        tableModel.setColumns(columns);
+        
         BigDecimal total = BigDecimal.ZERO;
         
-        for (Purchase purchase : purchases) {
-            Item item = itemDAO.getItemById(purchase.getItemId());
-            Supplier supplier = purchase.getSupplierId() > 0 ?
-                supplierDAO.getSupplierById(purchase.getSupplierId()) : null;
+        List<Object[]> rows = new ArrayList<>(purchases.size());
+        for (PurchaseRow purchase : purchases) {
             total = total.add(purchase.getTotalAmount());
             
-            tableModel.addRow(new Object[]{
+            rows.add(new Object[]{
                 purchase.getId(),
-                item != null ? item.getName() : "N/A",
-                supplier != null ? supplier.getName() : "N/A",
+                purchase.getItemName() != null ? purchase.getItemName() : "N/A",
+                purchase.getSupplierName() != null ? purchase.getSupplierName() : "N/A",
                 purchase.getQuantity(),
                 "$" + String.format("%.2f", purchase.getUnitPrice()),
                 "$" + String.format("%.2f", purchase.getTotalAmount()),
@@ -324,35 +320,258 @@ public class ReportsScreen extends JPanel {
                 purchase.getInvoiceNumber() != null ? purchase.getInvoiceNumber() : "N/A"
             });
         }
+        tableModel.setRows(rows);
         
         totalLabel.setText("Total Purchases: $" + String.format("%.2f", total));
     }
     
     /**
-     * Generates stock report showing all items and their stock levels
+     * Shows the rows of the monthly sales or purchase report, one per month
+     *
+     * @param months Monthly totals from the rollup
+     * @param countColumn Heading of the line count column
+     * @param totalText Label of the grand total
      */
-    private void generateStockReport() {
-        String[] columns = {"Part Number", "Item Name", "Category", "Stock Quantity", "Min Level", "Unit Price", "Location"};
-        tableModel.setColumnIdentifiers(columns);
-        tableModel.setRowCount(0);
+    private void showMonthlyTotals(List<PeriodTotal> months, String countColumn, String totalText) {
+        String[] columns = {"Month", countColumn, "Quantity", "Total Amount"};
+        tableModel.setColumns(columns);
         
-        List<Item> items = itemDAO.getAllItems();
-        int totalItems = 0;
+        SimpleDateFormat monthFormat = new SimpleDateFormat("yyyy-MM");
+        BigDecimal total = BigDecimal.ZERO;
         
-        for (Item item : items) {
-            totalItems += item.getStockQuantity();
-            tableModel.addRow(new Object[]{
-                item.getPartNumber(),
-                item.getName(),
-                item.getCategory() != null ? item.getCategory() : "N/A",
-                item.getStockQuantity(),
-                item.getMinStockLevel(),
-                "$" + String.format("%.2f", item.getUnitPrice()),
-                item.getLocation() != null ? item.getLocation() : "N/A"
+        List<Object[]> rows = new ArrayList<>(months.size());
+        for (PeriodTotal month : months) {
+            total = total.add(month.getTotalAmount());
+            rows.add(new Object[]{
+                monthFormat.format(month.getPeriodStart()),
+                month.getCount(),
+                month.getQuantity(),
+                "$" + String.format("%.2f", month.getTotalAmount())
             });
         }
+        tableModel.setRows(rows);
+        
+        totalLabel.setText(totalText + ": $" + String.format("%.2f", total));
+    }
+    
+    /**
+     * Generates a summary report for the date range
+     * The rows arrive already aggregated and totalled by the query
+     */
+    private void generateSummaryReport(Object key, Report report) {
+        java.util.Date startDate = (java.util.Date) startDateSpinner.getValue();
+        java.util.Date endDate = (java.util.Date) endDateSpinner.getValue();
+        Date sqlStartDate = new Date(startDate.getTime());
+        Date sqlEndDate = new Date(endDate.getTime());
+        int limit = report == Report.TOP_CUSTOMERS ? TOP_CUSTOMERS_LIMIT : 0;
+        
+        loader.loadIfChanged(key, () -> reportDAO.runReport(report, sqlStartDate, sqlEndDate, limit), summary -> {
+            tableModel.setColumns(report.getColumns());
+            
+            List<Object[]> rows = new ArrayList<>(summary.getRows().size());
+            for (SummaryRow row : summary.getRows()) {
+                String amount = "$" + String.format("%.2f", row.getTotalAmount());
+                if (report.hasDetail()) {
+                    rows.add(new Object[]{
+                        row.getLabel(),
+                        row.getDetail() != null ? row.getDetail() : "N/A",
+                        row.getLineCount(),
+                        row.getQuantity(),
+                        amount
+                    });
+                } else {
+                    rows.add(new Object[]{row.getLabel(), row.getLineCount(), row.getQuantity(), amount});
+                }
+            }
+            tableModel.setRows(rows);
+            
+            totalLabel.setText(summaryTotalText(report, summary));
+        });
+    }
+    
+    /**
+     * Gets the text of the total label for a summary report
+     */
+    private String summaryTotalText(Report report, SummaryReport summary) {
+        String total = "Total Sales: $" + String.format("%.2f", summary.getTotalAmount());
+        if (report == Report.TOP_CUSTOMERS) {
+            return "Top " + summary.getRows().size() + " Customers | " + total;
+        }
+        return summary.getRows().size() + " Rows | " + total;
+    }
+    
+    /**
+     * Generates stock report showing all items and their stock levels
+     */
+    private void generateStockReport(Object key) {
+        loader.loadIfChanged(key, itemDAO::getAllItems, items -> {
+            String[] columns = {"Part Number", "Item Name", "Category", "Stock Quantity", "Min Level", "Unit Price", "Location"};
+            tableModel.setColumns(columns);
+            
+            int totalItems = 0;
+            
+            List<Object[]> rows = new ArrayList<>(items.size());
+            for (Item item : items) {
+                totalItems += item.getStockQuantity();
+                rows.add(new Object[]{
+                    item.getPartNumber(),
+                    item.getName(),
+                    item.getCategory() != null ? item.getCategory() : "N/A",
+                    item.getStockQuantity(),
+                    item.getMinStockLevel(),
+                    "$" + String.format("%.2f", item.getUnitPrice()),
+                    item.getLocation() != null ? item.getLocation() : "N/A"
+                });
+            }
+            tableModel.setRows(rows);
+            
+            totalLabel.setText("Total Items: " + items.size() + " | Total Stock Quantity: " + totalItems);
+        });
+    }
+    
+    /**
+     * Exports the selected report for the selected dates to a CSV or tab separated file
+     * Amounts are written as plain numbers; the daily listings stream from the database cursor,
+     * the other reports are aggregated or item lists and are read whole
+     */
+    private void exportReport() {
+        String reportType = (String) reportTypeComboBox.getSelectedItem();
+        java.util.Date startDate = (java.util.Date) startDateSpinner.getValue();
+        java.util.Date endDate = (java.util.Date) endDateSpinner.getValue();
+        Date sqlStartDate = new Date(startDate.getTime());
+        Date sqlEndDate = new Date(endDate.getTime());
         
-        totalLabel.setText("Total Items: " + items.size() + " | Total Stock Quantity: " + totalItems);
+        String fileName = reportType.toLowerCase().replace(' ', '-') + "-" + sqlStartDate;
+        ExportDialog.export(this, fileName, createExportSource(reportType, sqlStartDate, sqlEndDate));
+    }
+    
+    /**
+     * Creates the export source of a report
+     */
+    private ExportSource createExportSource(String reportType, Date startDate, Date endDate) {
+        switch (reportType) {
+            case "Low Stock Report":
+                return itemsSource(true);
+            case "Stock Report":
+                return itemsSource(false);
+            case "Daily Sales Report":
+                return new ExportSource() {
+                    @Override
+                    public String[] getColumns() {
+                        return new String[]{"ID", "Item Name", "Quantity", "Unit Price", "Total Amount", "Customer", "Date"};
+                    }
+                    
+                    @Override
+                    public long countRows() {
+                        return countLines(rollupDAO.getDailySales(startDate, startDate));
+                    }
+                    
+                    @Override
+                    public Stream<Object[]> openRows() throws SQLException {
+                        return saleDAO.streamSaleRowsByDateRange(startDate, startDate).map(sale -> new Object[]{
+                            sale.getId(),
+                            sale.getItemName(),
+                            sale.getQuantity(),
+                            sale.getUnitPrice(),
+                            sale.getTotalAmount(),
+                            sale.getCustomerName(),
+                            sale.getSaleDate()
+                        });
+                    }
+                };
+            case "Daily Purchase Report":
+                return new ExportSource() {
+                    @Override
+                    public String[] getColumns() {
+                        return new String[]{"ID", "Item Name", "Supplier", "Quantity", "Unit Price", "Total Amount",
+                                "Date", "Invoice #"};
+                    }
+                    
+                    @Override
+                    public long countRows() {
+                        return countLines(rollupDAO.getDailyPurchases(startDate, startDate));
+                    }
+                    
+                    @Override
+                    public Stream<Object[]> openRows() throws SQLException {
+                        return purchaseDAO.streamPurchaseRowsByDateRange(startDate, startDate).map(purchase -> new Object[]{
+                            purchase.getId(),
+                            purchase.getItemName(),
+                            purchase.getSupplierName(),
+                            purchase.getQuantity(),
+                            purchase.getUnitPrice(),
+                            purchase.getTotalAmount(),
+                            purchase.getPurchaseDate(),
+                            purchase.getInvoiceNumber()
+                        });
+                    }
+                };
+            case "Monthly Sales Report":
+                return ExportSource.ofList(new String[]{"Month", "Sales", "Quantity", "Total Amount"},
+                        () -> monthRows(rollupDAO.getMonthlySales(startDate, endDate)));
+            case "Monthly Purchase Report":
+                return ExportSource.ofList(new String[]{"Month", "Purchases", "Quantity", "Total Amount"},
+                        () -> monthRows(rollupDAO.getMonthlyPurchases(startDate, endDate)));
+            default:
+                Report report = Report.fromTitle(reportType);
+                int limit = report == Report.TOP_CUSTOMERS ? TOP_CUSTOMERS_LIMIT : 0;
+                return ExportSource.ofList(report.getColumns(), () -> {
+                    List<Object[]> rows = new ArrayList<>();
+                    for (SummaryRow row : reportDAO.runReport(report, startDate, endDate, limit).getRows()) {
+                        if (report.hasDetail()) {
+                            rows.add(new Object[]{row.getLabel(), row.getDetail(), row.getLineCount(),
+                                    row.getQuantity(), row.getTotalAmount()});
+                        } else {
+                            rows.add(new Object[]{row.getLabel(), row.getLineCount(), row.getQuantity(),
+                                    row.getTotalAmount()});
+                        }
+                    }
+                    return rows;
+                });
+        }
+    }
+    
+    /**
+     * Creates the export source of the stock report, or of the low stock report
+     */
+    private ExportSource itemsSource(boolean lowStockOnly) {
+        String[] columns = {"Part Number", "Item Name", "Category", "Stock Quantity", "Min Level", "Unit Price", "Location"};
+        return ExportSource.ofList(columns, () -> {
+            List<Item> items = lowStockOnly ? itemDAO.getLowStockItems() : itemDAO.getAllItems();
+            List<Object[]> rows = new ArrayList<>(items.size());
+            for (Item item : items) {
+                rows.add(new Object[]{
+                    item.getPartNumber(),
+                    item.getName(),
+                    item.getCategory(),
+                    item.getStockQuantity(),
+                    item.getMinStockLevel(),
+                    item.getUnitPrice(),
+                    item.getLocation()
+                });
+            }
+            return rows;
+        });
+    }
+    
+    private static List<Object[]> monthRows(List<PeriodTotal> months) {
+        SimpleDateFormat monthFormat = new SimpleDateFormat("yyyy-MM");
+        List<Object[]> rows = new ArrayList<>(months.size());
+        for (PeriodTotal month : months) {
+            rows.add(new Object[]{monthFormat.format(month.getPeriodStart()), month.getCount(),
+                    month.getQuantity(), month.getTotalAmount()});
+        }
+        return rows;
+    }
+    
+    /**
+     * Adds up the line counts of daily rollup rows, to size the export progress bar
+     */
+    private static long countLines(List<PeriodTotal> days) {
+        long lines = 0;
+        for (PeriodTotal day : days) {
+            lines += day.getCount();
+        }
+        return lines;
     }
 }
-
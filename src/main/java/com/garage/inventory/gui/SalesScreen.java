@@ -3,32 +3,49 @@ package com.garage.inventory.gui;
 import com.garage.inventory.dao.ItemDAO;
 import com.garage.inventory.dao.SaleDAO;
 import com.garage.inventory.dao.CustomerDAO;
+import com.garage.inventory.dao.TableVersions.Table;
 import com.garage.inventory.model.Item;
 import com.garage.inventory.model.Sale;
+import com.garage.inventory.model.SaleRow;
 import com.garage.inventory.model.Customer;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.math.BigDecimal;
 import java.sql.Date;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * SalesScreen allows recording sales and automatically decreases stock
  * When items are sold, the stock quantity is decreased automatically
+ * Several parts for one customer visit can be collected in the cart and recorded together
+ * Scanning a part number's barcode into the item field adds one of that item straight to the cart
  */
-public class SalesScreen extends JPanel {
+public class SalesScreen extends JPanel implements RefreshableScreen {
+    // History rows per page, and pages kept in memory while scrolling
+    private static final int HISTORY_PAGE_SIZE = 100;
+    private static final int HISTORY_MAX_PAGES = 20;
+    
     private MainApplication mainApp;
-    private JComboBox<Item> itemComboBox;
+    private ItemPicker itemPicker;
     private JComboBox<Customer> customerComboBox;
     private JTextField quantityField, unitPriceField, totalAmountField;
     private JTextField notesField;
     private JSpinner saleDateSpinner;
     private JTable saleTable;
-    private DefaultTableModel tableModel;
+    private PagedTableModel<SaleRow> tableModel;
+    private JTable cartTable;
+    private DefaultTableModel cartTableModel;
+    private JLabel cartTotalLabel;
+    private JLabel scanStatusLabel;
+    private List<Sale> cartLines = new ArrayList<>();
+    // True while the cart is being recorded in the background; the cart cannot be changed meanwhile
+    private boolean cartSaving = false;
     private ItemDAO itemDAO;
     private SaleDAO saleDAO;
     private CustomerDAO customerDAO;
+    private final ScreenLoader loader = new ScreenLoader(this, Table.ITEMS, Table.CUSTOMERS, Table.SALES);
     
     public SalesScreen(MainApplication mainApp) {
         this.mainApp = mainApp;
@@ -38,7 +55,6 @@ public class SalesScreen extends JPanel {
         
         initializeComponents();
         setupLayout();
-        refreshData();
     }
     
     /**
@@ -47,7 +63,7 @@ public class SalesScreen extends JPanel {
     private void initializeComponents() {
         setLayout(new BorderLayout(10, 10));
         
-        itemComboBox = new JComboBox<>();
+        itemPicker = new ItemPicker(itemDAO);
         customerComboBox = new JComboBox<>();
         customerComboBox.addItem(new Customer("", "", "", "", "")); // Empty option
         
@@ -65,29 +81,55 @@ public class SalesScreen extends JPanel {
         saleDateSpinner.setValue(java.util.Calendar.getInstance().getTime());
         
         // Initialize table
+        // Sales history is paged, so only the rows scrolled into view are loaded
         String[] columns = {"ID", "Item", "Quantity", "Unit Price", "Total", "Date", "Customer"};
-        tableModel = new DefaultTableModel(columns, 0) {
+        tableModel = new PagedTableModel<SaleRow>(columns, this::fetchSalesPage, HISTORY_PAGE_SIZE, HISTORY_MAX_PAGES) {
             @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
+            protected Object getColumnValue(SaleRow sale, int column) {
+                switch (column) {
+                    case 0: return sale.getId();
+                    case 1: return sale.getItemName() != null ? sale.getItemName() : "N/A";
+                    case 2: return sale.getQuantity();
+                    case 3: return "$" + String.format("%.2f", sale.getUnitPrice());
+                    case 4: return "$" + String.format("%.2f", sale.getTotalAmount());
+                    case 5: return sale.getSaleDate();
+                    default: return sale.getCustomerName() != null ? sale.getCustomerName() : "N/A";
+                }
             }
         };
         saleTable = new JTable(tableModel);
         saleTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         saleTable.getTableHeader().setFont(new Font("Arial", Font.BOLD, 12));
         
+        // Initialize cart table
+        String[] cartColumns = {"Item", "Quantity", "Unit Price", "Total"};
+        cartTableModel = new DefaultTableModel(cartColumns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        cartTable = new JTable(cartTableModel);
+        cartTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        cartTotalLabel = new JLabel("Cart Total: $0.00");
+        cartTotalLabel.setFont(new Font("Arial", Font.BOLD, 12));
+        scanStatusLabel = new JLabel(" ");
+        
         // Calculate total when quantity or price changes
         quantityField.addActionListener(e -> calculateTotal());
         unitPriceField.addActionListener(e -> calculateTotal());
         
         // When item is selected, populate unit price with item's current price
-        itemComboBox.addActionListener(e -> {
-            Item selectedItem = (Item) itemComboBox.getSelectedItem();
+        itemPicker.addActionListener(e -> {
+            Item selectedItem = itemPicker.getSelectedItem();
             if (selectedItem != null && selectedItem.getId() > 0) {
                 unitPriceField.setText(selectedItem.getUnitPrice().toString());
                 calculateTotal();
             }
         });
+        
+        // Barcode scans skip the form and go straight to the cart
+        itemPicker.addScanListener(this::addScannedItem);
     }
     
     /**
@@ -100,11 +142,16 @@ public class SalesScreen extends JPanel {
         // Button panel
         JPanel buttonPanel = createButtonPanel();
         
-        // Left panel (form + buttons)
+        // Entry panel (form + buttons)
+        JPanel entryPanel = new JPanel(new BorderLayout());
+        entryPanel.setBorder(BorderFactory.createTitledBorder("New Sale"));
+        entryPanel.add(formPanel, BorderLayout.CENTER);
+        entryPanel.add(buttonPanel, BorderLayout.SOUTH);
+        
+        // Left panel (entry + cart)
         JPanel leftPanel = new JPanel(new BorderLayout());
-        leftPanel.setBorder(BorderFactory.createTitledBorder("New Sale"));
-        leftPanel.add(formPanel, BorderLayout.CENTER);
-        leftPanel.add(buttonPanel, BorderLayout.SOUTH);
+        leftPanel.add(entryPanel, BorderLayout.NORTH);
+        leftPanel.add(createCartPanel(), BorderLayout.CENTER);
         leftPanel.setPreferredSize(new Dimension(400, 0));
         
         // Table panel
@@ -115,7 +162,10 @@ public class SalesScreen extends JPanel {
         
         // Refresh button
         JButton refreshButton = new JButton("Refresh");
-        refreshButton.addActionListener(e -> refreshData());
+        refreshButton.addActionListener(e -> {
+            loader.markStale();
+            refreshData();
+        });
         JPanel refreshPanel = new JPanel();
         refreshPanel.add(refreshButton);
         tablePanel.add(refreshPanel, BorderLayout.SOUTH);
@@ -143,7 +193,7 @@ public class SalesScreen extends JPanel {
         gbc.gridx = 0; gbc.gridy = row;
         panel.add(new JLabel("Item *:"), gbc);
         gbc.gridx = 1; gbc.fill = GridBagConstraints.HORIZONTAL;
-        panel.add(itemComboBox, gbc);
+        panel.add(itemPicker, gbc);
         
         // Quantity
         gbc.gridx = 0; gbc.gridy = ++row; gbc.fill = GridBagConstraints.NONE;
@@ -191,54 +241,108 @@ public class SalesScreen extends JPanel {
         JPanel panel = new JPanel(new FlowLayout());
         
         JButton addButton = new JButton("Record Sale");
-        addButton.addActionListener(e -> recordSale());
+        addButton.addActionListener(e -> recordSale(addButton));
+        
+        JButton addToCartButton = new JButton("Add to Cart");
+        addToCartButton.addActionListener(e -> addToCart());
         
         JButton clearButton = new JButton("Clear");
         clearButton.addActionListener(e -> clearForm());
         
         panel.add(addButton);
+        panel.add(addToCartButton);
         panel.add(clearButton);
         
         return panel;
     }
     
     /**
-     * Refreshes data - loads items, customers, and sales
+     * Creates the cart panel listing lines waiting to be recorded together
      */
-    public void refreshData() {
-        // Refresh items combo box
-        itemComboBox.removeAllItems();
-        List<Item> items = itemDAO.getAllItems();
-        for (Item item : items) {
-            itemComboBox.addItem(item);
-        }
+    private JPanel createCartPanel() {
+        JPanel panel = new JPanel(new BorderLayout(5, 5));
+        panel.setBorder(BorderFactory.createTitledBorder("Cart"));
+        panel.add(new JScrollPane(cartTable), BorderLayout.CENTER);
         
-        // Refresh customers combo box
+        JButton removeButton = new JButton("Remove Line");
+        removeButton.addActionListener(e -> removeCartLine());
+        
+        JButton checkoutButton = new JButton("Record Cart");
+        checkoutButton.addActionListener(e -> recordCart(checkoutButton));
+        
+        JButton emptyButton = new JButton("Empty Cart");
+        emptyButton.addActionListener(e -> {
+            if (!isCartSaving()) {
+                clearCart();
+            }
+        });
+        
+        JPanel buttonPanel = new JPanel(new FlowLayout());
+        buttonPanel.add(removeButton);
+        buttonPanel.add(checkoutButton);
+        buttonPanel.add(emptyButton);
+        
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.add(cartTotalLabel, BorderLayout.NORTH);
+        southPanel.add(scanStatusLabel, BorderLayout.CENTER);
+        southPanel.add(buttonPanel, BorderLayout.SOUTH);
+        panel.add(southPanel, BorderLayout.SOUTH);
+        
+        return panel;
+    }
+    
+    /**
+     * Refreshes data - loads customers and the first page of sales
+     * Items are not loaded here; the item picker searches the item catalog as the user types
+     * The queries run in the background; the form and table are updated when they finish
+     * Nothing is reloaded when items, customers and sales are unchanged since they were shown
+     */
+    @Override
+    public void refreshData() {
+        loader.loadIfChanged(null, () -> {
+            SalesData data = new SalesData();
+            data.customers = customerDAO.getAllCustomers();
+            return data;
+        }, this::showData);
+    }
+    
+    @Override
+    public void cancelLoading() {
+        loader.cancel();
+    }
+    
+    /**
+     * Shows loaded customers and sales (runs on the EDT)
+     */
+    private void showData(SalesData data) {
+        // Refresh customers combo box, keeping the customer a cart being built is for
+        Customer previous = (Customer) customerComboBox.getSelectedItem();
+        int previousId = previous != null ? previous.getId() : 0;
         customerComboBox.removeAllItems();
         customerComboBox.addItem(new Customer("", "", "", "", "")); // Empty option
-        List<Customer> customers = customerDAO.getAllCustomers();
+        List<Customer> customers = data.customers;
         for (Customer customer : customers) {
             customerComboBox.addItem(customer);
+            if (previousId > 0 && customer.getId() == previousId) {
+                customerComboBox.setSelectedItem(customer);
+            }
         }
         
-        // Refresh sales table
-        tableModel.setRowCount(0);
-        List<Sale> sales = saleDAO.getAllSales();
-        for (Sale sale : sales) {
-            Item item = itemDAO.getItemById(sale.getItemId());
-            Customer customer = sale.getCustomerId() > 0 ? 
-                customerDAO.getCustomerById(sale.getCustomerId()) : null;
-            
-            tableModel.addRow(new Object[]{
-                sale.getId(),
-                item != null ? item.getName() : "N/A",
-                sale.getQuantity(),
-                "$" + String.format("%.2f", sale.getUnitPrice()),
-                "$" + String.format("%.2f", sale.getTotalAmount()),
-                sale.getSaleDate(),
-                customer != null ? customer.getName() : "N/A"
-            });
-        }
+        // Refresh sales table; it fetches its first page in the background
+        tableModel.reset();
+    }
+    
+    /**
+     * Fetches one page of the sales history (runs on a loader thread)
+     *
+     * @param after The last sale of the previous page, or null for the first page
+     * @param limit Maximum number of sales to return
+     * @return The next sales, newest first
+     */
+    private List<SaleRow> fetchSalesPage(SaleRow after, int limit) {
+        return after == null
+                ? saleDAO.getSaleRowsPage(null, 0, limit)
+                : saleDAO.getSaleRowsPage(after.getSaleDate(), after.getId(), limit);
     }
     
     /**
@@ -257,12 +361,13 @@ public class SalesScreen extends JPanel {
     
     /**
      * Records a new sale and decreases stock automatically
+     * The sale is saved in the background while the button is disabled
      */
-    private void recordSale() {
+    private void recordSale(JButton button) {
         if (!validateForm()) return;
         
         try {
-            Item selectedItem = (Item) itemComboBox.getSelectedItem();
+            Item selectedItem = itemPicker.getSelectedItem();
             if (selectedItem == null) {
                 JOptionPane.showMessageDialog(this, "Please select an item.", "Error", JOptionPane.ERROR_MESSAGE);
                 return;
@@ -292,33 +397,231 @@ public class SalesScreen extends JPanel {
                 saleDate, notes.isEmpty() ? null : notes);
             
             // This automatically decreases the stock quantity
-            if (saleDAO.addSale(sale)) {
+            ScreenLoader.write(button, () -> saleDAO.addSale(sale), saved -> {
+                if (Boolean.TRUE.equals(saved)) {
+                    JOptionPane.showMessageDialog(this, 
+                        "Sale recorded successfully!\nStock has been updated automatically.",
+                        "Success", JOptionPane.INFORMATION_MESSAGE);
+                    clearForm();
+                    refreshData();
+                } else {
+                    JOptionPane.showMessageDialog(this, 
+                        "Failed to record sale.\nPossible reasons:\n- Insufficient stock\n- Database connection error\n- Item doesn't exist\n\nCheck the console for details.",
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
+        } catch (Exception e) {
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(this, 
+                "Error recording sale: " + e.getMessage() + "\n\nCheck the console for details.",
+                "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+    
+    /**
+     * Adds the item currently in the form to the cart
+     */
+    private void addToCart() {
+        if (isCartSaving() || !validateForm()) return;
+        
+        Item selectedItem = itemPicker.getSelectedItem();
+        int quantity = Integer.parseInt(quantityField.getText().trim());
+        
+        // Check stock availability including what is already in the cart
+        int inCart = 0;
+        for (Sale line : cartLines) {
+            if (line.getItemId() == selectedItem.getId()) {
+                inCart += line.getQuantity();
+            }
+        }
+        if (selectedItem.getStockQuantity() < inCart + quantity) {
+            JOptionPane.showMessageDialog(this, 
+                "Insufficient stock! Available: " + selectedItem.getStockQuantity() + ", already in cart: " + inCart,
+                "Stock Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        
+        BigDecimal unitPrice = new BigDecimal(unitPriceField.getText().trim());
+        BigDecimal totalAmount = unitPrice.multiply(new BigDecimal(quantity));
+        String notes = notesField.getText().trim();
+        
+        // Customer and date are taken from the form when the cart is recorded
+        cartLines.add(new Sale(selectedItem.getId(), 0, quantity, unitPrice, totalAmount,
+            null, notes.isEmpty() ? null : notes));
+        cartTableModel.addRow(new Object[]{
+            selectedItem.getName(),
+            quantity,
+            "$" + String.format("%.2f", unitPrice),
+            "$" + String.format("%.2f", totalAmount)
+        });
+        updateCartTotal();
+        
+        quantityField.setText("");
+        totalAmountField.setText("");
+        notesField.setText("");
+        itemPicker.requestFocusInWindow();
+    }
+    
+    /**
+     * Adds one of a scanned item to the cart at its current price
+     * Scanning an item again increases the quantity of its cart line instead of adding a line
+     * Problems are shown next to the cart total instead of in a dialog, so the next scan is not lost
+     * 
+     * @param partNumber The scanned part number
+     */
+    private void addScannedItem(String partNumber) {
+        if (cartSaving) {
+            scanFailed("Wait until the cart is recorded, then scan " + partNumber + " again");
+            return;
+        }
+        // Resolved through the item catalog's part number map, without a query once it is loaded
+        Item item = itemDAO.getItemByPartNumber(partNumber);
+        if (item == null) {
+            scanFailed("Unknown part number: " + partNumber);
+            return;
+        }
+        
+        int lineIndex = -1;
+        int inCart = 0;
+        for (int i = 0; i < cartLines.size(); i++) {
+            Sale line = cartLines.get(i);
+            if (line.getItemId() == item.getId()) {
+                inCart += line.getQuantity();
+                if (lineIndex < 0 && line.getUnitPrice().compareTo(item.getUnitPrice()) == 0) {
+                    lineIndex = i;
+                }
+            }
+        }
+        if (item.getStockQuantity() < inCart + 1) {
+            scanFailed("Insufficient stock for " + item.getName() + "! Available: " + item.getStockQuantity());
+            return;
+        }
+        
+        if (lineIndex >= 0) {
+            Sale line = cartLines.get(lineIndex);
+            line.setQuantity(line.getQuantity() + 1);
+            line.setTotalAmount(line.getUnitPrice().multiply(new BigDecimal(line.getQuantity())));
+            cartTableModel.setValueAt(line.getQuantity(), lineIndex, 1);
+            cartTableModel.setValueAt("$" + String.format("%.2f", line.getTotalAmount()), lineIndex, 3);
+        } else {
+            BigDecimal unitPrice = item.getUnitPrice();
+            cartLines.add(new Sale(item.getId(), 0, 1, unitPrice, unitPrice, null, null));
+            cartTableModel.addRow(new Object[]{
+                item.getName(),
+                1,
+                "$" + String.format("%.2f", unitPrice),
+                "$" + String.format("%.2f", unitPrice)
+            });
+            lineIndex = cartLines.size() - 1;
+        }
+        cartTable.getSelectionModel().setSelectionInterval(lineIndex, lineIndex);
+        updateCartTotal();
+        scanStatusLabel.setForeground(Color.BLACK);
+        scanStatusLabel.setText("Scanned: " + item.getName() + " (x" + cartLines.get(lineIndex).getQuantity() + ")");
+    }
+    
+    /**
+     * Reports a scan that could not be added to the cart
+     */
+    private void scanFailed(String message) {
+        Toolkit.getDefaultToolkit().beep();
+        scanStatusLabel.setForeground(Color.RED);
+        scanStatusLabel.setText(message);
+    }
+    
+    /**
+     * Removes the selected line from the cart
+     */
+    private void removeCartLine() {
+        if (isCartSaving()) return;
+        int selectedRow = cartTable.getSelectedRow();
+        if (selectedRow < 0) {
+            JOptionPane.showMessageDialog(this, "Please select a cart line to remove.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        cartLines.remove(selectedRow);
+        cartTableModel.removeRow(selectedRow);
+        updateCartTotal();
+    }
+    
+    /**
+     * Records every cart line in one transaction
+     * The cart is saved in the background while the button is disabled
+     */
+    private void recordCart(JButton button) {
+        if (cartLines.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "The cart is empty.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        
+        java.util.Date date = (java.util.Date) saleDateSpinner.getValue();
+        Date saleDate = new Date(date.getTime());
+        Customer selectedCustomer = (Customer) customerComboBox.getSelectedItem();
+        int customerId = (selectedCustomer != null && selectedCustomer.getId() > 0) ? selectedCustomer.getId() : 0;
+        for (Sale line : cartLines) {
+            line.setSaleDate(saleDate);
+            line.setCustomerId(customerId);
+        }
+        
+        // All lines are recorded together, or none are
+        // The cart cannot be changed until the save finished, see isCartSaving()
+        List<Sale> lines = new ArrayList<>(cartLines);
+        cartSaving = true;
+        ScreenLoader.write(button, () -> saleDAO.addSales(lines), saved -> {
+            cartSaving = false;
+            if (Boolean.TRUE.equals(saved)) {
                 JOptionPane.showMessageDialog(this, 
-                    "Sale recorded successfully!\nStock has been updated automatically.",
+                    "Cart recorded successfully! (" + lines.size() + " lines)\nStock has been updated automatically.",
                     "Success", JOptionPane.INFORMATION_MESSAGE);
+                clearCart();
                 clearForm();
                 refreshData();
-                // Refresh dashboard if it's open
-                mainApp.showScreen("DASHBOARD");
-                mainApp.showScreen("SALES");
             } else {
                 JOptionPane.showMessageDialog(this, 
-                    "Failed to record sale.\nPossible reasons:\n- Insufficient stock\n- Database connection error\n- Item doesn't exist\n\nCheck the console for details.",
+                    "Failed to record cart. No lines were recorded.\nPossible reasons:\n- Insufficient stock\n- Database connection error\n- Item doesn't exist\n\nCheck the console for details.",
                     "Error", JOptionPane.ERROR_MESSAGE);
             }
-        } catch (Exception e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this, 
-                "Error recording sale: " + e.getMessage() + "\n\nCheck the console for details.",
-                "Error", JOptionPane.ERROR_MESSAGE);
+        });
+    }
+    
+    /**
+     * Tells the user the cart cannot be changed while it is being recorded
+     *
+     * @return true if the cart is being recorded
+     */
+    private boolean isCartSaving() {
+        if (cartSaving) {
+            JOptionPane.showMessageDialog(this, "Please wait until the cart is recorded.", "Error", JOptionPane.ERROR_MESSAGE);
         }
+        return cartSaving;
+    }
+    
+    /**
+     * Empties the cart
+     */
+    private void clearCart() {
+        cartLines.clear();
+        cartTableModel.setRowCount(0);
+        scanStatusLabel.setText(" ");
+        updateCartTotal();
+    }
+    
+    /**
+     * Updates the cart total label
+     */
+    private void updateCartTotal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Sale line : cartLines) {
+            total = total.add(line.getTotalAmount());
+        }
+        cartTotalLabel.setText("Cart Total: $" + String.format("%.2f", total));
     }
     
     /**
      * Clears the form
      */
     private void clearForm() {
-        itemComboBox.setSelectedIndex(0);
+        itemPicker.setSelectedItem(null);
         customerComboBox.setSelectedIndex(0);
         quantityField.setText("");
         unitPriceField.setText("");
@@ -332,7 +635,7 @@ public class SalesScreen extends JPanel {
      * Validates form inputs
      */
     private boolean validateForm() {
-        if (itemComboBox.getSelectedItem() == null) {
+        if (itemPicker.getSelectedItem() == null) {
             JOptionPane.showMessageDialog(this, "Please select an item.", "Validation Error", JOptionPane.ERROR_MESSAGE);
             return false;
         }
@@ -358,5 +661,11 @@ public class SalesScreen extends JPanel {
         }
         return true;
     }
+    
+    /**
+     * Screen data loaded together in the background
+     */
+    private static class SalesData {
+        List<Customer> customers;
+    }
 }
-
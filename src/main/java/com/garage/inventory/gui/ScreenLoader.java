@@ -0,0 +1,238 @@
+package com.garage.inventory.gui;
+
+import com.garage.inventory.dao.TableVersions;
+import com.garage.inventory.dao.TableVersions.Table;
+import javax.swing.*;
+import java.awt.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * ScreenLoader runs a screen's database work on a background thread and applies the result on the EDT
+ * Each screen (or independent part of a screen) owns one loader; starting a new load or calling
+ * cancel() discards the load in progress, so a result is only ever applied by the latest request
+ * While a load is running the owning component shows a wait cursor and the loading indicator
+ * registered with setActivityListener() is told how many loads are active
+ * A loader created with the tables its screen shows can skip loads with loadIfChanged(): it remembers
+ * the TableVersions counters (and the date) the screen last rendered and does nothing while they match
+ * Writes go through the static write(), so saving never blocks repaint or input either
+ *
+ * All methods must be called on the EDT
+ */
+public class ScreenLoader {
+    private static final int THREADS = 3;
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(THREADS, r -> {
+        Thread thread = new Thread(r, "screen-loader-" + THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static int activeLoads = 0;
+    private static Consumer<Integer> activityListener;
+
+    private final JComponent owner;
+    private final Table[] tables;
+    private Future<?> current;
+    // Incremented by every load() and cancel(); a finished task only applies its result if it is still current
+    private int generation = 0;
+    private boolean loading = false;
+    // Stamp of the data on screen, and of the load in progress; null when unknown
+    private List<Object> renderedStamp;
+    private List<Object> pendingStamp;
+
+    /**
+     * @param owner The component whose cursor shows the loading state
+     * @param tables The tables whose changes make the screen's data stale, for loadIfChanged()
+     */
+    public ScreenLoader(JComponent owner, Table... tables) {
+        this.owner = owner;
+        this.tables = tables;
+    }
+
+    /**
+     * Registers the application wide loading indicator
+     *
+     * @param listener Called on the EDT with the number of active loads whenever it changes
+     */
+    public static void setActivityListener(Consumer<Integer> listener) {
+        activityListener = listener;
+    }
+
+    /**
+     * Runs a task on the loader threads without applying any result on the EDT
+     * Used to warm caches ahead of the screens that will need them
+     *
+     * @param task Database work, run on a background thread
+     */
+    public static void runInBackground(Runnable task) {
+        EXECUTOR.execute(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                System.err.println("Error in background task: " + e.getMessage());
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Runs a database write on the loader threads and hands its result to the EDT
+     * The component that started the write (usually its button) is disabled until the write
+     * finishes, so it cannot be submitted twice, and the loading indicator counts it meanwhile
+     * Unlike a load, a write is never cancelled or replaced; done is always called
+     *
+     * @param trigger Component to disable while the write runs
+     * @param write Database work, run on a background thread
+     * @param done Receives the result on the EDT, or null if the write threw
+     * @param <T> The type of result, usually the DAO's success flag
+     */
+    public static <T> void write(Component trigger, Callable<T> write, Consumer<T> done) {
+        trigger.setEnabled(false);
+        changeActiveLoads(1);
+        EXECUTOR.execute(() -> {
+            T result = null;
+            try {
+                result = write.call();
+            } catch (Exception e) {
+                System.err.println("Error writing screen data: " + e.getMessage());
+                e.printStackTrace();
+            }
+
+            T written = result;
+            SwingUtilities.invokeLater(() -> {
+                trigger.setEnabled(true);
+                changeActiveLoads(-1);
+                done.accept(written);
+            });
+        });
+    }
+
+    /**
+     * Starts a background load, replacing any load this loader is still running
+     *
+     * @param fetch Database work, run on a background thread
+     * @param apply Receives the result on the EDT, unless the load was cancelled or replaced
+     * @param <T> The type of data loaded
+     */
+    public <T> void load(Callable<T> fetch, Consumer<T> apply) {
+        start(fetch, apply, null);
+    }
+
+    /**
+     * Starts a background load unless the screen already shows, or is loading, the same data
+     * The data is the same when the key is equal and none of the loader's tables changed since
+     *
+     * @param key Identifies the query parameters, e.g. a selected filter; may be null
+     * @param fetch Database work, run on a background thread
+     * @param apply Receives the result on the EDT, unless the load was cancelled or replaced
+     * @param <T> The type of data loaded
+     * @return true if a load was started, false if it was skipped
+     */
+    public <T> boolean loadIfChanged(Object key, Callable<T> fetch, Consumer<T> apply) {
+        List<Object> stamp = stamp(key);
+        if (stamp.equals(loading ? pendingStamp : renderedStamp)) {
+            return false;
+        }
+        start(fetch, apply, stamp);
+        return true;
+    }
+
+    /**
+     * Forgets what the screen has rendered, so the next loadIfChanged() always loads
+     * Used by explicit refresh buttons, which should also pick up changes made by other clients
+     */
+    public void markStale() {
+        renderedStamp = null;
+    }
+
+    private <T> void start(Callable<T> fetch, Consumer<T> apply, List<Object> stamp) {
+        cancel();
+        int loadGeneration = ++generation;
+        pendingStamp = stamp;
+        renderedStamp = null;
+        setLoading(true);
+
+        current = EXECUTOR.submit(() -> {
+            T result = null;
+            Exception failure = null;
+            try {
+                result = fetch.call();
+            } catch (Exception e) {
+                failure = e;
+            }
+
+            T loaded = result;
+            Exception error = failure;
+            SwingUtilities.invokeLater(() -> {
+                if (loadGeneration != generation) {
+                    return; // Cancelled or replaced by a newer load
+                }
+                current = null;
+                setLoading(false);
+                if (error != null) {
+                    System.err.println("Error loading screen data: " + error.getMessage());
+                    error.printStackTrace();
+                    return;
+                }
+                renderedStamp = stamp;
+                apply.accept(loaded);
+            });
+        });
+    }
+
+    /**
+     * Cancels the load in progress, if any; its result will not be applied
+     * A load that already started runs to the end without being interrupted, as interrupting JDBC
+     * work closes the embedded database's file; the generation check throws its result away
+     */
+    public void cancel() {
+        generation++;
+        if (current != null) {
+            current.cancel(false);
+            current = null;
+        }
+        setLoading(false);
+    }
+
+    private List<Object> stamp(Object key) {
+        List<Object> stamp = new ArrayList<>(tables.length + 2);
+        stamp.add(key);
+        // Date dependent values such as today's sales or overdue debts go stale at midnight
+        stamp.add(LocalDate.now());
+        for (Table table : tables) {
+            stamp.add(TableVersions.get(table));
+        }
+        return stamp;
+    }
+
+    /**
+     * @return true while a load started by this loader is running
+     */
+    public boolean isLoading() {
+        return loading;
+    }
+
+    private void setLoading(boolean value) {
+        if (loading == value) {
+            return;
+        }
+        loading = value;
+        owner.setCursor(value ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : null);
+        changeActiveLoads(value ? 1 : -1);
+    }
+
+    private static void changeActiveLoads(int change) {
+        activeLoads += change;
+        if (activityListener != null) {
+            activityListener.accept(activeLoads);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.garage.inventory.gui;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * StartupTimer records how long each step between login and a usable main window takes
+ * LoginScreen starts it when the user submits their credentials; the steps after that call mark()
+ * The report is printed once the main window has painted and the dashboard has shown its data
+ */
+public class StartupTimer {
+    public static final String FIRST_PAINT = "First paint";
+    public static final String DASHBOARD_READY = "Dashboard data shown";
+
+    private static final List<String> phases = new ArrayList<>();
+    private static final List<Long> times = new ArrayList<>();
+    private static long startNanos = 0;
+    private static boolean reported = true;
+
+    private StartupTimer() {
+    }
+
+    /**
+     * Starts a new timing run, discarding any previous one
+     */
+    public static synchronized void start() {
+        phases.clear();
+        times.clear();
+        startNanos = System.nanoTime();
+        reported = false;
+    }
+
+    /**
+     * Records that a startup step has finished
+     * Ignored when no run is in progress, e.g. when a screen is refreshed after startup
+     *
+     * @param phase Name of the step that just finished
+     */
+    public static synchronized void mark(String phase) {
+        if (reported) {
+            return;
+        }
+        phases.add(phase);
+        times.add(System.nanoTime());
+        if (phases.contains(FIRST_PAINT) && phases.contains(DASHBOARD_READY)) {
+            report();
+        }
+    }
+
+    private static void report() {
+        reported = true;
+        StringBuilder report = new StringBuilder("Startup timing (login to first paint):\n");
+        long previous = startNanos;
+        for (int i = 0; i < phases.size(); i++) {
+            long time = times.get(i);
+            report.append(String.format("  %-32s %7.1f ms  (+%.1f ms)%n", phases.get(i),
+                    (time - startNanos) / 1_000_000.0, (time - previous) / 1_000_000.0));
+            previous = time;
+        }
+        System.out.print(report);
+    }
+}
@@ -1,36 +1,38 @@
 package com.garage.inventory.gui;
 
-import com.garage.inventory.dao.ItemDAO;
 import com.garage.inventory.dao.SupplierDAO;
-import com.garage.inventory.model.Item;
+import com.garage.inventory.dao.TableVersions.Table;
+import com.garage.inventory.model.ItemSummary;
 import com.garage.inventory.model.Supplier;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * SuppliersScreen allows managing suppliers
  * Features: Add, Edit, Delete suppliers, View supplier details
  */
-public class SuppliersScreen extends JPanel {
+public class SuppliersScreen extends JPanel implements RefreshableScreen {
     private MainApplication mainApp;
     private JTable supplierTable;
-    private DefaultTableModel tableModel;
+    private BulkTableModel tableModel;
     private JTextField nameField, contactNumberField, emailField, addressField;
     private SupplierDAO supplierDAO;
-    private ItemDAO itemDAO;
+    private final ScreenLoader loader = new ScreenLoader(this, Table.SUPPLIERS);
+    private final ScreenLoader itemsLoader = new ScreenLoader(this, Table.ITEMS, Table.SUPPLIER_ITEMS);
     private Supplier selectedSupplier;
-    private JTextArea itemsTextArea;
+    private JList<ItemSummary> itemsList;
+    private DefaultListModel<ItemSummary> itemsListModel;
+    private JLabel itemsStatusLabel;
+    private JButton unlinkButton;
     
     public SuppliersScreen(MainApplication mainApp) {
         this.mainApp = mainApp;
         supplierDAO = new SupplierDAO();
-        itemDAO = new ItemDAO();
         
         initializeComponents();
         setupLayout();
-        refreshData();
     }
     
     /**
@@ -47,12 +49,7 @@ public class SuppliersScreen extends JPanel {
         
         // Initialize table
         String[] columns = {"ID", "Name", "Contact Number", "Email", "Address"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new BulkTableModel(columns);
         supplierTable = new JTable(tableModel);
         supplierTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         supplierTable.getTableHeader().setFont(new Font("Arial", Font.BOLD, 12));
@@ -92,7 +89,11 @@ public class SuppliersScreen extends JPanel {
         
         // Refresh button
         JButton refreshButton = new JButton("Refresh");
-        refreshButton.addActionListener(e -> refreshData());
+        refreshButton.addActionListener(e -> {
+            loader.markStale();
+            itemsLoader.markStale();
+            refreshData();
+        });
         JPanel refreshPanel = new JPanel();
         refreshPanel.add(refreshButton);
         tablePanel.add(refreshPanel, BorderLayout.NORTH);
@@ -150,13 +151,13 @@ public class SuppliersScreen extends JPanel {
         JPanel panel = new JPanel(new FlowLayout());
         
         JButton addButton = new JButton("Add New");
-        addButton.addActionListener(e -> addSupplier());
+        addButton.addActionListener(e -> addSupplier(addButton));
         
         JButton updateButton = new JButton("Update");
-        updateButton.addActionListener(e -> updateSupplier());
+        updateButton.addActionListener(e -> updateSupplier(updateButton));
         
         JButton deleteButton = new JButton("Delete");
-        deleteButton.addActionListener(e -> deleteSupplier());
+        deleteButton.addActionListener(e -> deleteSupplier(deleteButton));
         
         JButton clearButton = new JButton("Clear");
         clearButton.addActionListener(e -> clearForm());
@@ -177,23 +178,50 @@ public class SuppliersScreen extends JPanel {
         panel.setBorder(BorderFactory.createTitledBorder("Parts Supplied"));
         panel.setPreferredSize(new Dimension(0, 150));
         
-        itemsTextArea = new JTextArea();
-        itemsTextArea.setEditable(false);
-        itemsTextArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
-        JScrollPane scrollPane = new JScrollPane(itemsTextArea);
+        itemsListModel = new DefaultListModel<>();
+        itemsList = new JList<>(itemsListModel);
+        itemsList.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        itemsList.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        itemsList.addListSelectionListener(e -> unlinkButton.setEnabled(!itemsList.isSelectionEmpty()));
+        JScrollPane scrollPane = new JScrollPane(itemsList);
         panel.add(scrollPane, BorderLayout.CENTER);
         
+        itemsStatusLabel = new JLabel(" ");
+        unlinkButton = new JButton("Unlink Selected");
+        unlinkButton.setEnabled(false);
+        unlinkButton.addActionListener(e -> unlinkSelectedItems());
+        JPanel bottomPanel = new JPanel(new BorderLayout());
+        bottomPanel.add(itemsStatusLabel, BorderLayout.CENTER);
+        bottomPanel.add(unlinkButton, BorderLayout.EAST);
+        panel.add(bottomPanel, BorderLayout.SOUTH);
+        
         return panel;
     }
     
     /**
-     * Refreshes the data - loads all suppliers
+     * Refreshes the data - loads all suppliers and the selected supplier's items
+     * The queries run in the background; the table is updated when they finish
+     * Nothing is reloaded when the suppliers and items are unchanged since they were shown
      */
+    @Override
     public void refreshData() {
-        tableModel.setRowCount(0);
-        List<Supplier> suppliers = supplierDAO.getAllSuppliers();
+        loader.loadIfChanged(null, supplierDAO::getAllSuppliers, this::showSuppliers);
+        updateItemsSuppliedList();
+    }
+    
+    @Override
+    public void cancelLoading() {
+        loader.cancel();
+        itemsLoader.cancel();
+    }
+    
+    /**
+     * Shows loaded suppliers (runs on the EDT)
+     */
+    private void showSuppliers(List<Supplier> suppliers) {
+        List<Object[]> rows = new ArrayList<>(suppliers.size());
         for (Supplier supplier : suppliers) {
-            tableModel.addRow(new Object[]{
+            rows.add(new Object[]{
                 supplier.getId(),
                 supplier.getName(),
                 supplier.getContactNumber() != null ? supplier.getContactNumber() : "N/A",
@@ -201,6 +229,7 @@ public class SuppliersScreen extends JPanel {
                 supplier.getAddress() != null ? supplier.getAddress() : "N/A"
             });
         }
+        tableModel.setRows(rows);
     }
     
     /**
@@ -222,54 +251,92 @@ public class SuppliersScreen extends JPanel {
                 updateItemsSuppliedList();
             }
         } else {
-            itemsTextArea.setText("");
+            itemsLoader.cancel();
+            itemsListModel.clear();
+            itemsStatusLabel.setText(" ");
         }
     }
     
     /**
      * Updates the items supplied list for the selected supplier
+     * Only the supplier's own items are queried, in the background
      */
     private void updateItemsSuppliedList() {
-        if (selectedSupplier != null && itemsTextArea != null) {
-            List<Item> allItems = itemDAO.getAllItems();
-            StringBuilder sb = new StringBuilder();
-            int count = 0;
-            for (Item item : allItems) {
-                if (item.getSupplierId() == selectedSupplier.getId()) {
-                    sb.append("• ").append(item.getName()).append(" (").append(item.getPartNumber()).append(")\n");
-                    count++;
-                }
-            }
-            if (count == 0) {
-                itemsTextArea.setText("No items linked to this supplier.");
+        if (selectedSupplier != null && itemsList != null) {
+            int supplierId = selectedSupplier.getId();
+            itemsLoader.loadIfChanged(supplierId, () -> supplierDAO.getItemSummariesBySupplier(supplierId),
+                    this::showItemsSupplied);
+        }
+    }
+    
+    /**
+     * Shows the items of the selected supplier (runs on the EDT)
+     */
+    private void showItemsSupplied(List<ItemSummary> items) {
+        itemsListModel.clear();
+        for (ItemSummary item : items) {
+            itemsListModel.addElement(item);
+        }
+        itemsStatusLabel.setText(items.isEmpty() ? "No items linked to this supplier." : items.size() + " items");
+    }
+    
+    /**
+     * Removes the links between the selected supplier and the selected parts
+     * Parts whose primary supplier it is keep it, so they stay in the list
+     */
+    private void unlinkSelectedItems() {
+        List<ItemSummary> items = itemsList.getSelectedValuesList();
+        if (selectedSupplier == null || items.isEmpty()) {
+            return;
+        }
+        
+        int confirm = JOptionPane.showConfirmDialog(this,
+            "Unlink " + items.size() + " part(s) from " + selectedSupplier.getName() + "?\n" +
+            "Parts whose primary supplier this is keep it; change that on the Items screen.",
+            "Confirm Unlink",
+            JOptionPane.YES_NO_OPTION);
+        if (confirm != JOptionPane.YES_OPTION) {
+            return;
+        }
+        
+        List<Integer> itemIds = new ArrayList<>(items.size());
+        for (ItemSummary item : items) {
+            itemIds.add(item.getId());
+        }
+        int supplierId = selectedSupplier.getId();
+        ScreenLoader.write(unlinkButton, () -> supplierDAO.unlinkItemsFromSupplier(supplierId, itemIds), unlinked -> {
+            if (Boolean.TRUE.equals(unlinked)) {
+                updateItemsSuppliedList();
             } else {
-                itemsTextArea.setText(sb.toString());
+                JOptionPane.showMessageDialog(this, "Failed to unlink parts.", "Error", JOptionPane.ERROR_MESSAGE);
             }
-        }
+        });
     }
     
     /**
      * Adds a new supplier
      */
-    private void addSupplier() {
+    private void addSupplier(JButton button) {
         if (!validateForm()) return;
         
         Supplier supplier = createSupplierFromForm();
         if (supplier == null) return;
         
-        if (supplierDAO.addSupplier(supplier)) {
-            JOptionPane.showMessageDialog(this, "Supplier added successfully!");
-            clearForm();
-            refreshData();
-        } else {
-            JOptionPane.showMessageDialog(this, "Failed to add supplier.", "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        ScreenLoader.write(button, () -> supplierDAO.addSupplier(supplier), saved -> {
+            if (Boolean.TRUE.equals(saved)) {
+                JOptionPane.showMessageDialog(this, "Supplier added successfully!");
+                clearForm();
+                refreshData();
+            } else {
+                JOptionPane.showMessageDialog(this, "Failed to add supplier.", "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        });
     }
     
     /**
      * Updates an existing supplier
      */
-    private void updateSupplier() {
+    private void updateSupplier(JButton button) {
         if (selectedSupplier == null) {
             JOptionPane.showMessageDialog(this, "Please select a supplier to update.", "Error", JOptionPane.ERROR_MESSAGE);
             return;
@@ -282,20 +349,22 @@ public class SuppliersScreen extends JPanel {
         
         supplier.setId(selectedSupplier.getId());
         
-        if (supplierDAO.updateSupplier(supplier)) {
-            JOptionPane.showMessageDialog(this, "Supplier updated successfully!");
-            clearForm();
-            selectedSupplier = null;
-            refreshData();
-        } else {
-            JOptionPane.showMessageDialog(this, "Failed to update supplier.", "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        ScreenLoader.write(button, () -> supplierDAO.updateSupplier(supplier), saved -> {
+            if (Boolean.TRUE.equals(saved)) {
+                JOptionPane.showMessageDialog(this, "Supplier updated successfully!");
+                clearForm();
+                selectedSupplier = null;
+                refreshData();
+            } else {
+                JOptionPane.showMessageDialog(this, "Failed to update supplier.", "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        });
     }
     
     /**
      * Deletes the selected supplier
      */
-    private void deleteSupplier() {
+    private void deleteSupplier(JButton button) {
         if (selectedSupplier == null) {
             JOptionPane.showMessageDialog(this, "Please select a supplier to delete.", "Error", JOptionPane.ERROR_MESSAGE);
             return;
@@ -307,14 +376,17 @@ public class SuppliersScreen extends JPanel {
             JOptionPane.YES_NO_OPTION);
         
         if (confirm == JOptionPane.YES_OPTION) {
-            if (supplierDAO.deleteSupplier(selectedSupplier.getId())) {
-                JOptionPane.showMessageDialog(this, "Supplier deleted successfully!");
-                clearForm();
-                selectedSupplier = null;
-                refreshData();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to delete supplier.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            int supplierId = selectedSupplier.getId();
+            ScreenLoader.write(button, () -> supplierDAO.deleteSupplier(supplierId), deleted -> {
+                if (Boolean.TRUE.equals(deleted)) {
+                    JOptionPane.showMessageDialog(this, "Supplier deleted successfully!");
+                    clearForm();
+                    selectedSupplier = null;
+                    refreshData();
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to delete supplier.", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         }
     }
     
@@ -366,4 +438,3 @@ public class SuppliersScreen extends JPanel {
         }
     }
 }
-
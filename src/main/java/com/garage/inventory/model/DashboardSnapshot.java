@@ -0,0 +1,53 @@
+package com.garage.inventory.model;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * DashboardSnapshot holds every value shown on the dashboard, read together at one point in time
+ * The item count, low stock items and today's totals all come from the same database snapshot,
+ * so the cards never disagree with each other or with the low stock table
+ */
+public class DashboardSnapshot {
+    private final int totalItems;
+    private final List<Item> lowStockItems;
+    private final BigDecimal todaySales;
+    private final BigDecimal todayPurchases;
+    private final long takenAt;
+    
+    public DashboardSnapshot(int totalItems, List<Item> lowStockItems, BigDecimal todaySales,
+                             BigDecimal todayPurchases, long takenAt) {
+        this.totalItems = totalItems;
+        this.lowStockItems = Collections.unmodifiableList(lowStockItems);
+        this.todaySales = todaySales;
+        this.todayPurchases = todayPurchases;
+        this.takenAt = takenAt;
+    }
+    
+    public int getTotalItems() {
+        return totalItems;
+    }
+    
+    /**
+     * @return Items at or below their minimum stock level, lowest stock first; not modifiable
+     */
+    public List<Item> getLowStockItems() {
+        return lowStockItems;
+    }
+    
+    public BigDecimal getTodaySales() {
+        return todaySales;
+    }
+    
+    public BigDecimal getTodayPurchases() {
+        return todayPurchases;
+    }
+    
+    /**
+     * @return When the snapshot was read, in System.currentTimeMillis() time
+     */
+    public long getTakenAt() {
+        return takenAt;
+    }
+}
@@ -0,0 +1,49 @@
+package com.garage.inventory.model;
+
+import java.math.BigDecimal;
+
+/**
+ * ItemSummary is a small, read-only view of an item for lists such as a supplier's catalog
+ * It carries only the columns those lists show, so they can be filled from a JOINed query
+ * without loading whole Item objects
+ */
+public class ItemSummary {
+    private final int id;
+    private final String partNumber;
+    private final String name;
+    private final BigDecimal unitPrice;
+    private final int stockQuantity;
+    
+    public ItemSummary(int id, String partNumber, String name, BigDecimal unitPrice, int stockQuantity) {
+        this.id = id;
+        this.partNumber = partNumber;
+        this.name = name;
+        this.unitPrice = unitPrice;
+        this.stockQuantity = stockQuantity;
+    }
+    
+    public int getId() {
+        return id;
+    }
+    
+    public String getPartNumber() {
+        return partNumber;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public BigDecimal getUnitPrice() {
+        return unitPrice;
+    }
+    
+    public int getStockQuantity() {
+        return stockQuantity;
+    }
+    
+    @Override
+    public String toString() {
+        return name + " (" + partNumber + ")";
+    }
+}
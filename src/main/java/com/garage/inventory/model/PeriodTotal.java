@@ -0,0 +1,44 @@
+package com.garage.inventory.model;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+
+/**
+ * PeriodTotal holds the sales or purchase totals of one day or one month
+ * Read from the rollup tables, so a report over a range costs one row per period
+ */
+public class PeriodTotal {
+    private final Date periodStart;
+    private final int count;
+    private final int quantity;
+    private final BigDecimal totalAmount;
+    
+    public PeriodTotal(Date periodStart, int count, int quantity, BigDecimal totalAmount) {
+        this.periodStart = periodStart;
+        this.count = count;
+        this.quantity = quantity;
+        this.totalAmount = totalAmount;
+    }
+    
+    /**
+     * @return The day, or the first day of the month
+     */
+    public Date getPeriodStart() {
+        return periodStart;
+    }
+    
+    /**
+     * @return Number of sale or purchase lines in the period
+     */
+    public int getCount() {
+        return count;
+    }
+    
+    public int getQuantity() {
+        return quantity;
+    }
+    
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+}
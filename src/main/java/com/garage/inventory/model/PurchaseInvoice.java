@@ -0,0 +1,99 @@
+package com.garage.inventory.model;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * PurchaseInvoice model class represents one supplier delivery with many line items
+ * The header (supplier, invoice number, date, notes) applies to every line;
+ * each line is stored as one row of the purchases table
+ */
+public class PurchaseInvoice {
+    private int supplierId;
+    private String invoiceNumber;
+    private Date purchaseDate;
+    private String notes;
+    private List<Purchase> lines = new ArrayList<>();
+    
+    public PurchaseInvoice() {
+    }
+    
+    public PurchaseInvoice(int supplierId, String invoiceNumber, Date purchaseDate, String notes) {
+        this.supplierId = supplierId;
+        this.invoiceNumber = invoiceNumber;
+        this.purchaseDate = purchaseDate;
+        this.notes = notes;
+    }
+    
+    /**
+     * Adds a line item to the invoice
+     *
+     * @param itemId The item received
+     * @param quantity Quantity received
+     * @param unitPrice Price paid per unit
+     */
+    public void addLine(int itemId, int quantity, BigDecimal unitPrice) {
+        Purchase line = new Purchase();
+        line.setItemId(itemId);
+        line.setQuantity(quantity);
+        line.setUnitPrice(unitPrice);
+        line.setTotalAmount(unitPrice.multiply(new BigDecimal(quantity)));
+        lines.add(line);
+    }
+    
+    /**
+     * Gets the invoice total
+     *
+     * @return Sum of all line totals
+     */
+    public BigDecimal getTotalAmount() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Purchase line : lines) {
+            total = total.add(line.getTotalAmount());
+        }
+        return total;
+    }
+    
+    // Getters and Setters
+    public int getSupplierId() {
+        return supplierId;
+    }
+    
+    public void setSupplierId(int supplierId) {
+        this.supplierId = supplierId;
+    }
+    
+    public String getInvoiceNumber() {
+        return invoiceNumber;
+    }
+    
+    public void setInvoiceNumber(String invoiceNumber) {
+        this.invoiceNumber = invoiceNumber;
+    }
+    
+    public Date getPurchaseDate() {
+        return purchaseDate;
+    }
+    
+    public void setPurchaseDate(Date purchaseDate) {
+        this.purchaseDate = purchaseDate;
+    }
+    
+    public String getNotes() {
+        return notes;
+    }
+    
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+    
+    public List<Purchase> getLines() {
+        return lines;
+    }
+    
+    public void setLines(List<Purchase> lines) {
+        this.lines = lines;
+    }
+}
@@ -0,0 +1,83 @@
+package com.garage.inventory.model;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+
+/**
+ * PurchaseRow is a flat, read-only view of a purchase for display in tables
+ * Item and supplier names come from the same JOINed query as the purchase,
+ * so no Item or Supplier objects have to be loaded to show a listing
+ */
+public class PurchaseRow {
+    private final int id;
+    private final int itemId;
+    private final String itemName;
+    private final int supplierId;
+    private final String supplierName;
+    private final int quantity;
+    private final BigDecimal unitPrice;
+    private final BigDecimal totalAmount;
+    private final Date purchaseDate;
+    private final String invoiceNumber;
+    
+    public PurchaseRow(int id, int itemId, String itemName, int supplierId, String supplierName,
+                       int quantity, BigDecimal unitPrice, BigDecimal totalAmount, Date purchaseDate,
+                       String invoiceNumber) {
+        this.id = id;
+        this.itemId = itemId;
+        this.itemName = itemName;
+        this.supplierId = supplierId;
+        this.supplierName = supplierName;
+        this.quantity = quantity;
+        this.unitPrice = unitPrice;
+        this.totalAmount = totalAmount;
+        this.purchaseDate = purchaseDate;
+        this.invoiceNumber = invoiceNumber;
+    }
+    
+    public int getId() {
+        return id;
+    }
+    
+    public int getItemId() {
+        return itemId;
+    }
+    
+    /**
+     * @return Item name, or null if the item no longer exists
+     */
+    public String getItemName() {
+        return itemName;
+    }
+    
+    public int getSupplierId() {
+        return supplierId;
+    }
+    
+    /**
+     * @return Supplier name, or null if no supplier was recorded
+     */
+    public String getSupplierName() {
+        return supplierName;
+    }
+    
+    public int getQuantity() {
+        return quantity;
+    }
+    
+    public BigDecimal getUnitPrice() {
+        return unitPrice;
+    }
+    
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+    
+    public Date getPurchaseDate() {
+        return purchaseDate;
+    }
+    
+    public String getInvoiceNumber() {
+        return invoiceNumber;
+    }
+}
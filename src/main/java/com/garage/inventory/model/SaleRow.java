@@ -0,0 +1,76 @@
+package com.garage.inventory.model;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+
+/**
+ * SaleRow is a flat, read-only view of a sale for display in tables
+ * Item and customer names come from the same JOINed query as the sale,
+ * so no Item or Customer objects have to be loaded to show a listing
+ */
+public class SaleRow {
+    private final int id;
+    private final int itemId;
+    private final String itemName;
+    private final int customerId;
+    private final String customerName;
+    private final int quantity;
+    private final BigDecimal unitPrice;
+    private final BigDecimal totalAmount;
+    private final Date saleDate;
+    
+    public SaleRow(int id, int itemId, String itemName, int customerId, String customerName,
+                   int quantity, BigDecimal unitPrice, BigDecimal totalAmount, Date saleDate) {
+        this.id = id;
+        this.itemId = itemId;
+        this.itemName = itemName;
+        this.customerId = customerId;
+        this.customerName = customerName;
+        this.quantity = quantity;
+        this.unitPrice = unitPrice;
+        this.totalAmount = totalAmount;
+        this.saleDate = saleDate;
+    }
+    
+    public int getId() {
+        return id;
+    }
+    
+    public int getItemId() {
+        return itemId;
+    }
+    
+    /**
+     * @return Item name, or null if the item no longer exists
+     */
+    public String getItemName() {
+        return itemName;
+    }
+    
+    public int getCustomerId() {
+        return customerId;
+    }
+    
+    /**
+     * @return Customer name, or null for walk-in sales
+     */
+    public String getCustomerName() {
+        return customerName;
+    }
+    
+    public int getQuantity() {
+        return quantity;
+    }
+    
+    public BigDecimal getUnitPrice() {
+        return unitPrice;
+    }
+    
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+    
+    public Date getSaleDate() {
+        return saleDate;
+    }
+}
@@ -0,0 +1,51 @@
+package com.garage.inventory.model;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SummaryReport holds the aggregated rows of one summary report and their grand totals
+ * The totals are summed when the report is built, on the thread that ran the query,
+ * so showing the report does no arithmetic
+ */
+public class SummaryReport {
+    private final List<SummaryRow> rows;
+    private final int totalLineCount;
+    private final int totalQuantity;
+    private final BigDecimal totalAmount;
+    
+    public SummaryReport(List<SummaryRow> rows) {
+        this.rows = Collections.unmodifiableList(rows);
+        int lineCount = 0;
+        int quantity = 0;
+        BigDecimal amount = BigDecimal.ZERO;
+        for (SummaryRow row : rows) {
+            lineCount += row.getLineCount();
+            quantity += row.getQuantity();
+            amount = amount.add(row.getTotalAmount());
+        }
+        this.totalLineCount = lineCount;
+        this.totalQuantity = quantity;
+        this.totalAmount = amount;
+    }
+    
+    /**
+     * @return The aggregated rows in report order; not modifiable
+     */
+    public List<SummaryRow> getRows() {
+        return rows;
+    }
+    
+    public int getTotalLineCount() {
+        return totalLineCount;
+    }
+    
+    public int getTotalQuantity() {
+        return totalQuantity;
+    }
+    
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+}
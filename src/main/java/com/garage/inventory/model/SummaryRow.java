@@ -0,0 +1,52 @@
+package com.garage.inventory.model;
+
+import java.math.BigDecimal;
+
+/**
+ * SummaryRow is one aggregated row of a summary report, e.g. one item, category, day or customer
+ * Computed by a GROUP BY in the database, so a report holds one row per group instead of every line
+ */
+public class SummaryRow {
+    private final String label;
+    private final String detail;
+    private final int lineCount;
+    private final int quantity;
+    private final BigDecimal totalAmount;
+    
+    public SummaryRow(String label, String detail, int lineCount, int quantity, BigDecimal totalAmount) {
+        this.label = label;
+        this.detail = detail;
+        this.lineCount = lineCount;
+        this.quantity = quantity;
+        this.totalAmount = totalAmount;
+    }
+    
+    /**
+     * @return What the row is grouped by: item name, category, date or customer name
+     */
+    public String getLabel() {
+        return label;
+    }
+    
+    /**
+     * @return A second identifying value such as the part number or contact number, or null
+     */
+    public String getDetail() {
+        return detail;
+    }
+    
+    /**
+     * @return Number of sale lines in the group
+     */
+    public int getLineCount() {
+        return lineCount;
+    }
+    
+    public int getQuantity() {
+        return quantity;
+    }
+    
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+}
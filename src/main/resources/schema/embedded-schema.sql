@@ -0,0 +1,117 @@
+-- Schema for the embedded (H2, MySQL mode) backend
+-- Mirrors the garage_inventory MySQL schema used by the DAOs; safe to run on every start
+
+CREATE TABLE IF NOT EXISTS admin (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(50) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS suppliers (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    contact_number VARCHAR(20),
+    email VARCHAR(100),
+    address VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS customers (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    contact_number VARCHAR(20),
+    email VARCHAR(100),
+    address VARCHAR(255),
+    vehicle_info VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS items (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    part_number VARCHAR(50) NOT NULL UNIQUE,
+    name VARCHAR(100) NOT NULL,
+    description VARCHAR(255),
+    category VARCHAR(50),
+    unit_price DECIMAL(10, 2) NOT NULL,
+    stock_quantity INT NOT NULL DEFAULT 0,
+    min_stock_level INT NOT NULL DEFAULT 0,
+    location VARCHAR(50),
+    supplier_id INT,
+    FOREIGN KEY (supplier_id) REFERENCES suppliers(id) ON DELETE SET NULL
+);
+
+CREATE TABLE IF NOT EXISTS supplier_items (
+    supplier_id INT NOT NULL,
+    item_id INT NOT NULL,
+    PRIMARY KEY (supplier_id, item_id),
+    FOREIGN KEY (supplier_id) REFERENCES suppliers(id) ON DELETE CASCADE,
+    FOREIGN KEY (item_id) REFERENCES items(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS purchases (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    item_id INT NOT NULL,
+    supplier_id INT,
+    quantity INT NOT NULL,
+    unit_price DECIMAL(10, 2) NOT NULL,
+    total_amount DECIMAL(12, 2) NOT NULL,
+    purchase_date DATE NOT NULL,
+    invoice_number VARCHAR(50),
+    notes VARCHAR(255),
+    FOREIGN KEY (item_id) REFERENCES items(id),
+    FOREIGN KEY (supplier_id) REFERENCES suppliers(id) ON DELETE SET NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_purchases_date ON purchases(purchase_date);
+-- Keyset pagination of the history, newest first
+CREATE INDEX IF NOT EXISTS idx_purchases_date_id ON purchases(purchase_date, id);
+
+CREATE TABLE IF NOT EXISTS sales (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    item_id INT NOT NULL,
+    customer_id INT,
+    quantity INT NOT NULL,
+    unit_price DECIMAL(10, 2) NOT NULL,
+    total_amount DECIMAL(12, 2) NOT NULL,
+    sale_date DATE NOT NULL,
+    notes VARCHAR(255),
+    FOREIGN KEY (item_id) REFERENCES items(id),
+    FOREIGN KEY (customer_id) REFERENCES customers(id) ON DELETE SET NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_sales_date ON sales(sale_date);
+-- Keyset pagination of the history, newest first
+CREATE INDEX IF NOT EXISTS idx_sales_date_id ON sales(sale_date, id);
+-- One customer's history, newest first
+CREATE INDEX IF NOT EXISTS idx_sales_customer_date_id ON sales(customer_id, sale_date, id);
+
+CREATE TABLE IF NOT EXISTS debt_transactions (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    customer_id INT NOT NULL,
+    sale_id INT,
+    transaction_type VARCHAR(20) NOT NULL,
+    amount DECIMAL(12, 2) NOT NULL,
+    remaining_balance DECIMAL(12, 2) NOT NULL,
+    transaction_date DATE NOT NULL,
+    due_date DATE,
+    payment_method VARCHAR(30),
+    reference_number VARCHAR(50),
+    notes VARCHAR(255),
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    FOREIGN KEY (customer_id) REFERENCES customers(id) ON DELETE CASCADE,
+    FOREIGN KEY (sale_id) REFERENCES sales(id) ON DELETE SET NULL
+);
+
+CREATE TABLE IF NOT EXISTS debt_payments (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    debt_transaction_id INT NOT NULL,
+    payment_amount DECIMAL(12, 2) NOT NULL,
+    payment_date DATE NOT NULL,
+    payment_method VARCHAR(30),
+    reference_number VARCHAR(50),
+    notes VARCHAR(255),
+    created_by VARCHAR(50),
+    FOREIGN KEY (debt_transaction_id) REFERENCES debt_transactions(id) ON DELETE CASCADE
+);
+
+-- Default admin account for a fresh embedded database
+INSERT INTO admin (username, password)
+SELECT 'admin', 'admin' WHERE NOT EXISTS (SELECT 1 FROM admin);
@@ -0,0 +1,33 @@
+-- Indexes the history screens rely on, for servers whose schema predates them
+-- Runs on the MySQL backend at startup; MySQL has no CREATE INDEX IF NOT EXISTS, so each index
+-- is only created when information_schema does not list it yet
+
+-- Keyset pagination of the purchase history, newest first
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'purchases'
+               AND index_name = 'idx_purchases_date_id') = 0,
+              'CREATE INDEX idx_purchases_date_id ON purchases(purchase_date, id)',
+              'DO 0');
+PREPARE create_index FROM @ddl;
+EXECUTE create_index;
+DEALLOCATE PREPARE create_index;
+
+-- Keyset pagination of the sales history, newest first
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'sales'
+               AND index_name = 'idx_sales_date_id') = 0,
+              'CREATE INDEX idx_sales_date_id ON sales(sale_date, id)',
+              'DO 0');
+PREPARE create_index FROM @ddl;
+EXECUTE create_index;
+DEALLOCATE PREPARE create_index;
+
+-- One customer's sales history, newest first
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+               WHERE table_schema = DATABASE() AND table_name = 'sales'
+               AND index_name = 'idx_sales_customer_date_id') = 0,
+              'CREATE INDEX idx_sales_customer_date_id ON sales(customer_id, sale_date, id)',
+              'DO 0');
+PREPARE create_index FROM @ddl;
+EXECUTE create_index;
+DEALLOCATE PREPARE create_index;
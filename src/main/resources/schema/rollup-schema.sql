@@ -0,0 +1,34 @@
+-- Rollup tables kept up to date by SaleDAO and PurchaseDAO in the same transaction as each insert
+-- Runs on every backend at startup; statements are valid for both MySQL and H2 in MySQL mode
+
+CREATE TABLE IF NOT EXISTS sales_daily (
+    sale_date DATE NOT NULL PRIMARY KEY,
+    sale_count INT NOT NULL,
+    quantity INT NOT NULL,
+    total_amount DECIMAL(14, 2) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS sales_item_daily (
+    sale_date DATE NOT NULL,
+    item_id INT NOT NULL,
+    sale_count INT NOT NULL,
+    quantity INT NOT NULL,
+    total_amount DECIMAL(14, 2) NOT NULL,
+    PRIMARY KEY (sale_date, item_id)
+);
+
+CREATE TABLE IF NOT EXISTS purchases_daily (
+    purchase_date DATE NOT NULL PRIMARY KEY,
+    purchase_count INT NOT NULL,
+    quantity INT NOT NULL,
+    total_amount DECIMAL(14, 2) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS purchases_item_daily (
+    purchase_date DATE NOT NULL,
+    item_id INT NOT NULL,
+    purchase_count INT NOT NULL,
+    quantity INT NOT NULL,
+    total_amount DECIMAL(14, 2) NOT NULL,
+    PRIMARY KEY (purchase_date, item_id)
+);